@@ -0,0 +1,100 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ast.Ast;
+import lexical.IdentifierPool;
+import lexical.Lexer;
+import lexical.Token;
+import lexical.TokenBuffer;
+import lexical.TokenStream;
+import optimizer.Optimizer;
+import semantic.SemanticAnalyzer;
+import sintatic.Parser;
+import sintatic.TableParser;
+import vm.Compiler;
+
+// Os benchmarks da Suite com o JMH (perfil jmh do pom.xml), sobre o mesmo
+// programa gerado, parametrizados pelo número de comandos. A taxa de alocação
+// vem do próprio JMH: java -jar target/benchmarks.jar -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrontEndBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private String text;
+    private List<Token> tokens;
+    private IdentifierPool pool;
+
+    @Setup
+    public void setup() {
+        text = Suite.programa(size);
+        Lexer lexer = new Lexer(text);
+        tokens = lexer.getTokens();
+        pool = lexer.getIdentifierPool();
+    }
+
+    // O Lexer só lê a fonte quando os tokens são pedidos: criá-lo sozinho não mede nada
+    @Benchmark
+    public TokenBuffer lexerTokenBuffer() {
+        return new Lexer(text).getTokenBuffer();
+    }
+
+    @Benchmark
+    public List<Token> lexerScanTokens() {
+        return new Lexer(text).getTokens();
+    }
+
+    @Benchmark
+    public Ast parseProgram() {
+        Parser parser = new Parser(TokenStream.of(tokens), pool);
+        parser.setRecovery(true);
+        return parser.parseProgram();
+    }
+
+    @Benchmark
+    public Ast tableDriven() {
+        TableParser parser = new TableParser(TokenStream.of(tokens), pool);
+        parser.setRecovery(true);
+        return parser.parseProgram();
+    }
+
+    @Benchmark
+    public Object semanticPass() {
+        Parser parser = new Parser(TokenStream.of(tokens), pool);
+        parser.setRecovery(true);
+        parser.setSemantic(false);
+        parser.parseProgram();
+        return new SemanticAnalyzer(parser.getSemanticLog()).analyze();
+    }
+
+    // texto -> léxico -> parser -> diagnósticos -> Optimizer -> Compiler
+    @Benchmark
+    public Object pipeline() {
+        Parser parser = new Parser(new Lexer(text));
+        parser.setRecovery(true);
+        Ast ast = parser.parseProgram();
+        if (!parser.getDiagnostics().isEmpty()) throw new IllegalStateException("Programa gerado com erros");
+        Optimizer.optimize(ast);
+        return Compiler.compile(ast);
+    }
+}
@@ -0,0 +1,72 @@
+import java.nio.file.Path;
+
+import ast.Ast;
+import diagnostic.Diagnostic;
+import lexical.Lexer;
+import lexical.Source;
+import optimizer.Optimizer;
+import optimizer.Report;
+import sintatic.*;
+import vm.Compiler;
+import vm.JvmCompiler;
+import vm.JvmProgram;
+import vm.Program;
+import vm.VM;
+import vm.VmException;
+
+// Analisa, otimiza, compila e executa um programa: in(...) lê da entrada padrão e out(...) escreve na saída.
+// Por padrão o programa vira bytecode da JVM; --vm usa o interpretador da VM.
+// --relatorio mostra (na saída de erro) o que o Optimizer eliminou.
+// Uso: java Executa [--vm] [--relatorio] [arquivo] (padrão: input/input.txt)
+public class Executa {
+    public static void main(String[] args) {
+        boolean interpretar = false;
+        boolean relatorio = false;
+        Path caminhoEntrada = Path.of("input").resolve("input.txt");
+        for (String arg : args) {
+            if (arg.equals("--vm")) interpretar = true;
+            else if (arg.equals("--relatorio")) relatorio = true;
+            else caminhoEntrada = Path.of(arg);
+        }
+
+        try {
+            Parser parser = new Parser(new Lexer(Source.map(caminhoEntrada)));
+            parser.setRecovery(true);
+            Ast ast = parser.parseProgram();
+
+            // Só executa programas sem erros
+            if (!parser.getDiagnostics().isEmpty()) {
+                for (Diagnostic diagnostico : parser.getDiagnostics()) {
+                    System.err.println(diagnostico);
+                }
+                System.exit(1);
+            }
+
+            Report otimizacao = Optimizer.optimize(ast);
+            if (relatorio) System.err.print(otimizacao);
+
+            if (!interpretar) {
+                JvmProgram classe;
+                try {
+                    classe = JvmCompiler.compile(ast);
+                } catch (IllegalStateException e) {
+                    // Não cabe num método da JVM: a VM não tem esse limite
+                    classe = null;
+                }
+                if (classe != null) {
+                    classe.run(System.in, System.out);
+                    return;
+                }
+            }
+
+            Program programa = Compiler.compile(ast);
+            new VM(programa, System.in, System.out).run();
+
+        } catch (VmException e) {
+            System.err.println(e.diagnostic);
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Erro ao processar input:" + e.getMessage() + "\n");
+        }
+    }
+}
\ No newline at end of file
@@ -1,30 +1,78 @@
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
+import batch.BatchAnalyzer;
+import batch.BatchReport;
+import batch.ResultCache;
+import diagnostic.Diagnostic;
+import instrumentation.Instrumentation;
 import lexical.Lexer;
-import lexical.Token;
+import lexical.Source;
+import semantic.SemanticAnalyzer;
 import sintatic.*;
 
 public class Teste {
+    // Sem argumentos analisa input/input.txt. Com argumentos, analisa em lote os
+    // arquivos, diretórios e globs dados: java Teste [-j threads] [-stats] caminhos...
+    // -stats mede cada fase por arquivo e imprime um resumo depois do relatório;
+    // -cache dir reaproveita resultados de arquivos que não mudaram (-cache-max MB, padrão 256)
     public static void main(String[] args) {
+        if (args.length > 0) {
+            lote(args);
+            return;
+        }
+
         Path pastaEntrada = Path.of("input");
 
         try {
             // Caminho do arquivo de entrada
             Path caminhoEntrada = pastaEntrada.resolve("input.txt");
 
-            // Lê o conteúdo do arquivo
-            String codigoFonte = Files.readString(caminhoEntrada);
+            // Mapeia o arquivo em memória: o léxico lê direto dos bytes e o
+            // parser puxa os tokens à medida que avança
+            Lexer lexer = new Lexer(Source.map(caminhoEntrada));
 
+            // Modo de recuperação: reporta todos os erros do arquivo de uma vez.
+            // O parser só monta a árvore; a análise semântica vem depois, com os
+            // blocos do programa verificados em paralelo
+            Parser parser = new Parser(lexer);
+            parser.setRecovery(true);
+            parser.setSemantic(false);
+            parser.parseProgram();
+            SemanticAnalyzer semantico = new SemanticAnalyzer(parser.getSemanticLog());
 
-            // Executa o analisador léxico
-            Lexer lexer = new Lexer(codigoFonte);
-            List<Token> tokens = lexer.getTokens();
+            for (Diagnostic diagnostico : semantico.analyze()) {
+                System.err.println(diagnostico);
+            }
 
-            Parser parser = new Parser(tokens);
-            parser.parseProgram();
+        } catch (Exception e) {
+            System.err.println("Erro ao processar input:" + e.getMessage() + "\n");
+        }
+    }
 
+    private static void lote(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean resumo = false;
+        Path cache = null;
+        long cacheMax = 256;
+        List<String> caminhos = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j") && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-stats")) resumo = true;
+            else if (args[i].equals("-cache") && i + 1 < args.length) cache = Path.of(args[++i]);
+            else if (args[i].equals("-cache-max") && i + 1 < args.length) cacheMax = Long.parseLong(args[++i]);
+            else caminhos.add(args[i]);
+        }
+        if (resumo) Instrumentation.setEnabled(true);
+
+        try {
+            List<Path> arquivos = BatchAnalyzer.collect(caminhos);
+            BatchAnalyzer analisador = new BatchAnalyzer(threads);
+            if (cache != null) analisador.setCache(new ResultCache(cache, cacheMax * 1024 * 1024));
+            BatchReport relatorio = analisador.analyze(arquivos);
+            relatorio.print(System.out);
+            if (resumo) relatorio.printMetrics(System.out, 5);
         } catch (Exception e) {
             System.err.println("Erro ao processar input:" + e.getMessage() + "\n");
         }
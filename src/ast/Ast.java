@@ -0,0 +1,246 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lexical.TokenType;
+import semantic.Symbol;
+import semantic.TypeKind;
+
+// Árvore sintática guardada numa arena: cada nó é um índice em arrays
+// paralelos de tipos primitivos, em vez de um objeto por nó. Filhos são
+// referenciados pelo índice; listas (declarações, comandos) são encadeadas
+// pelo campo next. NONE marca a ausência de nó.
+public final class Ast {
+    public static final int NONE = -1;
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final TypeKind[] TYPES = TypeKind.values();
+    private static final TokenType[] OPS = TokenType.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] ops = new byte[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] firsts = new int[INITIAL_CAPACITY];
+    private int[] seconds = new int[INITIAL_CAPACITY];
+    private int[] thirds = new int[INITIAL_CAPACITY];
+    private int[] nexts = new int[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final List<Symbol> symbols = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+    private int root = NONE;
+
+    // ---- construção (usada pelo Parser) ----
+
+    public int add(NodeKind kind, TypeKind type, int line) {
+        if (size == kinds.length) grow();
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        types[node] = (byte) (type == null ? TypeKind.ERRO : type).ordinal();
+        lines[node] = line;
+        firsts[node] = NONE;
+        seconds[node] = NONE;
+        thirds[node] = NONE;
+        nexts[node] = NONE;
+        return node;
+    }
+
+    public int add(NodeKind kind, TypeKind type, int line, int first, int second) {
+        int node = add(kind, type, line);
+        firsts[node] = first;
+        seconds[node] = second;
+        return node;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        ops = Arrays.copyOf(ops, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        firsts = Arrays.copyOf(firsts, capacity);
+        seconds = Arrays.copyOf(seconds, capacity);
+        thirds = Arrays.copyOf(thirds, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    public void setKind(int node, NodeKind kind) {
+        kinds[node] = (byte) kind.ordinal();
+    }
+
+    public void setOp(int node, TokenType op) {
+        ops[node] = (byte) op.ordinal();
+    }
+
+    public void setFirst(int node, int child) {
+        firsts[node] = child;
+    }
+
+    public void setSecond(int node, int child) {
+        seconds[node] = child;
+    }
+
+    public void setThird(int node, int child) {
+        thirds[node] = child;
+    }
+
+    public void setNext(int node, int sibling) {
+        nexts[node] = sibling;
+    }
+
+    public void setValue(int node, long value) {
+        values[node] = value;
+    }
+
+    public void setType(int node, TypeKind type) {
+        types[node] = (byte) type.ordinal();
+    }
+
+    public void setRoot(int node) {
+        root = node;
+    }
+
+    // Soma delta às linhas dos nós [from, to) (texto inserido ou removido acima deles)
+    public void shiftLines(int from, int to, int delta) {
+        for (int node = from; node < to; node++) lines[node] += delta;
+    }
+
+    // Registra o símbolo (uma vez) e devolve seu índice
+    public int symbolIndex(Symbol symbol) {
+        if (symbol == null) return NONE;
+        if (symbol.index < 0) {
+            symbol.index = symbols.size();
+            symbols.add(symbol);
+        }
+        return symbol.index;
+    }
+
+    public int addString(String text) {
+        strings.add(text);
+        return strings.size() - 1;
+    }
+
+    // ---- leitura ----
+
+    public int root() {
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NodeKind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    public TypeKind type(int node) {
+        return TYPES[types[node]];
+    }
+
+    public TokenType op(int node) {
+        return OPS[ops[node]];
+    }
+
+    public int line(int node) {
+        return lines[node];
+    }
+
+    public int first(int node) {
+        return firsts[node];
+    }
+
+    public int second(int node) {
+        return seconds[node];
+    }
+
+    public int third(int node) {
+        return thirds[node];
+    }
+
+    public int next(int node) {
+        return nexts[node];
+    }
+
+    public long value(int node) {
+        return values[node];
+    }
+
+    public int intValue(int node) {
+        return (int) values[node];
+    }
+
+    public double floatValue(int node) {
+        return Double.longBitsToDouble(values[node]);
+    }
+
+    // Símbolo referenciado por VAR, ASSIGN, READ ou DECL (null se não foi declarado)
+    public Symbol symbol(int node) {
+        int index = (int) values[node];
+        return index < 0 ? null : symbols.get(index);
+    }
+
+    public String string(int node) {
+        return strings.get((int) values[node]);
+    }
+
+    public List<Symbol> symbols() {
+        return symbols;
+    }
+
+    // Representação indentada, útil para depurar
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        if (root != NONE) dump(root, 0, out);
+        return out.toString();
+    }
+
+    private void dump(int node, int depth, StringBuilder out) {
+        for (int i = 0; i < depth; i++) out.append("  ");
+        out.append(kind(node));
+        switch (kind(node)) {
+            case BINARY:
+            case UNARY:
+                out.append(' ').append(op(node));
+                break;
+            case VAR:
+            case ASSIGN:
+            case READ:
+            case DECL:
+                Symbol symbol = symbol(node);
+                out.append(' ').append(symbol == null ? "?" : symbol.getName());
+                break;
+            case INT_CONST:
+                out.append(' ').append(intValue(node));
+                break;
+            case FLOAT_CONST:
+                out.append(' ').append(floatValue(node));
+                break;
+            case CHAR_CONST:
+                out.append(" '").append((char) value(node)).append('\'');
+                break;
+            case BOOL_CONST:
+                out.append(' ').append(value(node) != 0);
+                break;
+            case STRING:
+                out.append(" \"").append(string(node)).append('"');
+                break;
+            default:
+                break;
+        }
+        if (kind(node).isExpression()) {
+            out.append(" : ").append(type(node));
+        }
+        out.append('\n');
+
+        for (int child : new int[] { firsts[node], seconds[node], thirds[node] }) {
+            for (int n = child; n != NONE; n = nexts[n]) dump(n, depth + 1, out);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ast;
+
+public enum NodeKind {
+    PROGRAM,      // first: 1ª declaração, second: 1º comando
+    BLOCK,        // corpo de if/while/repeat (ou comando, após o Optimizer): first: 1ª declaração, second: 1º comando
+    DECL,         // value: índice do símbolo declarado
+
+    ASSIGN,       // value: símbolo, first: expressão
+    IF,           // first: condição, second: bloco then, third: bloco else (ou NONE)
+    WHILE,        // first: condição, second: bloco
+    REPEAT,       // first: condição do until, second: bloco
+    READ,         // value: símbolo
+    WRITE,        // first: expressão ou literal
+
+    BINARY,       // op, first: esquerdo, second: direito
+    UNARY,        // op (NOT ou MINUS), first: operando
+    VAR,          // value: símbolo
+    INT_CONST,    // value: o inteiro
+    FLOAT_CONST,  // value: bits do double
+    CHAR_CONST,   // value: código do caractere
+    BOOL_CONST,   // value: 0 ou 1 (só surge do Optimizer)
+    STRING;       // value: índice da string
+
+    public boolean isExpression() {
+        return ordinal() >= BINARY.ordinal();
+    }
+}
@@ -0,0 +1,256 @@
+package batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import diagnostic.Diagnostic;
+import instrumentation.FileEvent;
+import instrumentation.FileMetrics;
+import instrumentation.Instrumentation;
+import instrumentation.PhaseEvent;
+import lexical.Lexer;
+import lexical.Source;
+import lexical.TokenBuffer;
+import semantic.SemanticAnalyzer;
+import semantic.Symbol;
+import semantic.SymbolTable;
+import sintatic.ParseException;
+import sintatic.Parser;
+
+// Analisa muitos arquivos em paralelo num ForkJoinPool. Cada arquivo tem seu
+// próprio Lexer, Parser e SymbolTable (nada disso é compartilhado), então as
+// análises são independentes; uma exceção num arquivo (ou a memória esgotada
+// por ele, em qualquer um dos caminhos) vira a falha daquele arquivo e não
+// interrompe o lote. A análise semântica de um arquivo grande
+// divide os blocos dele em tarefas no mesmo pool (ver SemanticAnalyzer).
+public final class BatchAnalyzer {
+    private final int threads;
+
+    // Resultados de análises anteriores, por conteúdo (null: sem cache)
+    private ResultCache cache;
+
+    public BatchAnalyzer(int threads) {
+        this.threads = threads;
+    }
+
+    public BatchAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    // Expande os argumentos em arquivos: diretórios viram todos os .txt dentro
+    // deles (recursivamente), padrões com * ? [ { são globs e o resto é arquivo.
+    public static List<Path> collect(List<String> arguments) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String argument : arguments) {
+            if (firstWildcard(argument) >= 0) {
+                files.addAll(glob(argument));
+            } else {
+                Path path = Path.of(argument);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> walk = Files.walk(path)) {
+                        files.addAll(walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".txt"))
+                            .sorted().collect(Collectors.toList()));
+                    }
+                } else {
+                    files.add(path);
+                }
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static int firstWildcard(String argument) {
+        for (int i = 0; i < argument.length(); i++) {
+            char c = argument.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') return i;
+        }
+        return -1;
+    }
+
+    // Percorre o diretório anterior ao primeiro curinga e filtra pelo padrão inteiro
+    private static List<Path> glob(String pattern) throws IOException {
+        int wildcard = firstWildcard(pattern);
+        int separator = pattern.lastIndexOf('/', wildcard);
+        Path base = Path.of(separator < 0 ? "." : separator == 0 ? "/" : pattern.substring(0, separator));
+        String relative = separator < 0 ? "./" + pattern : pattern;
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + relative);
+        if (!Files.isDirectory(base)) return List.of();
+        try (Stream<Path> walk = Files.walk(base)) {
+            return walk.filter(p -> Files.isRegularFile(p) && matcher.matches(p)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    public BatchReport analyze(List<Path> files) {
+        long start = System.nanoTime();
+        List<FileResult> results = new ArrayList<>(files.size());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Future<FileResult>> pending = new ArrayList<>(files.size());
+            for (Path file : files) {
+                pending.add(pool.submit(() -> cache != null ? analyzeCached(file) : analyzeFile(file)));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    results.add(pending.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new FileResult(files.get(i), 0, List.of(), String.valueOf(e.getCause())));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        if (cache != null) {
+            try {
+                cache.evict();
+            } catch (IOException e) {
+                System.err.println("Cache: " + e);
+            }
+        }
+        return new BatchReport(results, System.nanoTime() - start, threads, cache != null);
+    }
+
+    // Lê o arquivo uma vez: os bytes dão a chave do cache e, se ela não estiver
+    // lá, são analisados e o resultado é guardado (falhas não são guardadas)
+    private FileResult analyzeCached(Path path) {
+        ByteBuffer content;
+        try {
+            content = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            return new FileResult(path, 0, List.of(), e.toString());
+        }
+        String key = cache.key(content);
+        FileResult result = cache.load(key, path, content.limit());
+        if (result != null) return result;
+
+        result = analyzeSource(path, content.limit(), Source.of(content));
+        if (result.failure == null) cache.store(key, result);
+        return result;
+    }
+
+    // Análise completa de um arquivo, no modo de recuperação (todos os diagnósticos)
+    static FileResult analyzeFile(Path path) {
+        if (Instrumentation.isEnabled()) return analyzeInstrumented(path);
+        long bytes = 0;
+        try {
+            bytes = Files.size(path);
+            return analyzeSource(path, bytes, Source.read(path));
+        } catch (IOException | OutOfMemoryError e) {
+            return new FileResult(path, bytes, List.of(), e.toString());
+        }
+    }
+
+    private static FileResult analyzeSource(Path path, long bytes, Source source) {
+        Parser parser = null;
+        try {
+            parser = new Parser(new Lexer(source));
+            parser.setRecovery(true);
+            parser.setSemantic(false);
+            try {
+                parser.parseProgram();
+            } catch (ParseException e) {
+                // Erro fora de um ponto de recuperação: o diagnóstico já está na lista
+            }
+            SemanticAnalyzer semantic = new SemanticAnalyzer(parser.getSemanticLog());
+            List<Diagnostic> diagnostics = semantic.analyze();
+            return new FileResult(path, bytes, diagnostics, null, null, declared(semantic.getSymbolTable()), false);
+        } catch (RuntimeException | StackOverflowError | OutOfMemoryError e) {
+            List<Diagnostic> diagnostics = parser != null ? parser.getDiagnostics() : List.of();
+            return new FileResult(path, bytes, diagnostics, e.toString());
+        }
+    }
+
+    // Variáveis globais da análise (vazia se ela parou dentro de um bloco)
+    private static List<Symbol> declared(SymbolTable table) {
+        if (table == null || table.getScopeLevel() != 1) return List.of();
+        return table.getDeclared();
+    }
+
+    // Como analyzeFile, mas com as fases separadas para medir cada uma: o léxico
+    // roda inteiro (num TokenBuffer) antes do parser em vez de ser puxado por ele.
+    // Das tabelas de símbolos da fase semântica vêm os contadores de buscas e de
+    // profundidade de escopos.
+    private static FileResult analyzeInstrumented(Path path) {
+        String name = path.toString();
+        FileEvent fileEvent = FileEvent.start(name);
+        long bytes = 0;
+        long tokens = 0;
+        long readNanos = 0;
+        long lexNanos = 0;
+        long parseNanos = 0;
+        long semanticNanos = 0;
+        Parser parser = null;
+        SemanticAnalyzer semantic = null;
+        List<Diagnostic> diagnostics = null;
+        String failure = null;
+        try {
+            long start = System.nanoTime();
+            PhaseEvent phase = PhaseEvent.start(name, PhaseEvent.READ);
+            bytes = Files.size(path);
+            Source source = Source.read(path);
+            phase.finish(bytes);
+            readNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            phase = PhaseEvent.start(name, PhaseEvent.LEX);
+            TokenBuffer buffer = new Lexer(source).getTokenBuffer();
+            tokens = buffer.size();
+            phase.finish(tokens);
+            lexNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            phase = PhaseEvent.start(name, PhaseEvent.PARSE);
+            parser = new Parser(buffer.stream(), buffer.getIdentifierPool());
+            parser.setRecovery(true);
+            parser.setSemantic(false);
+            try {
+                phase.finish(parser.parseProgram().size());
+            } catch (ParseException e) {
+                // Erro fora de um ponto de recuperação: o diagnóstico já está na lista
+                phase.finish(0);
+            }
+            parseNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            phase = PhaseEvent.start(name, PhaseEvent.SEMANTIC);
+            semantic = new SemanticAnalyzer(parser.getSemanticLog());
+            diagnostics = semantic.analyze();
+            phase.finish(parser.getSemanticLog().size());
+            semanticNanos = System.nanoTime() - start;
+        } catch (IOException | RuntimeException | StackOverflowError | OutOfMemoryError e) {
+            failure = e.toString();
+        }
+
+        if (diagnostics == null) diagnostics = parser != null ? parser.getDiagnostics() : List.of();
+        long lookups = 0;
+        int maxScopeDepth = 0;
+        if (semantic != null && semantic.getSymbolTable() != null) {
+            lookups = semantic.getLookups();
+            maxScopeDepth = semantic.getMaxScopeLevel();
+        }
+        FileMetrics metrics = new FileMetrics(bytes, readNanos, lexNanos, parseNanos, semanticNanos, tokens, lookups,
+            maxScopeDepth, diagnostics.size());
+        fileEvent.finish(metrics);
+        List<Symbol> declared = failure == null ? declared(semantic.getSymbolTable()) : List.of();
+        return new FileResult(path, bytes, diagnostics, failure, metrics, declared, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package batch;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import diagnostic.Diagnostic;
+import instrumentation.FileMetrics;
+
+// Relatório de um lote: os diagnósticos de cada arquivo (na ordem em que os
+// arquivos foram pedidos, não na ordem em que terminaram) e os totais.
+public final class BatchReport {
+    private final List<FileResult> results;
+    private final long nanos;
+    private final int threads;
+    private final boolean cache;
+
+    BatchReport(List<FileResult> results, long nanos, int threads, boolean cache) {
+        this.results = results;
+        this.nanos = nanos;
+        this.threads = threads;
+        this.cache = cache;
+    }
+
+    public List<FileResult> getResults() {
+        return results;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long totalBytes() {
+        long total = 0;
+        for (FileResult result : results) total += result.bytes;
+        return total;
+    }
+
+    // Arquivos limpos não aparecem; depois vêm os totais
+    public void print(PrintStream out) {
+        Map<Diagnostic.Kind, Integer> byKind = new EnumMap<>(Diagnostic.Kind.class);
+        int withErrors = 0;
+        int failures = 0;
+        int diagnostics = 0;
+        int cached = 0;
+
+        for (FileResult result : results) {
+            if (result.cached) cached++;
+            if (result.isClean()) continue;
+            out.println("== " + result.path);
+            for (Diagnostic diagnostic : result.diagnostics) {
+                out.println(diagnostic);
+                byKind.merge(diagnostic.kind, 1, Integer::sum);
+            }
+            diagnostics += result.diagnostics.size();
+            if (result.failure != null) {
+                out.println("Falha: " + result.failure);
+                failures++;
+            }
+            if (!result.diagnostics.isEmpty()) withErrors++;
+        }
+
+        double seconds = nanos / 1e9;
+        double megabytes = totalBytes() / (1024.0 * 1024.0);
+        out.println();
+        out.printf("Arquivos: %d (%d com erros, %d falhas)%n", results.size(), withErrors, failures);
+        out.printf("Diagnósticos: %d (léxicos %d, sintáticos %d, semânticos %d)%n", diagnostics,
+            byKind.getOrDefault(Diagnostic.Kind.LEXICO, 0),
+            byKind.getOrDefault(Diagnostic.Kind.SINTATICO, 0),
+            byKind.getOrDefault(Diagnostic.Kind.SEMANTICO, 0));
+        if (cache) out.printf("Cache: %d de %d arquivos sem reanálise%n", cached, results.size());
+        out.printf("Tempo: %.3f s com %d threads%n", seconds, threads);
+        out.printf("Vazão: %.1f arquivos/s, %.2f MB/s%n", results.size() / seconds, megabytes / seconds);
+    }
+
+    // Resumo da instrumentação: tempo de cada fase somado sobre os arquivos (em
+    // paralelo, passa do tempo de parede), contadores e os arquivos mais lentos
+    public void printMetrics(PrintStream out, int slowest) {
+        List<FileResult> measured = new ArrayList<>();
+        long read = 0, lex = 0, parse = 0, semantic = 0, tokens = 0, lookups = 0;
+        int maxScopeDepth = 0;
+        for (FileResult result : results) {
+            FileMetrics metrics = result.metrics;
+            if (metrics == null) continue;
+            measured.add(result);
+            read += metrics.readNanos;
+            lex += metrics.lexNanos;
+            parse += metrics.parseNanos;
+            semantic += metrics.semanticNanos;
+            tokens += metrics.tokens;
+            lookups += metrics.lookups;
+            maxScopeDepth = Math.max(maxScopeDepth, metrics.maxScopeDepth);
+        }
+        if (measured.isEmpty()) {
+            out.println("Sem medidas (instrumentação desligada)");
+            return;
+        }
+
+        long total = Math.max(1, read + lex + parse + semantic);
+        out.println();
+        out.printf("Fases: leitura %.1f ms (%.0f%%), léxico %.1f ms (%.0f%%), parser %.1f ms (%.0f%%), semântico %.1f ms (%.0f%%)%n",
+            read / 1e6, 100.0 * read / total, lex / 1e6, 100.0 * lex / total, parse / 1e6, 100.0 * parse / total,
+            semantic / 1e6, 100.0 * semantic / total);
+        out.printf("Tokens: %d (%.2f milhões/s no léxico, %.2f milhões/s no parser)%n", tokens,
+            tokens / Math.max(1, lex / 1e3), tokens / Math.max(1, parse / 1e3));
+        out.printf("Tabela de símbolos: %d buscas, profundidade máxima de escopos %d%n", lookups, maxScopeDepth);
+
+        measured.sort(Comparator.comparingLong((FileResult result) -> result.metrics.totalNanos()).reversed());
+        out.println("Mais lentos:");
+        for (int i = 0; i < Math.min(slowest, measured.size()); i++) {
+            FileResult result = measured.get(i);
+            FileMetrics metrics = result.metrics;
+            out.printf("  %8.2f ms  %s (%d bytes, %d tokens, leitura %.2f, léxico %.2f, parser %.2f, semântico %.2f ms, %d diagnósticos)%n",
+                metrics.totalNanos() / 1e6, result.path, metrics.bytes, metrics.tokens, metrics.readNanos / 1e6,
+                metrics.lexNanos / 1e6, metrics.parseNanos / 1e6, metrics.semanticNanos / 1e6, metrics.diagnostics);
+        }
+    }
+}
\ No newline at end of file
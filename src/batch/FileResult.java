@@ -0,0 +1,46 @@
+package batch;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import diagnostic.Diagnostic;
+import instrumentation.FileMetrics;
+import semantic.Symbol;
+
+// Resultado da análise de um arquivo do lote.
+public final class FileResult {
+    public final Path path;
+    public final long bytes;
+    public final List<Diagnostic> diagnostics;
+
+    // Mensagem da exceção que interrompeu a análise (null se ela terminou)
+    public final String failure;
+
+    // Medidas da análise instrumentada (null com a instrumentação desligada)
+    public final FileMetrics metrics;
+
+    // Variáveis globais declaradas no arquivo (vazia se a análise não chegou ao fim)
+    public final List<Symbol> symbols;
+
+    // true se o resultado veio do ResultCache, sem analisar o arquivo
+    public final boolean cached;
+
+    FileResult(Path path, long bytes, List<Diagnostic> diagnostics, String failure) {
+        this(path, bytes, diagnostics, failure, null, List.of(), false);
+    }
+
+    FileResult(Path path, long bytes, List<Diagnostic> diagnostics, String failure, FileMetrics metrics,
+               List<Symbol> symbols, boolean cached) {
+        this.path = path;
+        this.bytes = bytes;
+        this.diagnostics = diagnostics;
+        this.failure = failure;
+        this.metrics = metrics;
+        this.symbols = symbols;
+        this.cached = cached;
+    }
+
+    public boolean isClean() {
+        return failure == null && diagnostics.isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import diagnostic.Diagnostic;
+import semantic.Symbol;
+import semantic.TypeKind;
+
+// Cache em disco dos resultados da análise. A chave é o SHA-256 do conteúdo do
+// arquivo junto com ANALYZER_VERSION, então um arquivo igual (mesmo renomeado ou
+// em outro diretório) não é analisado de novo. Cada entrada é um arquivo binário
+// pequeno com os diagnósticos e as variáveis globais (a tabela de símbolos no fim
+// da análise):
+//   int MAGIC, int versão, int n, n x (byte tipo, int linha, int offset, int tamanho, texto mensagem),
+//   int m, m x (texto nome, byte tipo, int offset)      texto = int tamanho + UTF-8
+// Um acerto atualiza a data de modificação da entrada; evict() apaga as menos
+// usadas recentemente até o diretório caber em maxBytes (LRU aproximado pela data).
+// Entradas são escritas num arquivo temporário e renomeadas, então várias threads
+// (ou processos) podem usar o mesmo diretório.
+public final class ResultCache {
+    // Aumente quando a análise mudar o que produz (regras, mensagens): invalida as entradas antigas
+    static final int ANALYZER_VERSION = 3;
+
+    private static final int MAGIC = 0x50524331; // "PRC1"
+    private static final String SUFFIX = ".res";
+    private static final Diagnostic.Kind[] KINDS = Diagnostic.Kind.values();
+    private static final TypeKind[] TYPES = TypeKind.values();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ResultCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    // Chave do conteúdo (da posição ao limite de content, que não é alterado)
+    String key(ByteBuffer content) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(ByteBuffer.allocate(4).putInt(0, ANALYZER_VERSION));
+        digest.update(content.duplicate());
+        byte[] hash = digest.digest();
+
+        char[] hex = new char[32];
+        for (int i = 0; i < 16; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    // Resultado guardado para a chave (null se não há, ou se a entrada está corrompida)
+    FileResult load(String key, Path path, long bytes) {
+        Path entry = directory.resolve(key + SUFFIX);
+        ByteBuffer data;
+        try {
+            data = ByteBuffer.wrap(Files.readAllBytes(entry));
+        } catch (IOException e) {
+            misses.incrementAndGet(); // ainda não analisado (ou ilegível)
+            return null;
+        }
+
+        try {
+            if (data.getInt() != MAGIC || data.getInt() != ANALYZER_VERSION) {
+                misses.incrementAndGet();
+                return null;
+            }
+            int count = data.getInt();
+            List<Diagnostic> diagnostics = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Diagnostic.Kind kind = KINDS[data.get()];
+                int line = data.getInt();
+                int offset = data.getInt();
+                int length = data.getInt();
+                diagnostics.add(new Diagnostic(kind, line, offset, length, text(data)));
+            }
+            count = data.getInt();
+            List<Symbol> symbols = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Symbol symbol = new Symbol(text(data), TYPES[data.get()]);
+                symbol.offset = data.getInt();
+                symbol.SetcopeLevel(1);
+                symbols.add(symbol);
+            }
+            touch(entry);
+            hits.incrementAndGet();
+            return new FileResult(path, bytes, diagnostics, null, null, symbols, true);
+        } catch (RuntimeException e) {
+            // entrada truncada ou de outro formato: é refeita pela próxima análise
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    void store(String key, FileResult result) {
+        int size = 16;
+        List<byte[]> texts = new ArrayList<>();
+        for (Diagnostic diagnostic : result.diagnostics) {
+            byte[] text = diagnostic.message.getBytes(StandardCharsets.UTF_8);
+            texts.add(text);
+            size += 17 + text.length;
+        }
+        for (Symbol symbol : result.symbols) {
+            byte[] text = symbol.getName().getBytes(StandardCharsets.UTF_8);
+            texts.add(text);
+            size += 9 + text.length;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(size);
+        data.putInt(MAGIC).putInt(ANALYZER_VERSION).putInt(result.diagnostics.size());
+        int next = 0;
+        for (Diagnostic diagnostic : result.diagnostics) {
+            data.put((byte) diagnostic.kind.ordinal()).putInt(diagnostic.line).putInt(diagnostic.offset).putInt(diagnostic.length);
+            byte[] text = texts.get(next++);
+            data.putInt(text.length).put(text);
+        }
+        data.putInt(result.symbols.size());
+        for (Symbol symbol : result.symbols) {
+            byte[] text = texts.get(next++);
+            data.putInt(text.length).put(text);
+            data.put((byte) symbol.getType().ordinal()).putInt(symbol.offset);
+        }
+
+        Path entry = directory.resolve(key + SUFFIX);
+        try {
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporary, data.array());
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // sem cache para este arquivo: a análise já está feita
+        }
+    }
+
+    // Apaga as entradas usadas há mais tempo até o total caber em maxBytes
+    public void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> list = Files.list(directory)) {
+            entries = list.filter(p -> p.toString().endsWith(SUFFIX)).collect(Collectors.toList());
+        }
+        long total = 0;
+        List<long[]> stamps = new ArrayList<>(entries.size()); // [data, tamanho, índice]
+        for (int i = 0; i < entries.size(); i++) {
+            try {
+                long size = Files.size(entries.get(i));
+                stamps.add(new long[] { Files.getLastModifiedTime(entries.get(i)).toMillis(), size, i });
+                total += size;
+            } catch (NoSuchFileException e) {
+                // apagada por outro processo
+            }
+        }
+        if (total <= maxBytes) return;
+
+        stamps.sort(Comparator.comparingLong((long[] stamp) -> stamp[0]));
+        for (long[] stamp : stamps) {
+            if (total <= maxBytes) break;
+            Files.deleteIfExists(entries.get((int) stamp[2]));
+            total -= stamp[1];
+        }
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // só afeta a ordem de remoção
+        }
+    }
+
+    private static String text(ByteBuffer data) {
+        int length = data.getInt();
+        String text = new String(data.array(), data.position(), length, StandardCharsets.UTF_8);
+        data.position(data.position() + length);
+        return text;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package benchmark;
+
+import lexical.Lexer;
+import sintatic.IncrementalParser;
+import sintatic.Parser;
+
+// Compara, para programas de tamanhos crescentes, a análise completa com o tempo
+// de uma edição incremental (digitar e apagar um comando no meio, um caractere
+// por vez) até os diagnósticos atualizados.
+// Uso: java benchmark.IncrementalBenchmark [comandos do maior programa] [repetições]
+public class IncrementalBenchmark {
+
+    private static final String DIGITADO = "soma = soma + i * 2;\n";
+
+    public static void main(String[] args) {
+        int maior = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        for (int comandos = maior / 100; comandos <= maior; comandos *= 10) {
+            String texto = programa(comandos);
+            long completa = melhor(() -> analisar(texto), repeticoes);
+
+            IncrementalParser documento = new IncrementalParser(texto);
+            int meio = texto.indexOf("soma", texto.length() / 2);
+            long edicao = melhor(() -> digitarEApagar(documento, meio), repeticoes) / (2 * DIGITADO.length());
+
+            System.out.printf("%7d comandos (%.1f MB): análise completa %.2f ms, edição %.1f µs%n",
+                comandos, texto.length() / (1024.0 * 1024.0), completa / 1e6, edicao / 1e3);
+        }
+    }
+
+    private static void analisar(String texto) {
+        Parser parser = new Parser(new Lexer(texto));
+        parser.setRecovery(true);
+        parser.parseProgram();
+        parser.getDiagnostics();
+    }
+
+    private static void digitarEApagar(IncrementalParser documento, int offset) {
+        for (int i = 0; i < DIGITADO.length(); i++) {
+            documento.edit(offset + i, 0, DIGITADO.substring(i, i + 1));
+            documento.getDiagnostics();
+        }
+        for (int i = DIGITADO.length() - 1; i >= 0; i--) {
+            documento.edit(offset + i, 1, "");
+            documento.getDiagnostics();
+        }
+    }
+
+    private static String programa(int comandos) {
+        StringBuilder texto = new StringBuilder("program\n int: i, soma;\n float: media;\nbegin\n i = 0;\n soma = 0");
+        for (int i = 0; i < comandos; i++) {
+            switch (i % 4) {
+                case 0: texto.append(";\n soma = soma + i * 3 - (i / 2)"); break;
+                case 1: texto.append(";\n if (soma > 100) then\n soma = soma - 100\n end"); break;
+                case 2: texto.append(";\n media = media + 1.5 { acumula }"); break;
+                default: texto.append(";\n i = i + 1"); break;
+            }
+        }
+        return texto.append(";\n out(soma)\nend\n").toString();
+    }
+
+    // Melhor tempo entre as repetições, depois de uma execução de aquecimento
+    private static long melhor(Runnable execucao, int repeticoes) {
+        execucao.run();
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < repeticoes; i++) {
+            long inicio = System.nanoTime();
+            execucao.run();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        return melhor;
+    }
+}
\ No newline at end of file
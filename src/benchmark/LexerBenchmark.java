@@ -0,0 +1,123 @@
+package benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import lexical.Lexer;
+import lexical.ParallelLexer;
+import lexical.Source;
+import lexical.TokenType;
+
+// Mede a vazão do léxico sobre os exemplos de inputExamples repetidos até o tamanho pedido,
+// lendo de uma String e dos bytes em UTF-8 (como nos arquivos), nesse caso com os
+// comentários e espaços pulados caractere a caractere (escalar) e de 8 em 8 bytes,
+// e com o ParallelLexer (a alocação medida é só a da thread principal).
+// -comentado intercala comentários de bloco e de linha e indentação no corpus.
+// Uso: java benchmark.LexerBenchmark [pasta] [MB] [iterações] [-comentado]
+public class LexerBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        Path pasta = Path.of(args.length > 0 ? args[0] : "inputExamples");
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int iteracoes = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        boolean comentado = args.length > 3 && args[3].equals("-comentado");
+
+        String exemplos = corpus(pasta, megabytes * 1024 * 1024);
+        String corpus = comentado ? comentar(exemplos) : exemplos;
+        ByteBuffer bytes = ByteBuffer.wrap(corpus.getBytes(StandardCharsets.UTF_8));
+        System.out.printf("Corpus: %.1f MB%s%n", bytes.limit() / (1024.0 * 1024.0), comentado ? " (comentado)" : "");
+
+        medir("String", corpus.length(), iteracoes, () -> lex(new Lexer(corpus)));
+        medir("bytes, escalar", bytes.limit(), iteracoes, () -> lex(new Lexer(Source.of(bytes), false)));
+        medir("bytes, 8 em 8", bytes.limit(), iteracoes, () -> lex(new Lexer(Source.of(bytes), true)));
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ParallelLexer paralelo = new ParallelLexer(threads);
+        medir("bytes, paralelo com " + threads + " threads", bytes.limit(), iteracoes,
+            () -> paralelo.tokenize(Source.of(bytes)).size() - 1);
+    }
+
+    private static void medir(String nome, int tamanho, int iteracoes, LongSupplier lex) {
+        // Aquecimento do JIT
+        for (int i = 0; i < 3; i++) lex.getAsLong();
+
+        long melhor = Long.MAX_VALUE;
+        long tokens = 0;
+        long alocadoAntes = allocatedBytes();
+        for (int i = 0; i < iteracoes; i++) {
+            long inicio = System.nanoTime();
+            tokens = lex.getAsLong();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        long alocado = (allocatedBytes() - alocadoAntes) / iteracoes;
+
+        double segundos = melhor / 1e9;
+        System.out.printf("%n[%s]%n", nome);
+        System.out.printf("Tokens: %d%n", tokens);
+        System.out.printf("Melhor tempo: %.1f ms%n", melhor / 1e6);
+        System.out.printf("Vazão: %.1f MB/s, %.1f Mtokens/s%n",
+            tamanho / (1024.0 * 1024.0) / segundos, tokens / 1e6 / segundos);
+        System.out.printf("Alocação: %.1f bytes/token%n", (double) alocado / tokens);
+    }
+
+    private static long lex(Lexer lexer) {
+        long count = 0;
+        while (lexer.nextToken().type != TokenType.EOF) count++;
+        return count;
+    }
+
+    // Indenta cada linha e acrescenta comentários, como nos fontes gerados documentados
+    private static String comentar(String corpus) {
+        StringBuilder texto = new StringBuilder(corpus.length() * 4);
+        int linha = 0;
+        boolean aberto = false; // dentro de um comentário de bloco do próprio exemplo
+        for (String conteudo : corpus.split("\n", -1)) {
+            if (linha % 4 == 0 && !aberto) {
+                texto.append("    { Bloco ").append(linha).append(": descrição do trecho seguinte,\n")
+                    .append("      com mais de uma linha de explicação }\n");
+            }
+            texto.append("        ").append(conteudo);
+            if (linha % 2 == 0) texto.append("    % comentário de linha sobre a instrução");
+            texto.append('\n');
+            linha++;
+            int abre = conteudo.lastIndexOf('{');
+            int fecha = conteudo.lastIndexOf('}');
+            if (abre != fecha) aberto = abre > fecha;
+        }
+        return texto.toString();
+    }
+
+    // Concatena os exemplos até atingir o tamanho pedido
+    static String corpus(Path pasta, int tamanho) throws IOException {
+        List<String> textos = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted()::iterator) {
+                if (arquivo.toString().endsWith(".txt")) textos.add(Files.readString(arquivo));
+            }
+        }
+        if (textos.isEmpty()) throw new IOException("Nenhum .txt em " + pasta);
+
+        StringBuilder corpus = new StringBuilder(tamanho + 4096);
+        while (corpus.length() < tamanho) {
+            for (String texto : textos) corpus.append(texto).append('\n');
+        }
+        return corpus.toString();
+    }
+
+    // Bytes alocados pela thread atual (extensão da HotSpot)
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
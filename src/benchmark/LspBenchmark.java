@@ -0,0 +1,223 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import lsp.LanguageServer;
+
+// Cliente roteirizado do servidor de linguagem: roda o servidor no mesmo processo,
+// ligado por pipes, abre um programa de N linhas, digita um comando no meio um
+// caractere por vez pedindo hover a cada tecla e mede as latências. Depois
+// confere diagnósticos (quebrando e consertando o programa) e a ida à declaração.
+// Uso: java benchmark.LspBenchmark [linhas]
+public class LspBenchmark {
+
+    private static final String URI = "file:///benchmark.txt";
+    private static final String DIGITADO = "soma = soma + i * 2;\n ";
+
+    private final OutputStream servidor;
+    private final BlockingQueue<String> respostas = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> diagnosticos = new LinkedBlockingQueue<>();
+    private int proximoId = 1;
+    private int versao = 1;
+
+    private LspBenchmark(OutputStream servidor) {
+        this.servidor = servidor;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int linhas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        PipedOutputStream paraServidor = new PipedOutputStream();
+        PipedInputStream entradaServidor = new PipedInputStream(paraServidor, 1 << 16);
+        PipedOutputStream doServidor = new PipedOutputStream();
+        PipedInputStream entradaCliente = new PipedInputStream(doServidor, 1 << 16);
+
+        LanguageServer servidor = new LanguageServer(entradaServidor, doServidor);
+        Thread threadServidor = new Thread(() -> {
+            try {
+                servidor.run();
+            } catch (IOException e) {
+                System.err.println("Servidor: " + e);
+            }
+        }, "servidor");
+        threadServidor.start();
+
+        LspBenchmark cliente = new LspBenchmark(paraServidor);
+        Thread leitor = new Thread(() -> cliente.ler(entradaCliente), "leitor");
+        leitor.setDaemon(true);
+        leitor.start();
+        cliente.roteiro(programa(linhas));
+        threadServidor.join();
+    }
+
+    private void roteiro(String texto) throws Exception {
+        pedir("initialize", "{\"processId\":null,\"rootUri\":null,\"capabilities\":{}}");
+        notificar("initialized", "{}");
+
+        long inicio = System.nanoTime();
+        notificar("textDocument/didOpen", "{\"textDocument\":{\"uri\":\"" + URI + "\",\"languageId\":\"parser\",\"version\":1,\"text\":"
+            + aspas(texto) + "}}");
+        String abertura = proximoDiagnostico();
+        System.out.printf("%d linhas abertas; primeiros diagnósticos (%d) em %.1f ms%n",
+            linhas(texto), contar(abertura, "\"severity\""), (System.nanoTime() - inicio) / 1e6);
+
+        // Digita no início de uma linha do meio; o hover fica num comando anterior
+        String[] linhasTexto = texto.split("\n", -1);
+        int linha = linhasTexto.length / 2;
+        while (!linhasTexto[linha].startsWith(" soma")) linha++;
+        int linhaHover = linha - 1;
+        while (!linhasTexto[linhaHover].startsWith(" soma")) linhaHover--;
+
+        List<Long> latencias = new ArrayList<>();
+        int linhaAtual = linha;
+        int coluna = 1;
+        for (int i = 0; i < DIGITADO.length(); i++) {
+            char c = DIGITADO.charAt(i);
+            long antes = System.nanoTime();
+            mudar(linhaAtual, coluna, linhaAtual, coluna, String.valueOf(c));
+            String hover = pedir("textDocument/hover", posicao(linhaHover, 2));
+            latencias.add(System.nanoTime() - antes);
+            if (!hover.contains("soma: int")) throw new IllegalStateException("Hover inesperado: " + hover);
+            if (c == '\n') {
+                linhaAtual++;
+                coluna = 0;
+            } else {
+                coluna++;
+            }
+        }
+        long fim = System.nanoTime();
+        diagnosticos.clear();
+        String depois = proximoDiagnostico();
+        Collections.sort(latencias);
+        System.out.printf("%d teclas: edição + hover mediana %.2f ms, máximo %.2f ms%n", latencias.size(),
+            latencias.get(latencias.size() / 2) / 1e6, latencias.get(latencias.size() - 1) / 1e6);
+        System.out.printf("diagnósticos (%d) %.1f ms depois da última tecla (espera de %d ms)%n",
+            contar(depois, "\"severity\""), (System.nanoTime() - fim) / 1e6, LanguageServer.DEBOUNCE_MS);
+
+        // Apaga o ';' digitado: o comando seguinte deixa de fazer parte do programa
+        int ponto = DIGITADO.indexOf(';') + 1;
+        mudar(linha, ponto, linha, ponto + 1, "");
+        String quebrado = proximoDiagnostico();
+        mudar(linha, ponto, linha, ponto, ";");
+        String consertado = proximoDiagnostico();
+        System.out.printf("sem ';': %d diagnóstico(s); com ';' de volta: %d%n",
+            contar(quebrado, "\"severity\""), contar(consertado, "\"severity\""));
+
+        String definicao = pedir("textDocument/definition", posicao(linhaHover, 2));
+        System.out.println("declaração de soma: " + definicao.substring(definicao.indexOf("\"range\"")));
+
+        pedir("shutdown", "null");
+        notificar("exit", "null");
+        servidor.close();
+    }
+
+    private void mudar(int linhaInicio, int colunaInicio, int linhaFim, int colunaFim, String texto) throws IOException {
+        versao++;
+        notificar("textDocument/didChange", "{\"textDocument\":{\"uri\":\"" + URI + "\",\"version\":" + versao
+            + "},\"contentChanges\":[{\"range\":{\"start\":{\"line\":" + linhaInicio + ",\"character\":" + colunaInicio
+            + "},\"end\":{\"line\":" + linhaFim + ",\"character\":" + colunaFim + "}},\"text\":" + aspas(texto) + "}]}");
+    }
+
+    private static String posicao(int linha, int coluna) {
+        return "{\"textDocument\":{\"uri\":\"" + URI + "\"},\"position\":{\"line\":" + linha + ",\"character\":" + coluna + "}}";
+    }
+
+    // Envia um pedido e espera a resposta (as respostas chegam na ordem dos pedidos)
+    private String pedir(String metodo, String parametros) throws Exception {
+        int id = proximoId++;
+        enviar("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"" + metodo + "\",\"params\":" + parametros + "}");
+        String resposta = respostas.poll(10, TimeUnit.SECONDS);
+        if (resposta == null || !resposta.contains("\"id\":" + id + ",")) throw new IllegalStateException("Sem resposta para " + metodo);
+        return resposta;
+    }
+
+    private void notificar(String metodo, String parametros) throws IOException {
+        enviar("{\"jsonrpc\":\"2.0\",\"method\":\"" + metodo + "\",\"params\":" + parametros + "}");
+    }
+
+    private void enviar(String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        servidor.write(("Content-Length: " + bytes.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        servidor.write(bytes);
+        servidor.flush();
+    }
+
+    private String proximoDiagnostico() throws InterruptedException {
+        String mensagem = diagnosticos.poll(10, TimeUnit.SECONDS);
+        if (mensagem == null) throw new IllegalStateException("Diagnósticos não publicados");
+        return mensagem;
+    }
+
+    // Separa as mensagens do servidor em respostas e diagnósticos publicados
+    private void ler(InputStream entrada) {
+        try {
+            while (true) {
+                int tamanho = -1;
+                StringBuilder linha = new StringBuilder();
+                while (true) {
+                    int c = entrada.read();
+                    if (c < 0) return;
+                    if (c == '\r') continue;
+                    if (c != '\n') {
+                        linha.append((char) c);
+                        continue;
+                    }
+                    if (linha.length() == 0) break;
+                    if (linha.toString().startsWith("Content-Length:")) tamanho = Integer.parseInt(linha.substring(15).trim());
+                    linha.setLength(0);
+                }
+                String corpo = new String(entrada.readNBytes(tamanho), StandardCharsets.UTF_8);
+                if (corpo.contains("\"method\":\"textDocument/publishDiagnostics\"")) diagnosticos.add(corpo);
+                else respostas.add(corpo);
+            }
+        } catch (IOException e) {
+            // servidor encerrado
+        }
+    }
+
+    private static String aspas(String texto) {
+        StringBuilder saida = new StringBuilder("\"");
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') saida.append('\\').append(c);
+            else if (c == '\n') saida.append("\\n");
+            else saida.append(c);
+        }
+        return saida.append('"').toString();
+    }
+
+    private static int contar(String texto, String trecho) {
+        int contagem = 0;
+        for (int i = texto.indexOf(trecho); i >= 0; i = texto.indexOf(trecho, i + 1)) contagem++;
+        return contagem;
+    }
+
+    private static int linhas(String texto) {
+        return contar(texto, "\n") + 1;
+    }
+
+    private static String programa(int linhas) {
+        StringBuilder texto = new StringBuilder("program\n int: i, soma;\n float: media;\nbegin\n i = 0;\n soma = 0");
+        int linha = 6;
+        for (int i = 0; linha < linhas - 2; i++) {
+            switch (i % 4) {
+                case 0: texto.append(";\n soma = soma + i * 3 - (i / 2)"); linha++; break;
+                case 1: texto.append(";\n if (soma > 100) then\n soma = soma - 100\n end"); linha += 3; break;
+                case 2: texto.append(";\n media = media + 1.5 { acumula }"); linha++; break;
+                default: texto.append(";\n i = i + 1"); linha++; break;
+            }
+        }
+        return texto.append(";\n out(soma)\nend\n").toString();
+    }
+}
\ No newline at end of file
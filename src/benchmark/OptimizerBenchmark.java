@@ -0,0 +1,96 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import ast.Ast;
+import lexical.Lexer;
+import optimizer.Optimizer;
+import optimizer.Report;
+import sintatic.Parser;
+import vm.Compiler;
+import vm.JvmCompiler;
+import vm.JvmProgram;
+import vm.Program;
+import vm.VM;
+
+// Compara a execução de um programa com constantes, um if de depuração desligado e
+// um if com condição sempre verdadeira dentro do laço, antes e depois do Optimizer.
+// Uso: java benchmark.OptimizerBenchmark [iterações] [repetições]
+public class OptimizerBenchmark {
+
+    private static final String PROGRAMA =
+        "program\n"
+        + " int: i, n, soma, debug, fator, limite;\n"
+        + " float: escala;\n"
+        + "begin\n"
+        + " in(n);\n"
+        + " debug = 0;\n"
+        + " fator = 3 * 4 + 2;\n"
+        + " limite = fator * 100;\n"
+        + " escala = 1.5 * 2.0;\n"
+        + " i = 0;\n"
+        + " soma = 0;\n"
+        + " while (i < n) do\n"
+        + " if (debug == 1) then\n"
+        + " out(\"passo\");\n"
+        + " out(i)\n"
+        + " end;\n"
+        + " soma = soma + fator * 2 - (limite / 10) + i;\n"
+        + " if ((fator > 10) && (escala > 2.0)) then\n"
+        + " soma = soma + 1\n"
+        + " else\n"
+        + " int: t;\n"
+        + " soma = soma - 1\n"
+        + " end;\n"
+        + " i = i + 1\n"
+        + " end;\n"
+        + " out(soma)\n"
+        + "end\n";
+
+    public static void main(String[] args) {
+        int iteracoes = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        byte[] entrada = (iteracoes + "\n").getBytes(StandardCharsets.US_ASCII);
+
+        Ast original = parse();
+        Ast otimizada = parse();
+        long inicio = System.nanoTime();
+        Report relatorio = Optimizer.optimize(otimizada);
+        long otimizacao = System.nanoTime() - inicio;
+
+        System.out.print(relatorio);
+        System.out.printf("Otimização: %.2f ms%n", otimizacao / 1e6);
+
+        medir("sem otimização", original, entrada, iteracoes, repeticoes);
+        medir("com otimização", otimizada, entrada, iteracoes, repeticoes);
+    }
+
+    private static Ast parse() {
+        return new Parser(new Lexer(PROGRAMA)).parseProgram();
+    }
+
+    private static void medir(String nome, Ast ast, byte[] entrada, long iteracoes, int repeticoes) {
+        Program programa = Compiler.compile(ast);
+        long vm = melhor(() -> new VM(programa, new ByteArrayInputStream(entrada), OutputStream.nullOutputStream()).run(),
+            repeticoes);
+        JvmProgram classe = JvmCompiler.compile(ast);
+        long jvm = melhor(() -> classe.run(new ByteArrayInputStream(entrada), OutputStream.nullOutputStream()), repeticoes);
+
+        System.out.printf("%s: VM %d instruções, %.1f ms (%.1f M iterações/s); JVM %d bytes, %.1f ms%n",
+            nome, programa.size(), vm / 1e6, iteracoes / 1e6 / (vm / 1e9), classe.classSize(), jvm / 1e6);
+    }
+
+    // Melhor tempo entre as repetições, depois de uma execução de aquecimento
+    private static long melhor(Runnable execucao, int repeticoes) {
+        execucao.run();
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < repeticoes; i++) {
+            long inicio = System.nanoTime();
+            execucao.run();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        return melhor;
+    }
+}
\ No newline at end of file
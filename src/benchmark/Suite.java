@@ -0,0 +1,206 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ast.Ast;
+import lexical.IdentifierPool;
+import lexical.Lexer;
+import lexical.Token;
+import lexical.TokenStream;
+import optimizer.Optimizer;
+import semantic.SemanticAnalyzer;
+import semantic.Symbol;
+import semantic.SymbolTable;
+import semantic.TypeKind;
+import sintatic.Parser;
+import sintatic.TableParser;
+import vm.Compiler;
+
+// Suíte de microbenchmarks no estilo do JMH, sem dependências (os mesmos
+// benchmarks com o JMH ficam em jmh/, no perfil jmh do pom.xml): cada benchmark
+// roda iterações de aquecimento e de medição de duração fixa e informa o tempo
+// médio por operação com o desvio padrão entre as iterações. Com -prof gc mostra
+// também a taxa de alocação (MB/s) e os bytes alocados por operação.
+//  - lexer.tokenBuffer / lexer.scanTokens: tokenizar tudo num TokenBuffer ou numa
+//    lista de Token (o Lexer só lê a fonte quando os tokens são pedidos);
+//  - parser.parseProgram: analisar tokens já prontos (com recuperação de erros);
+//  - parser.tableDriven: o mesmo com o TableParser (LL(1) dirigido por tabela);
+//  - parser.semanticPass: o mesmo com o parser só sintático seguido do SemanticAnalyzer;
+//  - symbolTable.addLookup: declarar e procurar nomes com p escopos aninhados;
+//  - pipeline: texto -> léxico -> parser -> diagnósticos -> Optimizer -> Compiler.
+// Uso: java benchmark.Suite [-f filtro] [-wi aquecimento] [-i iterações] [-t ms]
+//      [-p tamanhos] [-d profundidades] [-prof gc]
+public class Suite {
+
+    // O resultado de cada operação vai para cá, para o JIT não eliminar o trabalho
+    private static volatile long sumidouro;
+
+    private interface Operacao {
+        long executar();
+    }
+
+    private String filtro = "";
+    private int aquecimento = 3;
+    private int iteracoes = 5;
+    private long duracao = 300_000_000L;
+    private boolean alocacao;
+
+    public static void main(String[] args) {
+        Suite suite = new Suite();
+        int[] tamanhos = { 100, 1_000, 10_000 };
+        int[] profundidades = { 1, 8, 64 };
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-f": suite.filtro = args[++i]; break;
+                case "-wi": suite.aquecimento = Integer.parseInt(args[++i]); break;
+                case "-i": suite.iteracoes = Integer.parseInt(args[++i]); break;
+                case "-t": suite.duracao = Long.parseLong(args[++i]) * 1_000_000L; break;
+                case "-p": tamanhos = inteiros(args[++i]); break;
+                case "-d": profundidades = inteiros(args[++i]); break;
+                case "-prof": suite.alocacao = args[++i].equals("gc"); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        System.out.printf("%-24s %10s %4s %12s %10s  %s%n", "Benchmark", "(param)", "Cnt", "Score", "Error", "Units");
+        for (int tamanho : tamanhos) {
+            String texto = programa(tamanho);
+            Lexer lexer = new Lexer(texto);
+            List<Token> tokens = lexer.getTokens();
+            IdentifierPool pool = lexer.getIdentifierPool();
+
+            suite.medir("lexer.tokenBuffer", tamanho, () -> new Lexer(texto).getTokenBuffer().size());
+            suite.medir("lexer.scanTokens", tamanho, () -> new Lexer(texto).getTokens().size());
+            suite.medir("parser.parseProgram", tamanho, () -> {
+                Parser parser = new Parser(TokenStream.of(tokens), pool);
+                parser.setRecovery(true);
+                return parser.parseProgram().size();
+            });
+            suite.medir("parser.tableDriven", tamanho, () -> {
+                TableParser parser = new TableParser(TokenStream.of(tokens), pool);
+                parser.setRecovery(true);
+                return parser.parseProgram().size();
+            });
+            suite.medir("parser.semanticPass", tamanho, () -> {
+                Parser parser = new Parser(TokenStream.of(tokens), pool);
+                parser.setRecovery(true);
+                parser.setSemantic(false);
+                parser.parseProgram();
+                return new SemanticAnalyzer(parser.getSemanticLog()).analyze().size();
+            });
+            suite.medir("pipeline", tamanho, () -> {
+                Parser parser = new Parser(new Lexer(texto));
+                parser.setRecovery(true);
+                Ast ast = parser.parseProgram();
+                if (!parser.getDiagnostics().isEmpty()) throw new IllegalStateException("Programa gerado com erros");
+                Optimizer.optimize(ast);
+                return Compiler.compile(ast).hashCode();
+            });
+        }
+        for (int profundidade : profundidades) {
+            suite.medir("symbolTable.addLookup", profundidade, () -> escopos(profundidade));
+        }
+    }
+
+    // Abre profundidade escopos declarando 8 nomes em cada (metade escondendo nomes
+    // de fora), procura 64 nomes em cada nível e fecha tudo
+    static long escopos(int profundidade) {
+        SymbolTable tabela = new SymbolTable();
+        long encontrados = 0;
+        for (int nivel = 0; nivel < profundidade; nivel++) {
+            tabela.enterScope();
+            for (int j = 0; j < 8; j++) {
+                int id = (nivel * 4 + j) % 64;
+                tabela.add(id, new Symbol("v", TypeKind.INT));
+            }
+            for (int id = 0; id < 64; id++) {
+                if (tabela.lookup(id) != null) encontrados++;
+            }
+        }
+        for (int nivel = 0; nivel < profundidade; nivel++) tabela.exitScope();
+        return encontrados;
+    }
+
+    private void medir(String nome, int parametro, Operacao operacao) {
+        if (!nome.contains(filtro)) return;
+
+        for (int i = 0; i < aquecimento; i++) iteracao(operacao);
+        double[] tempos = new double[iteracoes];
+        double[] taxas = new double[iteracoes];
+        double[] porOperacao = new double[iteracoes];
+        for (int i = 0; i < iteracoes; i++) {
+            long alocadoAntes = LexerBenchmark.allocatedBytes();
+            long inicio = System.nanoTime();
+            long operacoes = iteracao(operacao);
+            long decorrido = System.nanoTime() - inicio;
+            long alocado = LexerBenchmark.allocatedBytes() - alocadoAntes;
+            tempos[i] = (double) decorrido / operacoes;
+            taxas[i] = alocado / (1024.0 * 1024.0) / (decorrido / 1e9);
+            porOperacao[i] = (double) alocado / operacoes;
+        }
+
+        String unidade = media(tempos) >= 1e6 ? "ms/op" : "us/op";
+        double escala = unidade.equals("ms/op") ? 1e6 : 1e3;
+        imprimir(nome, parametro, tempos, escala, unidade);
+        if (alocacao) {
+            imprimir("  ·gc.alloc.rate", parametro, taxas, 1, "MB/sec");
+            imprimir("  ·gc.alloc.rate.norm", parametro, porOperacao, 1, "B/op");
+        }
+    }
+
+    // Repete a operação até completar a duração da iteração; devolve quantas vezes rodou
+    private long iteracao(Operacao operacao) {
+        long fim = System.nanoTime() + duracao;
+        long operacoes = 0;
+        long resultado = 0;
+        do {
+            resultado += operacao.executar();
+            operacoes++;
+        } while (System.nanoTime() < fim);
+        sumidouro = resultado;
+        return operacoes;
+    }
+
+    private void imprimir(String nome, int parametro, double[] valores, double escala, String unidade) {
+        System.out.printf("%-24s %10d %4d %12.3f ± %8.3f  %s%n",
+            nome, parametro, valores.length, media(valores) / escala, desvio(valores) / escala, unidade);
+    }
+
+    private static double media(double[] valores) {
+        double soma = 0;
+        for (double valor : valores) soma += valor;
+        return soma / valores.length;
+    }
+
+    private static double desvio(double[] valores) {
+        if (valores.length < 2) return 0;
+        double media = media(valores);
+        double soma = 0;
+        for (double valor : valores) soma += (valor - media) * (valor - media);
+        return Math.sqrt(soma / (valores.length - 1));
+    }
+
+    private static int[] inteiros(String lista) {
+        List<Integer> valores = new ArrayList<>();
+        for (String parte : lista.split(",")) valores.add(Integer.parseInt(parte.trim()));
+        int[] resultado = new int[valores.size()];
+        for (int i = 0; i < resultado.length; i++) resultado[i] = valores.get(i);
+        return resultado;
+    }
+
+    // Programa válido com comandos comandos, alternando contas, if e while com
+    // declarações locais (que abrem escopos na tabela de símbolos)
+    static String programa(int comandos) {
+        StringBuilder texto = new StringBuilder("program\n int: i, soma;\n float: media;\n char: c;\nbegin\n i = 0;\n soma = 0");
+        for (int i = 0; i < comandos; i++) {
+            switch (i % 4) {
+                case 0: texto.append(";\n soma = soma + i * 3 - (i / 2)"); break;
+                case 1: texto.append(";\n if (soma > 100) then\n int: t;\n t = soma - 100;\n soma = t\n end"); break;
+                case 2: texto.append(";\n media = media + 1.5 { acumula }"); break;
+                default: texto.append(";\n while (i < 10) do\n int: k;\n k = i + 1;\n i = k\n end"); break;
+            }
+        }
+        return texto.append(";\n out(soma)\nend\n").toString();
+    }
+}
\ No newline at end of file
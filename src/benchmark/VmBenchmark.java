@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import ast.Ast;
+import lexical.Lexer;
+import sintatic.Parser;
+import vm.Compiler;
+import vm.JvmCompiler;
+import vm.JvmProgram;
+import vm.Program;
+import vm.VM;
+
+// Mede a execução na VM e como bytecode da JVM (JvmCompiler) de dois programas com laços longos:
+//  - candidatos: o laço de exemploCorrigido5.txt, com as leituras dentro do laço
+//    para que processe um candidato por iteração (entrada gerada);
+//  - aritmetica: laços aninhados de contas int/float, sem entrada e saída.
+// Uso: java benchmark.VmBenchmark [candidatos] [iterações externas] [repetições]
+public class VmBenchmark {
+
+    private static final String CANDIDATOS =
+        "program\n"
+        + " int: pontuacao, pontuacaoMaxima, disponibilidade, aprovados;\n"
+        + " char: pontuacaoMinima;\n"
+        + "begin\n"
+        + " pontuacaoMinima = 50;\n"
+        + " pontuacaoMaxima = 100;\n"
+        + " aprovados = 0;\n"
+        + " in(pontuacao);\n"
+        + " in(disponibilidade);\n"
+        + " while ((pontuacao>0) && (pontuacao<=pontuacaoMaxima)) do\n"
+        + " int: cont;\n"
+        + " cont = cont + 1;\n"
+        + " if ((pontuacao > pontuacaoMinima) && (disponibilidade==1)) then\n"
+        + " aprovados = aprovados + 1\n"
+        + " else\n"
+        + " int: X;\n"
+        + " out(\"Candidato reprovado\")\n"
+        + " end;\n"
+        + " in(pontuacao);\n"
+        + " in(disponibilidade)\n"
+        + " end;\n"
+        + " out(aprovados)\n"
+        + "end\n";
+
+    private static final String ARITMETICA =
+        "program\n"
+        + " int: i, j, n, soma;\n"
+        + " float: x;\n"
+        + "begin\n"
+        + " in(n);\n"
+        + " i = 0;\n"
+        + " soma = 0;\n"
+        + " x = 0.0;\n"
+        + " while (i < n) do\n"
+        + " j = 0;\n"
+        + " while (j < 1000) do\n"
+        + " soma = soma + (i * j) / 7 - j;\n"
+        + " x = x + 0.5 * j;\n"
+        + " j = j + 1\n"
+        + " end;\n"
+        + " i = i + 1\n"
+        + " end;\n"
+        + " out(soma);\n"
+        + " out(x)\n"
+        + "end\n";
+
+    public static void main(String[] args) {
+        int candidatos = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int externas = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int repeticoes = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        // Pontuações de 1 a 100 e disponibilidade 0/1; "0 0" encerra o laço
+        StringBuilder entrada = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < candidatos; i++) {
+            entrada.append(1 + random.nextInt(100)).append(' ').append(random.nextInt(2)).append('\n');
+        }
+        entrada.append("0 0\n");
+
+        medir("candidatos", CANDIDATOS, entrada.toString(), candidatos, repeticoes);
+        medir("aritmetica", ARITMETICA, externas + "\n", (long) externas * 1000, repeticoes);
+    }
+
+    private static void medir(String nome, String fonte, String entrada, long iteracoes, int repeticoes) {
+        byte[] bytes = entrada.getBytes(StandardCharsets.US_ASCII);
+
+        long inicio = System.nanoTime();
+        Program programa = Compiler.compile(parse(fonte));
+        long compilacao = System.nanoTime() - inicio;
+        long execucao = melhor(() -> new VM(programa, new ByteArrayInputStream(bytes), OutputStream.nullOutputStream()).run(),
+            repeticoes);
+        System.out.printf("%s (VM): %d instruções, compilação %.2f ms, execução %.1f ms, %.1f M iterações/s%n",
+            nome, programa.size(), compilacao / 1e6, execucao / 1e6, iteracoes / 1e6 / (execucao / 1e9));
+
+        inicio = System.nanoTime();
+        JvmProgram classe = JvmCompiler.compile(parse(fonte));
+        compilacao = System.nanoTime() - inicio;
+        execucao = melhor(() -> classe.run(new ByteArrayInputStream(bytes), OutputStream.nullOutputStream()), repeticoes);
+        System.out.printf("%s (JVM): %d bytes de .class, compilação %.2f ms, execução %.1f ms, %.1f M iterações/s%n",
+            nome, classe.classSize(), compilacao / 1e6, execucao / 1e6, iteracoes / 1e6 / (execucao / 1e9));
+    }
+
+    private static Ast parse(String fonte) {
+        return new Parser(new Lexer(fonte)).parseProgram();
+    }
+
+    // Melhor tempo entre as repetições, depois de uma execução de aquecimento
+    private static long melhor(Runnable execucao, int repeticoes) {
+        execucao.run();
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < repeticoes; i++) {
+            long inicio = System.nanoTime();
+            execucao.run();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        return melhor;
+    }
+}
\ No newline at end of file
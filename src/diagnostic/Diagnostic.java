@@ -0,0 +1,49 @@
+package diagnostic;
+
+// Erro encontrado na análise: tipo, linha, trecho da fonte a que se refere e
+// mensagem (sem o prefixo de linha). A coluna sai do trecho com a LineMap da fonte.
+public class Diagnostic {
+
+    public enum Kind {
+        LEXICO("Erro léxico"),
+        SINTATICO("Erro sintático"),
+        SEMANTICO("Erro semântico"),
+        EXECUCAO("Erro de execução");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public final Kind kind;
+    public final int line;
+    public final String message;
+
+    // Trecho [offset, offset + length) da fonte; offset -1 se desconhecido (ex.: erros de execução)
+    public final int offset;
+    public final int length;
+
+    public Diagnostic(Kind kind, int line, String message) {
+        this(kind, line, -1, 0, message);
+    }
+
+    public Diagnostic(Kind kind, int line, int offset, int length, String message) {
+        this.kind = kind;
+        this.line = line;
+        this.offset = offset;
+        this.length = length;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": Na linha " + line + ": " + message;
+    }
+}
@@ -0,0 +1,62 @@
+package diagnostic;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Guarda os diagnósticos em memória para serem tratados de uma vez: contados por
+// tipo, listados ou impressos numa única escrita. Além de limit só conta, para um
+// arquivo muito ruidoso não ocupar memória com milhares de mensagens iguais.
+// Não é thread-safe: use um por análise.
+public final class DiagnosticBuffer implements DiagnosticSink {
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private final int[] counts = new int[Diagnostic.Kind.values().length];
+    private final int limit;
+    private int count;
+
+    public DiagnosticBuffer() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public DiagnosticBuffer(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        counts[diagnostic.kind.ordinal()]++;
+        count++;
+        if (diagnostics.size() < limit) diagnostics.add(diagnostic);
+    }
+
+    // Quantidade informada, inclusive os que passaram do limite
+    public int count() {
+        return count;
+    }
+
+    public int count(Diagnostic.Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    // Os guardados, na ordem em que foram informados
+    public List<Diagnostic> getDiagnostics() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    public void printTo(PrintStream out) {
+        StringBuilder text = new StringBuilder();
+        for (Diagnostic diagnostic : diagnostics) text.append(diagnostic).append(System.lineSeparator());
+        if (count > diagnostics.size()) {
+            text.append("... e mais ").append(count - diagnostics.size()).append(" diagnósticos").append(System.lineSeparator());
+        }
+        out.print(text);
+    }
+
+    public void clear() {
+        diagnostics.clear();
+        Arrays.fill(counts, 0);
+        count = 0;
+    }
+}
@@ -0,0 +1,11 @@
+package diagnostic;
+
+// Destino dos diagnósticos à medida que são encontrados (o Lexer manda para cá os
+// erros léxicos). Quem analisa escolhe o que fazer: guardar num DiagnosticBuffer
+// para tratar em lote, só contar, ou descartar com NONE.
+public interface DiagnosticSink {
+
+    DiagnosticSink NONE = diagnostic -> { };
+
+    void report(Diagnostic diagnostic);
+}
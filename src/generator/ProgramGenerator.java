@@ -0,0 +1,374 @@
+package generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Gera programas sintéticos seguindo a gramática dos comentários do Parser:
+// program decl-list begin stmt-list end, com if/else, while e repeat (que abrem
+// escopos com declarações locais), in, out e expressões com os tipos corretos.
+// Os programas saem válidos (sem diagnósticos), a menos que se peça uma taxa de
+// erros: aí alguns comandos recebem um erro léxico, sintático ou semântico.
+// Não são feitos para executar: os laços não têm garantia de terminar.
+// A mesma semente e as mesmas opções geram sempre o mesmo texto.
+public class ProgramGenerator {
+
+    private static final String[] TYPES = { "int", "float", "char" };
+    private static final String[] RELOPS = { "==", "!=", "<", "<=", ">", ">=" };
+    private static final String[] ARITHMETIC = { "+", "-", "*", "/" };
+
+    private final Random random;
+
+    private int statements = 100;        // comandos no nível do programa
+    private int declarations = 8;        // variáveis globais (pelo menos uma de cada tipo)
+    private int blockDeclarations = 2;   // máximo de variáveis por bloco
+    private int depth = 3;               // aninhamento máximo de blocos
+    private int expressionDepth = 3;     // aninhamento máximo das expressões
+    private double reuse = 0.6;          // chance de usar uma variável em vez de constante (e de esconder nomes)
+    private double errors = 0;           // chance de um comando levar um erro
+
+    // Variáveis visíveis de cada tipo (pilha: cada escopo guarda onde as listas estavam)
+    private final List<List<String>> visible = new ArrayList<>();
+    private final List<int[]> scopeMarks = new ArrayList<>();
+    private final List<Set<String>> scopeNames = new ArrayList<>();
+    private int nextName;
+    private int injected;
+
+    public ProgramGenerator(long seed) {
+        this.random = new Random(seed);
+        for (int i = 0; i < TYPES.length; i++) visible.add(new ArrayList<>());
+    }
+
+    public void setStatements(int statements) {
+        this.statements = statements;
+    }
+
+    public void setDeclarations(int declarations) {
+        this.declarations = declarations;
+    }
+
+    public void setBlockDeclarations(int blockDeclarations) {
+        this.blockDeclarations = blockDeclarations;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public void setExpressionDepth(int expressionDepth) {
+        this.expressionDepth = expressionDepth;
+    }
+
+    public void setReuse(double reuse) {
+        this.reuse = reuse;
+    }
+
+    public void setErrors(double errors) {
+        this.errors = errors;
+    }
+
+    // Erros colocados de propósito no último programa gerado
+    public int getInjectedErrors() {
+        return injected;
+    }
+
+    public String generate() {
+        StringWriter out = new StringWriter();
+        try {
+            write(out, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    // Escreve um programa com pelo menos statements comandos e minChars caracteres
+    // (para gerar arquivos de vários GB sem montá-los na memória); devolve o tamanho
+    public long write(Writer out, long minChars) throws IOException {
+        injected = 0;
+        StringBuilder text = new StringBuilder(1 << 16);
+        long written = 0;
+
+        enterScope();
+        text.append("program\n");
+        declare(text, 1, Math.max(declarations, TYPES.length));
+        text.append("begin\n");
+        for (int i = 0; i < statements || written + text.length() < minChars; i++) {
+            if (i > 0) text.append(";\n");
+            statement(text, 1, depth);
+            if (text.length() >= 1 << 16) {
+                written += text.length();
+                out.write(text.toString());
+                text.setLength(0);
+            }
+        }
+        text.append("\nend\n");
+        exitScope();
+
+        written += text.length();
+        out.write(text.toString());
+        out.flush();
+        return written;
+    }
+
+    // decl-list: count variáveis, agrupadas por tipo ("int: a, b;")
+    private void declare(StringBuilder text, int level, int count) {
+        List<List<String>> byType = new ArrayList<>();
+        for (int i = 0; i < TYPES.length; i++) byType.add(new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            // As globais cobrem todos os tipos para as expressões terem variáveis
+            int type = level == 1 && i < TYPES.length ? i : random.nextInt(TYPES.length);
+            String name = shadowed(type);
+            if (name == null) name = "v" + nextName++;
+            scopeNames.get(scopeNames.size() - 1).add(name);
+            visible.get(type).add(name);
+            byType.get(type).add(name);
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            List<String> names = byType.get(type);
+            if (names.isEmpty()) continue;
+            indent(text, level).append(TYPES[type]).append(": ").append(String.join(", ", names)).append(";\n");
+        }
+    }
+
+    // Às vezes reaproveita o nome de uma variável de fora (do mesmo tipo, para não mudar o tipo das expressões)
+    private String shadowed(int type) {
+        List<String> names = visible.get(type);
+        if (names.isEmpty() || random.nextDouble() >= reuse / 4) return null;
+        String name = names.get(random.nextInt(names.size()));
+        return scopeNames.get(scopeNames.size() - 1).contains(name) ? null : name;
+    }
+
+    private void statement(StringBuilder text, int level, int depth) {
+        if (errors > 0 && random.nextDouble() < errors) {
+            error(text, level);
+            return;
+        }
+        int choice = random.nextInt(100);
+        if (depth > 0 && choice < 12) ifStatement(text, level, depth);
+        else if (depth > 0 && choice < 18) whileStatement(text, level, depth);
+        else if (depth > 0 && choice < 22) repeatStatement(text, level, depth);
+        else if (choice < 30) indent(text, level).append("in(").append(variable(random.nextInt(TYPES.length))).append(')');
+        else if (choice < 45) write(text, level);
+        else assignment(text, level);
+
+        if (random.nextInt(50) == 0) text.append(" { comentario ").append(nextName).append(" }");
+    }
+
+    private void assignment(StringBuilder text, int level) {
+        int type = random.nextInt(TYPES.length);
+        String name = variable(type);
+        if (name == null) {
+            type = 0;
+            name = variable(0);
+        }
+        indent(text, level).append(name).append(" = ").append(expression(type, expressionDepth));
+    }
+
+    private void write(StringBuilder text, int level) {
+        indent(text, level).append("out(");
+        int choice = random.nextInt(10);
+        if (choice < 3) text.append("\"texto ").append(random.nextInt(1000)).append('"');
+        else if (choice < 4) text.append('(').append(condition(expressionDepth)).append(')');
+        else {
+            // Um char no início seria lido como literal (writable ::= simple-expr | literal)
+            String expression = expression(random.nextInt(TYPES.length), expressionDepth);
+            text.append(expression.startsWith("'") && expression.indexOf(' ') >= 0 ? "(" + expression + ")" : expression);
+        }
+        text.append(')');
+    }
+
+    // if-stmt: o else, quando há, exige exatamente uma declaração
+    private void ifStatement(StringBuilder text, int level, int depth) {
+        indent(text, level).append("if ").append(condition(expressionDepth)).append(" then\n");
+        block(text, level, depth, random.nextInt(blockDeclarations + 1));
+        if (random.nextBoolean()) {
+            indent(text, level).append("else\n");
+            block(text, level, depth, 1);
+        }
+        indent(text, level).append("end");
+    }
+
+    private void whileStatement(StringBuilder text, int level, int depth) {
+        indent(text, level).append("while ").append(condition(expressionDepth)).append(" do\n");
+        block(text, level, depth, random.nextInt(blockDeclarations + 1));
+        indent(text, level).append("end");
+    }
+
+    private void repeatStatement(StringBuilder text, int level, int depth) {
+        indent(text, level).append("repeat\n");
+        block(text, level, depth, random.nextInt(blockDeclarations + 1));
+        indent(text, level).append("until ").append(condition(expressionDepth));
+    }
+
+    // Escopo novo com declarations variáveis e de 1 a 3 comandos
+    private void block(StringBuilder text, int level, int depth, int declarations) {
+        enterScope();
+        if (declarations > 0) declare(text, level + 1, declarations);
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            statement(text, level + 1, depth - 1);
+            text.append(i + 1 < count ? ";\n" : "\n");
+        }
+        exitScope();
+    }
+
+    // Expressão aritmética (simple-expr) do tipo dado; operandos compostos vão entre
+    // parênteses para que a precedência não junte, por exemplo, dois chars numa soma
+    private String expression(int type, int depth) {
+        if (depth <= 0 || random.nextInt(10) < 3) return leaf(type);
+        if (type == 2) return "-" + leaf(2); // char só aceita o '-' unário
+        if (random.nextInt(5) == 0) return "-" + operand(type, depth - 1);
+
+        int left = type;
+        int right = type;
+        int mix = random.nextInt(3);
+        if (type == 0 && mix == 1) left = 2;       // int com char dá int
+        else if (type == 0 && mix == 2) right = 2;
+        else if (type == 1 && mix == 1) left = 0;  // int com float dá float
+        else if (type == 1 && mix == 2) right = 0;
+        return operand(left, depth - 1) + " " + ARITHMETIC[random.nextInt(ARITHMETIC.length)] + " " + operand(right, depth - 1);
+    }
+
+    private String operand(int type, int depth) {
+        String text = expression(type, depth);
+        return text.indexOf(' ') < 0 && text.charAt(0) != '-' ? text : "(" + text + ")";
+    }
+
+    // Expressão booleana (expression): comparação no topo, && e || entre parênteses
+    private String condition(int depth) {
+        int choice = random.nextInt(10);
+        if (depth <= 0 || choice < 5) {
+            return expression(random.nextInt(TYPES.length), depth - 1) + " " + RELOPS[random.nextInt(RELOPS.length)]
+                + " " + expression(random.nextInt(TYPES.length), depth - 1);
+        }
+        if (choice < 8) {
+            return "(" + condition(depth - 1) + ") " + (random.nextBoolean() ? "&&" : "||") + " (" + condition(depth - 1) + ")";
+        }
+        return "!(" + condition(depth - 1) + ")";
+    }
+
+    private String leaf(int type) {
+        if (random.nextDouble() < reuse) {
+            String name = variable(type);
+            if (name != null) return name;
+        }
+        switch (type) {
+            case 0: return Integer.toString(random.nextInt(10) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(100));
+            case 1: return random.nextInt(100) + "." + random.nextInt(100);
+            default: return "'" + (char) ('a' + random.nextInt(26)) + "'";
+        }
+    }
+
+    private String variable(int type) {
+        List<String> names = visible.get(type);
+        return names.isEmpty() ? null : names.get(random.nextInt(names.size()));
+    }
+
+    // Um comando com erro; o ";" que separa os comandos fica, para o parser se recuperar
+    private void error(StringBuilder text, int level) {
+        injected++;
+        indent(text, level);
+        switch (random.nextInt(5)) {
+            case 0: text.append("naoDeclarada").append(nextName++).append(" = 1"); break;   // semântico
+            case 1: text.append("out('a' + 'b')"); break;                                    // tipos incompatíveis
+            case 2: text.append("if ").append(leaf(0)).append(" then out(1) end"); break;   // condição não booleana
+            case 3: text.append("out(").append(leaf(0)).append(" + )"); break;               // sintático
+            default: text.append("out(2 @ 3)"); break;                                       // léxico
+        }
+    }
+
+    private void enterScope() {
+        int[] mark = new int[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) mark[i] = visible.get(i).size();
+        scopeMarks.add(mark);
+        scopeNames.add(new HashSet<>());
+    }
+
+    private void exitScope() {
+        int[] mark = scopeMarks.remove(scopeMarks.size() - 1);
+        for (int i = 0; i < TYPES.length; i++) {
+            List<String> names = visible.get(i);
+            names.subList(mark[i], names.size()).clear();
+        }
+        scopeNames.remove(scopeNames.size() - 1);
+    }
+
+    private static StringBuilder indent(StringBuilder text, int level) {
+        for (int i = 0; i < level; i++) text.append(' ');
+        return text;
+    }
+
+    // Uso: java generator.ProgramGenerator [-seed n] [-n comandos] [-size 10m|2g]
+    //      [-decls n] [-block-decls n] [-depth n] [-expr n] [-reuse p] [-errors p]
+    //      [-count arquivos] [-o arquivo|pasta]
+    // Sem -o escreve na saída padrão; com -count, -o é a pasta dos arquivos
+    // (gen<semente>.txt, com sementes consecutivas).
+    public static void main(String[] args) throws IOException {
+        long seed = 1;
+        long size = 0;
+        int count = 1;
+        String output = null;
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                case "-size": size = bytes(args[++i]); break;
+                case "-count": count = Integer.parseInt(args[++i]); break;
+                case "-o": output = args[++i]; break;
+                default:
+                    options.add(args[i]);
+                    if (i + 1 < args.length) options.add(args[++i]);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            ProgramGenerator generator = new ProgramGenerator(seed + i);
+            for (int j = 0; j + 1 < options.size(); j += 2) generator.set(options.get(j), options.get(j + 1));
+
+            if (output == null) {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                generator.write(out, size);
+                continue;
+            }
+            Path path = count > 1 ? Path.of(output).resolve("gen" + (seed + i) + ".txt") : Path.of(output);
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                long written = generator.write(out, size);
+                System.err.printf("%s: %d caracteres, %d erro(s) colocado(s)%n", path, written, generator.injected);
+            }
+        }
+    }
+
+    private void set(String option, String value) {
+        switch (option) {
+            case "-n": statements = Integer.parseInt(value); break;
+            case "-decls": declarations = Integer.parseInt(value); break;
+            case "-block-decls": blockDeclarations = Integer.parseInt(value); break;
+            case "-depth": depth = Integer.parseInt(value); break;
+            case "-expr": expressionDepth = Integer.parseInt(value); break;
+            case "-reuse": reuse = Double.parseDouble(value); break;
+            case "-errors": errors = Double.parseDouble(value); break;
+            default: throw new IllegalArgumentException("Opção desconhecida: " + option);
+        }
+    }
+
+    // "512k", "10m", "2g" ou um número de caracteres
+    private static long bytes(String text) {
+        char unit = Character.toLowerCase(text.charAt(text.length() - 1));
+        long factor = unit == 'k' ? 1L << 10 : unit == 'm' ? 1L << 20 : unit == 'g' ? 1L << 30 : 1;
+        String digits = factor == 1 ? text : text.substring(0, text.length() - 1);
+        return Long.parseLong(digits) * factor;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// A análise completa de um arquivo, com os contadores de FileMetrics
+@Name("parser.File")
+@Label("Análise de arquivo")
+@Category("Parser")
+@StackTrace(false)
+@Description("Análise de um arquivo do começo ao fim, com contadores")
+public final class FileEvent extends Event {
+    @Label("Arquivo")
+    String file;
+
+    @Label("Tamanho")
+    @DataAmount
+    long bytes;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Buscas na tabela de símbolos")
+    long lookups;
+
+    @Label("Profundidade máxima de escopos")
+    int maxScopeDepth;
+
+    @Label("Diagnósticos")
+    int diagnostics;
+
+    public static FileEvent start(String file) {
+        FileEvent event = new FileEvent();
+        event.file = file;
+        event.begin();
+        return event;
+    }
+
+    public void finish(FileMetrics metrics) {
+        end();
+        if (shouldCommit()) {
+            bytes = metrics.bytes;
+            tokens = metrics.tokens;
+            lookups = metrics.lookups;
+            maxScopeDepth = metrics.maxScopeDepth;
+            diagnostics = metrics.diagnostics;
+            commit();
+        }
+    }
+}
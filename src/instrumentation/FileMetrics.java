@@ -0,0 +1,31 @@
+package instrumentation;
+
+// Medidas da análise instrumentada de um arquivo (tempos em nanossegundos)
+public final class FileMetrics {
+    public final long bytes;
+    public final long readNanos;
+    public final long lexNanos;
+    public final long parseNanos;
+    public final long semanticNanos;
+    public final long tokens;
+    public final long lookups;
+    public final int maxScopeDepth;
+    public final int diagnostics;
+
+    public FileMetrics(long bytes, long readNanos, long lexNanos, long parseNanos, long semanticNanos,
+                       long tokens, long lookups, int maxScopeDepth, int diagnostics) {
+        this.bytes = bytes;
+        this.readNanos = readNanos;
+        this.lexNanos = lexNanos;
+        this.parseNanos = parseNanos;
+        this.semanticNanos = semanticNanos;
+        this.tokens = tokens;
+        this.lookups = lookups;
+        this.maxScopeDepth = maxScopeDepth;
+        this.diagnostics = diagnostics;
+    }
+
+    public long totalNanos() {
+        return readNanos + lexNanos + parseNanos + semanticNanos;
+    }
+}
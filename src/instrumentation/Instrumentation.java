@@ -0,0 +1,22 @@
+package instrumentation;
+
+// Liga e desliga a instrumentação da análise. Desligada (o padrão), o driver
+// segue o caminho normal, sem medir nada; ligada, cada arquivo é analisado em
+// fases separadas (leitura, léxico, parser), cada fase vira um PhaseEvent do
+// JFR e o arquivo inteiro um FileEvent, com os contadores em FileMetrics.
+// Também liga com -Dparser.instrument=true (para gravar os eventos do JFR sem
+// mudar a linha de comando do driver).
+public final class Instrumentation {
+    private static volatile boolean enabled = Boolean.getBoolean("parser.instrument");
+
+    private Instrumentation() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Instrumentation.enabled = enabled;
+    }
+}
@@ -0,0 +1,49 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Uma fase da análise de um arquivo. Sem gravação do JFR ativa, commit não faz nada.
+// Ex.: java -XX:StartFlightRecording=filename=analise.jfr Teste -stats corpus
+//      jfr print --events parser.Phase analise.jfr
+@Name("parser.Phase")
+@Label("Fase da análise")
+@Category("Parser")
+@StackTrace(false)
+@Description("Leitura, análise léxica, sintática ou semântica de um arquivo")
+public final class PhaseEvent extends Event {
+    public static final String READ = "leitura";
+    public static final String LEX = "léxico";
+    public static final String PARSE = "parser";
+    public static final String SEMANTIC = "semântico";
+
+    @Label("Arquivo")
+    String file;
+
+    @Label("Fase")
+    String phase;
+
+    @Label("Itens")
+    @Description("Bytes lidos, tokens reconhecidos, nós da árvore ou verificações semânticas, conforme a fase")
+    long items;
+
+    public static PhaseEvent start(String file, String phase) {
+        PhaseEvent event = new PhaseEvent();
+        event.file = file;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void finish(long items) {
+        end();
+        if (shouldCommit()) {
+            this.items = items;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package lexical;
+
+import java.nio.ByteBuffer;
+
+// Varredura da fonte em bytes de 8 em 8 (SWAR): cada long lido é tratado como
+// oito bytes comparados em paralelo com aritmética comum, sem desvio por byte.
+// O buffer deve estar em ordem little-endian, para que o byte de menor endereço
+// seja o menos significativo e o primeiro achado saia de numberOfTrailingZeros.
+// Só procura bytes ASCII: bytes de sequências UTF-8 multibyte são >= 0x80 e
+// nunca coincidem, então o resultado é o mesmo de comparar os caracteres.
+final class ByteScan {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+
+    private static final long NEWLINE = pattern('\n');
+    private static final long SPACE = pattern(' ');
+    private static final long TAB = pattern('\t');
+    private static final long RETURN = pattern('\r');
+
+    private ByteScan() {
+    }
+
+    // c repetido nos oito bytes
+    static long pattern(char c) {
+        return (c & 0xFF) * ONES;
+    }
+
+    // 0x80 em cada byte de word igual ao de pattern e 0 nos outros. Exato: como a
+    // soma é feita só nos 7 bits baixos, não há "vai um" de um byte para o outro
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW7) + LOW7) | x | LOW7);
+    }
+
+    // Primeira posição em [from, to) com o byte de pattern, ou to
+    static int indexOf(ByteBuffer words, int from, int to, long pattern) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = matches(words.getLong(i), pattern);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        byte b = (byte) pattern;
+        for (; i < to; i++) {
+            if (words.get(i) == b) return i;
+        }
+        return to;
+    }
+
+    // Registra em lines o início de linha depois de cada '\n' em [from, to)
+    static void addLineStarts(ByteBuffer words, int from, int to, LineMap lines) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = matches(words.getLong(i), NEWLINE);
+            while (found != 0) {
+                lines.add(i + (Long.numberOfTrailingZeros(found) >>> 3) + 1);
+                found &= found - 1;
+            }
+        }
+        for (; i < to; i++) {
+            if (words.get(i) == '\n') {
+                lines.add(i + 1);
+            }
+        }
+    }
+
+    // Primeira posição em [from, to) que não é ' ', '\t', '\r' nem '\n', ou to
+    static int skipBlanks(ByteBuffer words, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = words.getLong(i);
+            long blank = matches(word, SPACE) | matches(word, NEWLINE) | matches(word, TAB) | matches(word, RETURN);
+            long other = ~blank & HIGH;
+            if (other != 0) return i + (Long.numberOfTrailingZeros(other) >>> 3);
+        }
+        for (; i < to; i++) {
+            byte b = words.get(i);
+            if (b != ' ' && b != '\n' && b != '\t' && b != '\r') return i;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,37 @@
+package lexical;
+
+// Fonte sobre um texto inteiro já em memória (String, StringBuilder, CharBuffer...)
+final class CharSequenceSource implements Source {
+    private final CharSequence text;
+    private final int length;
+
+    CharSequenceSource(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return offset < length ? text.charAt(offset) : '\0';
+    }
+
+    @Override
+    public boolean isAtEnd(int offset) {
+        return offset >= length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String text(int start, int end) {
+        return text.subSequence(start, end).toString();
+    }
+
+    @Override
+    public boolean keepsText() {
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package lexical;
+
+import java.util.Arrays;
+
+// Texto editável guardado num gap buffer: o espaço livre fica no ponto da última
+// edição, então editar perto dela custa o tamanho da edição (mais a distância
+// até a edição anterior), e não o tamanho do texto.
+final class GapText implements Source {
+    private char[] chars;
+    private int gapStart;
+    private int gapEnd;
+
+    GapText(CharSequence text) {
+        int length = text.length();
+        chars = new char[Math.max(16, length + length / 4)];
+        for (int i = 0; i < length; i++) chars[i] = text.charAt(i);
+        gapStart = length;
+        gapEnd = chars.length;
+    }
+
+    @Override
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    void replace(int offset, int removed, String inserted) {
+        moveGap(offset);
+        gapEnd += removed;
+        int needed = inserted.length();
+        if (gapEnd - gapStart < needed) grow(needed);
+        inserted.getChars(0, needed, chars, gapStart);
+        gapStart += needed;
+    }
+
+    private void moveGap(int offset) {
+        if (offset < gapStart) {
+            int count = gapStart - offset;
+            System.arraycopy(chars, offset, chars, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (offset > gapStart) {
+            int count = offset - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void grow(int needed) {
+        int tail = chars.length - gapEnd;
+        int capacity = Math.max(chars.length * 2, length() + needed + 16);
+        char[] grown = Arrays.copyOf(chars, capacity);
+        System.arraycopy(chars, gapEnd, grown, capacity - tail, tail);
+        chars = grown;
+        gapEnd = capacity - tail;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        if (offset < gapStart) return chars[offset];
+        int physical = offset + (gapEnd - gapStart);
+        return physical < chars.length ? chars[physical] : '\0';
+    }
+
+    @Override
+    public boolean isAtEnd(int offset) {
+        return offset >= length();
+    }
+
+    @Override
+    public String text(int start, int end) {
+        if (end <= gapStart) return new String(chars, start, end - start);
+        int gap = gapEnd - gapStart;
+        if (start >= gapStart) return new String(chars, start + gap, end - start);
+        StringBuilder text = new StringBuilder(end - start);
+        text.append(chars, start, gapStart - start);
+        text.append(chars, gapEnd, end - gapStart);
+        return text.toString();
+    }
+
+    @Override
+    public boolean keepsText() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return text(0, length());
+    }
+}
\ No newline at end of file
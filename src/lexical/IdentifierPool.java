@@ -0,0 +1,121 @@
+package lexical;
+
+import java.util.Arrays;
+
+// Tabela de identificadores já vistos. A linguagem não diferencia maiúsculas,
+// então cada nome é guardado uma única vez, em minúsculas, com um id denso
+// (0, 1, 2...). Procurar um nome que já está na tabela não aloca nada.
+// Os nomes são lidos caractere a caractere (Source.next), não posição a
+// posição: o mesmo nome tem o mesmo id vindo de uma String ou de bytes UTF-8.
+// Não é thread-safe: cada Lexer usa o seu (ou um compartilhado só para leitura).
+public final class IdentifierPool {
+    private int[] slots = new int[64];  // id + 1 de cada posição; 0 = vazia
+    private int[] hashes = new int[32];
+    private String[] names = new String[32];
+    private int size = 0;
+
+    // Id do identificador em [start, end) da fonte, incluindo-o se for novo
+    public int intern(Source source, int start, int end) {
+        int hash = hash(source, start, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(names[id], source, start, end)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return add(slot, hash, source, start, end);
+    }
+
+    public int intern(CharSequence name) {
+        return intern(Source.of(name), 0, name.length());
+    }
+
+    // Id do nome, ou -1 se ele nunca foi internado
+    public int find(CharSequence name) {
+        Source source = Source.of(name);
+        int end = name.length();
+        int hash = hash(source, 0, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(names[id], source, 0, end)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Nome canônico (em minúsculas) do id
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(int slot, int hash, Source source, int start, int end) {
+        StringBuilder folded = new StringBuilder(end - start);
+        for (int i = start; i < end; ) {
+            int c = source.codePointAt(i);
+            folded.appendCodePoint(fold(c));
+            i = c < 128 ? i + 1 : source.next(i);
+        }
+
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        names[id] = folded.toString();
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+
+        // Mantém a ocupação abaixo de 50%
+        if (size * 2 > slots.length) rehash();
+        return id;
+    }
+
+    private void rehash() {
+        int[] bigger = new int[slots.length * 2];
+        int mask = bigger.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (bigger[slot] != 0) slot = (slot + 1) & mask;
+            bigger[slot] = id + 1;
+        }
+        slots = bigger;
+    }
+
+    private static int hash(Source source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; ) {
+            int c = source.codePointAt(i);
+            h = 31 * h + fold(c);
+            i = c < 128 ? i + 1 : source.next(i);
+        }
+        // espalha os bits baixos, que escolhem a posição na tabela
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String name, Source source, int start, int end) {
+        int j = 0;
+        for (int i = start; i < end; ) {
+            int c = source.codePointAt(i);
+            if (j == name.length()) return false;
+            int expected = name.codePointAt(j);
+            if (expected != fold(c)) return false;
+            j += Character.charCount(expected);
+            i = c < 128 ? i + 1 : source.next(i);
+        }
+        return j == name.length();
+    }
+
+    private static int fold(int c) {
+        if (c < 128) return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+        return Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,256 @@
+package lexical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Texto editável com seus tokens sempre atualizados. Uma edição relexa só a
+// janela de tokens danificada: o Lexer recomeça no fim do último token intacto
+// e para assim que produz um token que começa onde começava um token antigo
+// posterior à edição. Dali em diante o texto é o mesmo de antes, então os
+// tokens também são (só deslocados).
+// Texto e tokens ficam em gap buffers com o espaço livre no ponto da última
+// edição. Os tokens depois do gap guardam o offset relativo ao fim do texto,
+// então não precisam ser deslocados um a um: uma edição custa o tamanho da
+// janela relexada, mais a distância até a anterior. As linhas ficam numa
+// LineMap, que a edição atualiza deslocando os inícios de linha seguintes.
+public final class IncrementalLexer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    // O Lexer olha até dois caracteres além do fim de um token (ex.: "1." antes de um dígito)
+    private static final int LOOKAHEAD = 2;
+
+    private final GapText text;
+    private final IdentifierPool identifiers = new IdentifierPool();
+    private final LineMap lines;
+
+    private byte[] types = new byte[1024];
+    private int[] offsets = new int[1024];
+    private int[] lengths = new int[1024];
+    private int[] ids = new int[1024];
+    private int gapStart;
+    private int gapEnd;
+
+    // Referência dos offsets dos tokens depois do gap: o tamanho do texto
+    private int textLength;
+
+    public IncrementalLexer(CharSequence initial) {
+        this.text = new GapText(initial);
+
+        Lexer lexer = new Lexer(text, identifiers);
+        lines = lexer.getLineMap();
+        Token token;
+        gapEnd = types.length;
+        do {
+            token = lexer.nextToken();
+            if (gapStart == gapEnd) grow(1);
+            set(gapStart++, token);
+        } while (token.type != TokenType.EOF);
+        textLength = text.length();
+    }
+
+    // Troca text[offset, offset + removed) por inserted e relexa o trecho afetado
+    public TokenEdit edit(int offset, int removed, String inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > textLength) {
+            throw new IndexOutOfBoundsException("Edição fora do texto: " + offset + "+" + removed
+                + " (tamanho " + textLength + ")");
+        }
+        int delta = inserted.length() - removed;
+
+        // Primeiro token que pode ter mudado; o Lexer recomeça no fim do anterior
+        int from = firstReaching(offset);
+        int start = from > 0 ? offset(from - 1) + length(from - 1) : 0;
+        moveGap(from);
+        text.replace(offset, removed, inserted);
+        int lineCount = lines.lineCount();
+        lines.edit(offset, removed, inserted);
+
+        // Até o fim do laço, offset(old) ainda é o de antes da edição
+        Lexer lexer = new Lexer(text, identifiers, start, lines.line(start));
+        List<Token> window = new ArrayList<>();
+        int editEnd = offset + inserted.length();
+        int old = from;
+        int size = size();
+        while (true) {
+            Token token = lexer.nextToken();
+            if (token.offset >= editEnd) {
+                // Ressincronizou: o token antigo old começa no mesmo ponto do texto
+                while (old < size && offset(old) + delta < token.offset) old++;
+                if (old < size && offset(old) + delta == token.offset) break;
+            }
+            window.add(token);
+            if (token.type == TokenType.EOF) {
+                old = size;
+                break;
+            }
+        }
+
+        // Os tokens antigos [from, old) estão logo depois do gap: basta engoli-los
+        gapEnd += old - from;
+        if (gapEnd - gapStart < window.size()) grow(window.size());
+        for (Token token : window) set(gapStart++, token);
+
+        textLength += delta;
+        return new TokenEdit(from, old - from, window.size(), lines.lineCount() - lineCount);
+    }
+
+    // Leva o gap para antes do token index, convertendo os tokens que mudam de lado
+    private void moveGap(int index) {
+        int gap = gapEnd - gapStart;
+        while (gapStart > index) {
+            gapStart--;
+            int target = gapStart + gap;
+            copy(gapStart, target);
+            offsets[target] -= textLength;
+        }
+        while (gapStart < index) {
+            int source = gapStart + gap;
+            copy(source, gapStart);
+            offsets[gapStart] += textLength;
+            gapStart++;
+        }
+        gapEnd = gapStart + gap;
+    }
+
+    private void copy(int from, int to) {
+        types[to] = types[from];
+        offsets[to] = offsets[from];
+        lengths[to] = lengths[from];
+        ids[to] = ids[from];
+    }
+
+    // Primeiro token cujo fim, somado ao lookahead do Lexer, alcança offset
+    private int firstReaching(int offset) {
+        int low = 0;
+        int high = size() - 1; // o EOF sempre alcança
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offset(middle) + length(middle) + LOOKAHEAD > offset) high = middle;
+            else low = middle + 1;
+        }
+        return low;
+    }
+
+    private void set(int physical, Token token) {
+        types[physical] = (byte) token.type.ordinal();
+        offsets[physical] = token.offset;
+        lengths[physical] = token.length;
+        ids[physical] = token.id;
+    }
+
+    // Aumenta o gap para caber pelo menos needed tokens
+    private void grow(int needed) {
+        int tail = types.length - gapEnd;
+        int capacity = Math.max(types.length * 2, gapStart + tail + needed);
+        types = grow(types, capacity, tail);
+        offsets = grow(offsets, capacity, tail);
+        lengths = grow(lengths, capacity, tail);
+        ids = grow(ids, capacity, tail);
+        gapEnd = capacity - tail;
+    }
+
+    private byte[] grow(byte[] array, int capacity, int tail) {
+        byte[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - tail, grown, capacity - tail, tail);
+        return grown;
+    }
+
+    private int[] grow(int[] array, int capacity, int tail) {
+        int[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - tail, grown, capacity - tail, tail);
+        return grown;
+    }
+
+    private int physical(int index) {
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+
+    public IdentifierPool getIdentifierPool() {
+        return identifiers;
+    }
+
+    // Inícios de linha do texto atual
+    public LineMap getLineMap() {
+        return lines;
+    }
+
+    public String text() {
+        return text.toString();
+    }
+
+    public int textLength() {
+        return textLength;
+    }
+
+    // Número de tokens, contando o EOF
+    public int size() {
+        return types.length - (gapEnd - gapStart);
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[physical(index)]];
+    }
+
+    public int offset(int index) {
+        return index < gapStart ? offsets[index] : offsets[physical(index)] + textLength;
+    }
+
+    public int length(int index) {
+        return lengths[physical(index)];
+    }
+
+    public int line(int index) {
+        return lines.line(offset(index));
+    }
+
+    public int column(int index) {
+        return lines.column(offset(index));
+    }
+
+    // Token que contém a posição offset do texto (ou termina nela); -1 se ela cair entre tokens
+    public int tokenAt(int offset) {
+        int low = 0;
+        int high = size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offset(middle) <= offset) low = middle;
+            else high = middle - 1;
+        }
+        return offset(low) <= offset && offset <= offset(low) + length(low) ? low : -1;
+    }
+
+    // O lexema é lido do texto atual: o Token vale até a próxima edição
+    public Token token(int index) {
+        return new Token(type(index), text, line(index), offset(index), length(index), ids[physical(index)]);
+    }
+
+    public Cursor cursor(int from) {
+        return new Cursor(from);
+    }
+
+    // Percorre os tokens a partir de uma posição, sabendo o índice do último entregue
+    public final class Cursor implements TokenStream {
+        private int next;
+        private int index = -1;
+        private int line;
+
+        private Cursor(int from) {
+            this.next = from;
+            this.line = line(from);
+        }
+
+        @Override
+        public Token nextToken() {
+            index = next;
+            if (next < size() - 1) next++;
+            int offset = offset(index);
+            line = lines.line(offset, line); // em ordem: a linha só avança
+            return new Token(type(index), text, line, offset, length(index), ids[physical(index)]);
+        }
+
+        // Índice do último token entregue (o current do Parser)
+        public int index() {
+            return index;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package lexical;
+
+// Reconhece palavras reservadas direto no trecho da fonte, sem criar Strings.
+// Hash perfeito sobre (primeira letra, última letra, tamanho): as 15 palavras
+// caem em posições distintas de uma tabela de 32; basta confirmar a posição
+// comparando letra a letra, ignorando maiúsculas.
+final class Keywords {
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 7;
+
+    private static final String[] WORDS = new String[32];
+    private static final TokenType[] TYPES = new TokenType[32];
+
+    static {
+        add("program", TokenType.PROGRAM);
+        add("begin", TokenType.BEGIN);
+        add("end", TokenType.END);
+        add("int", TokenType.INT);
+        add("float", TokenType.FLOAT);
+        add("char", TokenType.CHAR);
+        add("if", TokenType.IF);
+        add("then", TokenType.THEN);
+        add("else", TokenType.ELSE);
+        add("repeat", TokenType.REPEAT);
+        add("until", TokenType.UNTIL);
+        add("while", TokenType.WHILE);
+        add("do", TokenType.DO);
+        add("in", TokenType.IN);
+        add("out", TokenType.OUT);
+    }
+
+    private Keywords() {
+    }
+
+    private static void add(String word, TokenType type) {
+        int slot = hash(word.charAt(0), word.charAt(word.length() - 1), word.length());
+        if (WORDS[slot] != null) throw new IllegalStateException("Colisão no hash de palavras reservadas: " + word);
+        WORDS[slot] = word;
+        TYPES[slot] = type;
+    }
+
+    private static int hash(char first, char last, int length) {
+        return (lower(first) * 2 + lower(last) * 6 + length) & 31;
+    }
+
+    // Palavra reservada em [start, end), ou IDENTIFIER
+    static TokenType classify(Source source, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return TokenType.IDENTIFIER;
+
+        int slot = hash(source.charAt(start), source.charAt(end - 1), length);
+        String word = WORDS[slot];
+        if (word == null || word.length() != length) return TokenType.IDENTIFIER;
+
+        for (int i = 0; i < length; i++) {
+            if (lower(source.charAt(start + i)) != word.charAt(i)) return TokenType.IDENTIFIER;
+        }
+        return TYPES[slot];
+    }
+
+    // As palavras reservadas são ASCII, então basta dobrar A-Z
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -1,46 +1,220 @@
 package lexical;
 
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.*;
 
-public class Lexer {
+import diagnostic.Diagnostic;
+import diagnostic.DiagnosticSink;
 
-    private final String source;
-    private final List<Token> tokens = new ArrayList<>();
+public class Lexer implements TokenStream {
+
+    // Comentários e espaços pulados de 8 em 8 bytes (ByteScan) quando a fonte é de
+    // bytes. É o padrão de cada Lexer; -Dlexer.scalar=true muda o padrão para o
+    // caminho caractere a caractere
+    private static final boolean WORD_SCAN = !Boolean.getBoolean("lexer.scalar");
+
+    private static final long CLOSE_BRACE = ByteScan.pattern('}');
+    private static final long NEWLINE = ByteScan.pattern('\n');
+
+    private final Source source;
+    private final ByteBuffer words; // null: só o caminho caractere a caractere
+    private final int limit;
+    private final IdentifierPool identifiers;
+    private List<Token> tokens;
     private int start = 0;
     private int current = 0;
-    private int line = 1;
+    private int startLine; // linha em que começa o token em [start, current), tirada de lines
+    private final LineMap lines;
+
+    // Token reconhecido pela última chamada de scanToken (null se só consumiu espaço/comentário)
+    private TokenType tokenType;
+    private int identifierId;
+
+    // Cada token ERROR também gera um diagnóstico léxico aqui
+    private DiagnosticSink diagnostics = DiagnosticSink.NONE;
+    // Houve um comentário aberto até o fim: numa fonte que não mantém o texto ele já
+    // saiu da janela, e o lexema do token ERROR fica só "{"
+    private boolean openComment;
 
     public Lexer(String source) {
+        this(Source.of(source));
+    }
+
+    // Modo streaming: o texto é lido do Reader à medida que os tokens são pedidos
+    public Lexer(Reader reader) {
+        this(Source.of(reader));
+    }
+
+    public Lexer(Source source) {
+        this(source, new IdentifierPool());
+    }
+
+    // wordScan escolhe, só para este Lexer, entre pular de 8 em 8 bytes e o caminho escalar
+    public Lexer(Source source, boolean wordScan) {
+        this(source, new IdentifierPool(), 0, 1, wordScan);
+    }
+
+    // Permite que vários Lexers compartilhem os mesmos ids de identificadores
+    public Lexer(Source source, IdentifierPool identifiers) {
+        this(source, identifiers, 0, 1);
+    }
+
+    // Começa a ler em offset, que está na linha line (relexing de um trecho da fonte)
+    public Lexer(Source source, IdentifierPool identifiers, int offset, int line) {
+        this(source, identifiers, offset, line, WORD_SCAN);
+    }
+
+    public Lexer(Source source, IdentifierPool identifiers, int offset, int line, boolean wordScan) {
         this.source = source;
-        scanTokens();
+        this.identifiers = identifiers;
+        this.current = offset;
+        this.lines = new LineMap(offset, line);
+        this.words = wordScan && source instanceof MappedSource ? ((MappedSource) source).words() : null;
+        this.limit = words != null ? words.limit() : 0;
     }
 
-    private void scanTokens() {
-        while (!isAtEnd()) {
+    // Devolve o próximo token, lendo a entrada só até onde for necessário
+    @Override
+    public Token nextToken() {
+        TokenType type = scanNext();
+        if (type == TokenType.EOF) {
+            return new Token(TokenType.EOF, "", lines.lastLine(), current, 0, -1);
+        }
+        int id = type == TokenType.IDENTIFIER ? identifierId : -1;
+        if (source.keepsText()) {
+            // lexema referenciado como trecho da fonte, copiado só se for pedido
+            return new Token(type, source, startLine, start, current - start, id);
+        }
+        String lexeme = openComment && type == TokenType.ERROR ? "{" : Token.lexemeOf(type, source, start, current);
+        return new Token(type, lexeme, startLine, start, current - start, id);
+    }
+
+    // Reconhece o próximo token, que fica em [start, current) e começa na linha startLine
+    private TokenType scanNext() {
+        tokenType = null;
+        while (tokenType == null) {
+            if (isAtEnd()) {
+                start = current;
+                return TokenType.EOF;
+            }
             start = current;
+            startLine = lines.lastLine();
+            source.release(start);
             scanToken();
         }
+        return tokenType;
+    }
+
+    // Um passo do léxico a partir da posição atual: um token, ou só espaço ou
+    // comentário (devolve null). O token fica em [tokenStart(), position())
+    TokenType step() {
+        start = current;
+        startLine = lines.lastLine();
+        tokenType = null;
+        scanToken();
+        return tokenType;
+    }
+
+    int tokenStart() {
+        return start;
+    }
+
+    int position() {
+        return current;
+    }
+
+    // Inícios das linhas que o Lexer já percorreu (a partir de onde começou)
+    public LineMap getLineMap() {
+        return lines;
+    }
+
+    // Destino dos erros léxicos (por padrão descartados: eles também chegam ao
+    // Parser como tokens ERROR, que os registra entre os seus diagnósticos)
+    public void setDiagnosticSink(DiagnosticSink diagnostics) {
+        this.diagnostics = diagnostics;
+    }
 
-        tokens.add(new Token(TokenType.EOF, "", line));
+    // Diagnóstico léxico de um token ERROR, deduzido do próprio trecho
+    public static Diagnostic diagnosticOf(Token token) {
+        return new Diagnostic(Diagnostic.Kind.LEXICO, token.line, token.offset, token.length, errorMessage(token.firstChar()));
+    }
+
+    // O primeiro caractere basta: os outros erros são de um caractere só
+    private static String errorMessage(char first) {
+        switch (first) {
+            case '{': return "Fim de arquivo inesperado: comentário não fechado";
+            case '"': return "String não terminada";
+            case '\'': return "Esperado fechamento de caractere";
+            default: return "Caractere inesperado: " + first;
+        }
+    }
+
+    // O trecho [start, current), que começa com first, não forma token: vira um token ERROR
+    private void error(char first) {
+        addToken(TokenType.ERROR);
+        if (diagnostics != DiagnosticSink.NONE) {
+            diagnostics.report(new Diagnostic(Diagnostic.Kind.LEXICO, startLine, start, current - start, errorMessage(first)));
+        }
+    }
+
+    private void scanTokens() {
+        Token token;
+        do {
+            token = nextToken();
+            tokens.add(token);
+        } while (token.type != TokenType.EOF);
+    }
+
+    // Consome o restante da entrada gravando os tokens em arrays compactos,
+    // sem criar um objeto Token por token
+    public TokenBuffer getTokenBuffer() {
+        if (!source.keepsText()) {
+            throw new IllegalStateException("TokenBuffer exige uma fonte que mantenha o texto (String ou arquivo mapeado)");
+        }
+        TokenBuffer buffer = new TokenBuffer(source, identifiers, lines);
+        TokenType type;
+        do {
+            type = scanNext();
+            buffer.add(type, start, current - start);
+        } while (type != TokenType.EOF);
+        return buffer;
     }
 
     private void scanToken() {
         char c = advance();
         switch (c) {
             case '{':
-                while (!isAtEnd() && peek() != '}') {
-                    if (peek() == '\n') line++;
-                    advance();
+                if (words != null) {
+                    int end = ByteScan.indexOf(words, current, limit, CLOSE_BRACE);
+                    ByteScan.addLineStarts(words, current, end, lines);
+                    current = end;
+                } else {
+                    while (!isAtEnd() && peek() != '}') {
+                        if (advance() == '\n') newLine();
+                        source.release(current);
+                    }
+                }
+                if (!isAtEnd()) {
+                    advance(); // consume '}'
+                } else {
+                    openComment = true;
+                    error(c); // o token ERROR é o comentário inteiro
                 }
-                if (!isAtEnd()) advance(); // consume '}'
-                else System.err.println("Fim de arquivo inesperado.");
                 break;
 
             case '%':
-                while (!isAtEnd() && peek() != '\n') advance();
+                if (words != null) {
+                    current = ByteScan.indexOf(words, current, limit, NEWLINE);
+                } else {
+                    while (!isAtEnd() && peek() != '\n') {
+                        advance();
+                        source.release(current);
+                    }
+                }
                 if (!isAtEnd()) {
                     advance();
-                    line++;
+                    newLine();
                 }
                 break;
 
@@ -84,7 +258,7 @@ public class Lexer {
                     advance();
                     addToken(TokenType.OR);
                 } else {
-                    System.err.println("Caractere inesperado na linha " + line + ": " + peek());
+                    error(c);
                 }
                 break;
 
@@ -93,7 +267,7 @@ public class Lexer {
                     advance();
                     addToken(TokenType.AND);
                 } else {
-                    System.err.println("Caractere inesperado na linha " + line + ": " + peek());
+                    error(c);
                 }
                 break;
 
@@ -117,26 +291,27 @@ public class Lexer {
 
             case '\'':
                 if (isAscii(peek())) {
-                    char value = advance(); // char literal
+                    if (advance() == '\n') newLine(); // char literal
                     if (peek() == '\'') {
                         advance(); // consume closing quote
-                        addToken(TokenType.CHAR_CONST, String.valueOf(value));
+                        addToken(TokenType.CHAR_CONST);
                     } else {
-                        System.err.println("Esperado fechamento de caractere na linha " + line);
+                        error(c);
                     }
+                } else {
+                    error(c);
                 }
                 break;
 
             case '\"':
-                StringBuilder str = new StringBuilder();
                 while (!isAtEnd() && peek() != '"' && peek() != '\n') {
-                    str.append(advance());
+                    advance();
                 }
                 if (peek() == '\"') {
                     advance(); // consume closing "
-                    addToken(TokenType.STRING, str.toString());
+                    addToken(TokenType.STRING);
                 } else {
-                    System.err.println("String não terminada na linha " + line);
+                    error(c);
                 }
                 break;
 
@@ -144,71 +319,67 @@ public class Lexer {
             case '\r':
             case '\t':
                 // Ignora espaços
+                if (words != null && isBlank(peek())) skipBlanks();
                 break;
 
             case '\n':
-                line++;
+                newLine();
+                if (words != null && isBlank(peek())) skipBlanks();
                 break;
 
             default:
                 if (isDigit(c)) {
-                    StringBuilder number = new StringBuilder();
-                    number.append(c);
-
-                    while (isDigit(peek())) number.append(advance());
+                    while (isDigit(peek())) advance();
 
                     if (peek() == '.' && isDigit(peekNext())) {
-                        number.append(advance()); // consume '.'
-                        while (isDigit(peek())) number.append(advance());
-                        addToken(TokenType.FLOAT_CONST, number.toString());
+                        advance(); // consume '.'
+                        while (isDigit(peek())) advance();
+                        addToken(TokenType.FLOAT_CONST);
                     } else {
-                        addToken(TokenType.INTEGER_CONST, number.toString());
+                        addToken(TokenType.INTEGER_CONST);
                     }
 
                 } else if (Character.isLetter(c) || c == '_') {
-                    StringBuilder ident = new StringBuilder();
-                    ident.append(c);
                     while (Character.isLetter(peek()) || isDigit(peek()) || peek() == '_') {
-                        ident.append(advance());
+                        advance();
                     }
 
-                    String text = ident.toString();
-                    TokenType type = switch (text.toLowerCase()) {
-                        case "program" -> TokenType.PROGRAM;
-                        case "begin" -> TokenType.BEGIN;
-                        case "end" -> TokenType.END;
-                        case "int" -> TokenType.INT;
-                        case "float" -> TokenType.FLOAT;
-                        case "char" -> TokenType.CHAR;
-                        case "if" -> TokenType.IF;
-                        case "then" -> TokenType.THEN;
-                        case "else" -> TokenType.ELSE;
-                        case "repeat" -> TokenType.REPEAT;
-                        case "until" -> TokenType.UNTIL;
-                        case "while" -> TokenType.WHILE;
-                        case "do" -> TokenType.DO;
-                        case "in" -> TokenType.IN;
-                        case "out" -> TokenType.OUT;
-                        default -> TokenType.IDENTIFIER;
-                    };
-                    addToken(type, text);
+                    TokenType type = Keywords.classify(source, start, current);
+                    if (type == TokenType.IDENTIFIER) {
+                        identifierId = identifiers.intern(source, start, current);
+                    }
+                    addToken(type);
                 } else {
-                    System.err.println("Caractere inesperado na linha " + line + ": " + c);
+                    error(c);
                 }
         }
     }
 
+    // Pula o restante de uma sequência de espaços e quebras de linha
+    private void skipBlanks() {
+        int end = ByteScan.skipBlanks(words, current, limit);
+        ByteScan.addLineStarts(words, current, end, lines);
+        current = end;
+    }
+
+    // Acabou de consumir um '\n': a linha seguinte começa em current
+    private void newLine() {
+        lines.add(current);
+    }
+
     private char advance() {
         if (isAtEnd()) return '\0';
-        return source.charAt(current++);
+        char c = source.charAt(current);
+        // fora do ASCII o caractere pode ocupar mais de uma posição
+        current = c < 128 ? current + 1 : source.next(current);
+        return c;
     }
 
     private char peek() {
-        return isAtEnd() ? '\0' : source.charAt(current);
+        return source.charAt(current);
     }
 
     private char peekNext() {
-        if (current + 1 >= source.length()) return '\0';
         return source.charAt(current + 1);
     }
 
@@ -216,23 +387,33 @@ public class Lexer {
         return c >= 0 && c <= 127;
     }
 
+    private boolean isBlank(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r';
+    }
+
     private boolean isDigit(char c) {
         return c >= '0' && c <= '9';
     }
 
     private boolean isAtEnd() {
-        return current >= source.length();
+        return source.isAtEnd(current);
     }
 
+    // O token ocupa [start, current) na fonte
     private void addToken(TokenType type) {
-        addToken(type, source.substring(start, current));
+        this.tokenType = type;
     }
 
-    private void addToken(TokenType type, String text) {
-        tokens.add(new Token(type, text, line));
+    public IdentifierPool getIdentifierPool() {
+        return identifiers;
     }
 
+    // Consome o restante da entrada de uma vez (modo usado antes do streaming)
     public List<Token> getTokens() {
+        if (tokens == null) {
+            tokens = new ArrayList<>();
+            scanTokens();
+        }
         return tokens;
     }
 }
\ No newline at end of file
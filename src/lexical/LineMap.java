@@ -0,0 +1,137 @@
+package lexical;
+
+import java.util.Arrays;
+
+// Offset do início de cada linha da fonte. Linha e coluna de um offset saem daqui
+// por busca binária, então os tokens só precisam guardar offset e tamanho.
+// O Lexer monta a tabela à medida que passa pelas quebras de linha; o
+// IncrementalLexer a atualiza a cada edição. Linhas e colunas começam em 1 e a
+// coluna é contada nas unidades dos offsets (bytes num arquivo mapeado).
+// Como os tokens do IncrementalLexer, os inícios ficam num gap buffer com o
+// espaço livre no ponto da última edição: os depois do gap guardam o valor menos
+// shift, então uma edição só desloca os inícios entre ela e a anterior.
+public final class LineMap {
+    private int[] starts = new int[64];
+    private int gapStart = 1;
+    private int gapEnd = starts.length;
+    private int shift;
+
+    // Linha que começa em start(0) (um Lexer pode começar no meio da fonte)
+    private final int firstLine;
+
+    public LineMap() {
+        this(0, 1);
+    }
+
+    LineMap(int offset, int line) {
+        starts[0] = offset;
+        firstLine = line;
+    }
+
+    // Linha nova começando em start (logo depois de um '\n'), depois de todas as outras
+    void add(int start) {
+        if (gapEnd != starts.length) moveGap(lineCount());
+        if (gapStart == gapEnd) grow(1);
+        starts[gapStart++] = start;
+    }
+
+    // Acrescenta os inícios de linha de other que estão em [from, to] e depois do último desta
+    void append(LineMap other, int from, int to) {
+        int end = other.firstAtOrAfter(to + 1);
+        for (int i = other.firstAtOrAfter(Math.max(from, start(lineCount() - 1) + 1)); i < end; i++) {
+            add(other.start(i));
+        }
+    }
+
+    // Troca text[offset, offset + removed) por inserted: as linhas do trecho removido
+    // somem, as de inserted entram no lugar e as seguintes se deslocam
+    void edit(int offset, int removed, CharSequence inserted) {
+        int first = index(offset);
+        int last = index(offset + removed);
+        moveGap(first + 1);
+        gapEnd += last - first;
+        shift += inserted.length() - removed;
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) != '\n') continue;
+            if (gapStart == gapEnd) grow(1);
+            starts[gapStart++] = offset + i + 1;
+        }
+    }
+
+    // Leva o gap para antes da linha de índice index, convertendo os inícios que mudam de lado
+    private void moveGap(int index) {
+        while (gapStart > index) {
+            starts[--gapEnd] = starts[--gapStart] - shift;
+        }
+        while (gapStart < index) {
+            starts[gapStart++] = starts[gapEnd++] + shift;
+        }
+    }
+
+    private void grow(int needed) {
+        int tail = starts.length - gapEnd;
+        int capacity = Math.max(starts.length * 2, gapStart + tail + needed);
+        int[] grown = Arrays.copyOf(starts, capacity);
+        System.arraycopy(starts, gapEnd, grown, capacity - tail, tail);
+        starts = grown;
+        gapEnd = capacity - tail;
+    }
+
+    private int start(int index) {
+        return index < gapStart ? starts[index] : starts[index + gapEnd - gapStart] + shift;
+    }
+
+    // Índice da linha que contém offset
+    private int index(int offset) {
+        int low = 0;
+        int high = lineCount() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (start(middle) <= offset) low = middle;
+            else high = middle - 1;
+        }
+        return low;
+    }
+
+    private int firstAtOrAfter(int offset) {
+        int low = 0;
+        int high = lineCount();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (start(middle) < offset) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    public int line(int offset) {
+        return firstLine + index(offset);
+    }
+
+    // Linha de offset procurando a partir da linha from, para quem percorre a fonte em ordem
+    public int line(int offset, int from) {
+        int i = from - firstLine;
+        int count = lineCount();
+        if (i < 0 || i >= count || start(i) > offset) return line(offset);
+        while (i + 1 < count && start(i + 1) <= offset) i++;
+        return firstLine + i;
+    }
+
+    public int column(int offset) {
+        return offset - start(index(offset)) + 1;
+    }
+
+    // Offset do início da linha (a primeira ou a última, se line estiver fora da tabela)
+    public int lineStart(int line) {
+        return start(Math.max(0, Math.min(line - firstLine, lineCount() - 1)));
+    }
+
+    // Linha do último início da tabela (no Lexer, a linha em que ele está)
+    int lastLine() {
+        return firstLine + lineCount() - 1;
+    }
+
+    public int lineCount() {
+        return starts.length - (gapEnd - gapStart);
+    }
+}
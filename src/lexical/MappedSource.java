@@ -0,0 +1,141 @@
+package lexical;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Fonte sobre um arquivo mapeado em memória (ou, se for pequeno, lido para um
+// array): o Lexer lê direto dos bytes, sem decodificar nem copiar o arquivo
+// para uma String.
+// Os offsets são posições em bytes. Bytes ASCII são devolvidos diretamente; no
+// primeiro byte de uma sequência UTF-8 multibyte sai o caractere decodificado
+// (como numa String, o primeiro do par surrogate fora do BMP) e next pula a
+// sequência inteira, então cada caractere é lido uma vez só. Os bytes de
+// continuação, e os que não formam uma sequência válida, valem '\uFFFD'.
+final class MappedSource implements Source {
+    // Abaixo disso ler é mais barato que mapear (e não ocupa um mapeamento do processo)
+    private static final long READ_LIMIT = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private MappedSource(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.limit();
+    }
+
+    static MappedSource open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo grande demais para mapear: " + path + " (" + size + " bytes)");
+            }
+            // O mapeamento continua válido depois que o canal é fechado
+            return new MappedSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    static MappedSource wrap(ByteBuffer bytes) {
+        return new MappedSource(bytes);
+    }
+
+    static MappedSource read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > READ_LIMIT) {
+                return new MappedSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+            return new MappedSource(buffer);
+        }
+    }
+
+    @Override
+    public char charAt(int offset) {
+        if (offset >= size) return '\0';
+        byte b = buffer.get(offset);
+        if (b >= 0) return (char) b; // caminho rápido: ASCII
+        int codePoint = decodeAt(offset);
+        return Character.isBmpCodePoint(codePoint) ? (char) codePoint : Character.highSurrogate(codePoint);
+    }
+
+    @Override
+    public int codePointAt(int offset) {
+        if (offset >= size) return '\0';
+        byte b = buffer.get(offset);
+        return b >= 0 ? b : decodeAt(offset);
+    }
+
+    @Override
+    public int next(int offset) {
+        if (offset >= size || buffer.get(offset) >= 0) return offset + 1;
+        return offset + sequenceLength(offset);
+    }
+
+    @Override
+    public boolean isAtEnd(int offset) {
+        return offset >= size;
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @Override
+    public String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean keepsText() {
+        return true;
+    }
+
+    // Os mesmos bytes em little-endian, para a varredura de ByteScan (offsets absolutos)
+    ByteBuffer words() {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Decodifica a sequência UTF-8 que começa em offset
+    private int decodeAt(int offset) {
+        int length = sequenceLength(offset);
+        if (length == 1) return '\uFFFD'; // continuação ou byte inválido
+
+        int codePoint = buffer.get(offset) & (0xFF >>> (length + 1));
+        for (int i = 1; i < length; i++) {
+            codePoint = (codePoint << 6) | (buffer.get(offset + i) & 0x3F);
+        }
+        return codePoint;
+    }
+
+    // Bytes da sequência UTF-8 que começa em offset (1 se ali não começa uma sequência válida)
+    private int sequenceLength(int offset) {
+        int b0 = buffer.get(offset) & 0xFF;
+        int length;
+        if (b0 >= 0xC0 && b0 < 0xE0) length = 2;
+        else if (b0 >= 0xE0 && b0 < 0xF0) length = 3;
+        else if (b0 >= 0xF0 && b0 < 0xF8) length = 4;
+        else return 1;
+        if (offset + length > size) return 1;
+
+        for (int i = 1; i < length; i++) {
+            if (!isContinuation(buffer.get(offset + i))) return 1;
+        }
+        return length;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
@@ -0,0 +1,243 @@
+package lexical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import diagnostic.DiagnosticSink;
+
+// Léxico de uma fonte grande em várias threads. A fonte é cortada em pedaços logo
+// depois de um '\n' e cada pedaço é lido por um Lexer próprio, em paralelo,
+// supondo que ele começa fora de comentário e na linha 1 (especulação). Como o
+// estado do Lexer entre dois passos é só (posição, linha), a suposição vale se a
+// leitura do pedaço anterior parou exatamente no início deste. Se não parou (um
+// comentário de bloco ou um literal de caractere atravessou o corte), o começo do
+// pedaço é relido, na ordem, de onde o anterior parou até um token começar na
+// mesma posição que um token da leitura especulativa: dali em diante as duas
+// leituras coincidem.
+// Na junção, as LineMaps dos pedaços são emendadas (os inícios de linha não
+// dependem da especulação: todo '\n' é consumido e contado), os identificadores
+// entram no IdentifierPool na ordem da primeira ocorrência e os erros léxicos
+// (tokens ERROR) vão para o DiagnosticSink na ordem da fonte. O
+// resultado é idêntico ao de Lexer.getTokenBuffer() (e token(i) dá os mesmos
+// Token de getTokens()).
+public final class ParallelLexer {
+    // Pedaços menores que isso não compensam a divisão
+    private static final int MIN_CHUNK = 1 << 20;
+    // Mais pedaços que threads, para uma thread que pegou um trecho lento não atrasar as outras
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int threads;
+
+    public ParallelLexer(int threads) {
+        this.threads = threads;
+    }
+
+    public TokenBuffer tokenize(Source source) {
+        return tokenize(source, DiagnosticSink.NONE);
+    }
+
+    public TokenBuffer tokenize(Source source, DiagnosticSink diagnostics) {
+        int length = source.length();
+        if (!source.keepsText() || length < 0) {
+            throw new IllegalArgumentException("ParallelLexer exige uma fonte de tamanho conhecido (String ou arquivo mapeado)");
+        }
+        int[] bounds = split(source, length);
+        if (bounds.length == 2) {
+            Lexer lexer = new Lexer(source);
+            lexer.setDiagnosticSink(diagnostics);
+            return lexer.getTokenBuffer();
+        }
+        Chunk[] chunks = new Chunk[bounds.length - 1];
+        for (int i = 0; i < chunks.length; i++) chunks[i] = new Chunk(source, bounds[i], bounds[i + 1]);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Callable<Void>> speculate = new ArrayList<>(chunks.length);
+            for (Chunk chunk : chunks) {
+                speculate.add(() -> {
+                    chunk.speculate();
+                    return null;
+                });
+            }
+            join(pool.invokeAll(speculate));
+
+            // Correção na ordem: cada pedaço começa onde o anterior parou de verdade
+            int position = 0;
+            for (Chunk chunk : chunks) {
+                chunk.fix(position);
+                position = chunk.stop;
+            }
+
+            List<Callable<Void>> firstUses = new ArrayList<>(chunks.length);
+            for (Chunk chunk : chunks) {
+                firstUses.add(() -> {
+                    chunk.findFirstUses();
+                    return null;
+                });
+            }
+            join(pool.invokeAll(firstUses));
+
+            int total = 1;
+            LineMap lines = new LineMap();
+            for (Chunk chunk : chunks) {
+                total += chunk.size();
+                lines.append(chunk.lines, chunk.start, chunk.end);
+            }
+            IdentifierPool identifiers = new IdentifierPool();
+            TokenBuffer tokens = new TokenBuffer(source, identifiers, lines, total);
+            for (Chunk chunk : chunks) chunk.mergeInto(tokens, identifiers);
+            tokens.add(TokenType.EOF, position, 0);
+            if (diagnostics != DiagnosticSink.NONE) {
+                for (int i = 0; i < tokens.size(); i++) {
+                    if (tokens.type(i) == TokenType.ERROR) diagnostics.report(Lexer.diagnosticOf(tokens.token(i)));
+                }
+            }
+            return tokens;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Léxico paralelo interrompido", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Offsets de corte: cada um logo depois de um '\n', do 0 ao fim da fonte
+    private int[] split(Source source, int length) {
+        int count = threads == 1 ? 1 : Math.max(1, Math.min(threads * CHUNKS_PER_THREAD, length / MIN_CHUNK));
+        int[] bounds = new int[count + 1];
+        int used = 1;
+        for (int i = 1; i < count; i++) {
+            int cut = Math.max((int) ((long) length * i / count), bounds[used - 1] + 1);
+            while (cut < length && source.charAt(cut - 1) != '\n') cut++;
+            if (cut >= length) break;
+            bounds[used++] = cut;
+        }
+        bounds[used++] = length;
+        return used == bounds.length ? bounds : Arrays.copyOf(bounds, used);
+    }
+
+    private static void join(List<Future<Void>> tasks) throws InterruptedException {
+        for (Future<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private static final class Chunk {
+        private final Source source;
+        private final int start;
+        private final int end;
+        private final IdentifierPool local = new IdentifierPool();
+
+        // Leitura especulativa: os passos que começam em [start, end), e as linhas que ela percorreu
+        private TokenBuffer speculative;
+        private LineMap lines;
+
+        // Releitura do começo do pedaço quando a especulação não valeu (null se valeu)
+        private TokenBuffer prefix;
+
+        // Os tokens especulativos a partir de from são aproveitados
+        private int from;
+
+        // Onde a leitura real do pedaço parou
+        private int stop;
+
+        // Ids locais dos identificadores aproveitados, na ordem da primeira ocorrência
+        // (null se a especulação valeu: aí são todos os ids de local, que já estão nessa ordem)
+        private int[] firstUses;
+        private int firstUseCount;
+
+        Chunk(Source source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        int size() {
+            return (prefix != null ? prefix.size() : 0) + speculative.size() - from;
+        }
+
+        void speculate() {
+            Lexer lexer = new Lexer(source, local, start, 1);
+            lines = lexer.getLineMap();
+            speculative = new TokenBuffer(source, local, lines);
+            while (lexer.position() < end) {
+                TokenType type = lexer.step();
+                if (type != null) speculative.add(type, lexer.tokenStart(), lexer.position() - lexer.tokenStart());
+            }
+            stop = lexer.position();
+        }
+
+        // Relê os passos que começam antes de end até o primeiro token que começa
+        // junto com um token especulativo; devolve o índice dele (-1 se não houver)
+        private int rescan(Lexer lexer) {
+            int next = 0;
+            while (lexer.position() < end) {
+                TokenType type = lexer.step();
+                if (type == null) continue;
+                int tokenStart = lexer.tokenStart();
+                while (next < speculative.size() && speculative.offset(next) < tokenStart) next++;
+                if (next < speculative.size() && speculative.offset(next) == tokenStart) return next;
+                prefix.add(type, tokenStart, lexer.position() - tokenStart);
+            }
+            return -1;
+        }
+
+        // position: onde a leitura real do pedaço anterior parou
+        void fix(int position) {
+            if (position == start) {
+                from = 0;
+                return;
+            }
+            prefix = new TokenBuffer(source, local, lines);
+            Lexer lexer = new Lexer(source, local, position, 1); // a linha não importa: vem das LineMaps
+            int match = rescan(lexer);
+            if (match >= 0) {
+                from = match;
+            } else {
+                from = speculative.size();
+                stop = lexer.position();
+            }
+        }
+
+        void findFirstUses() {
+            if (prefix == null) return;
+            boolean[] seen = new boolean[local.size()];
+            firstUses = new int[16];
+            for (int i = from; i < speculative.size(); i++) {
+                if (speculative.type(i) != TokenType.IDENTIFIER) continue;
+                int id = speculative.identifierId(i);
+                if (seen[id]) continue;
+                seen[id] = true;
+                if (firstUseCount == firstUses.length) firstUses = Arrays.copyOf(firstUses, firstUseCount * 2);
+                firstUses[firstUseCount++] = id;
+            }
+        }
+
+        void mergeInto(TokenBuffer tokens, IdentifierPool identifiers) {
+            if (prefix != null) {
+                for (int i = 0; i < prefix.size(); i++) {
+                    if (prefix.type(i) == TokenType.IDENTIFIER) {
+                        identifiers.intern(source, prefix.offset(i), prefix.offset(i) + prefix.length(i));
+                    }
+                }
+                tokens.append(prefix, 0, prefix.size());
+            }
+            if (firstUses == null) {
+                for (int id = 0; id < local.size(); id++) identifiers.intern(local.name(id));
+            } else {
+                for (int i = 0; i < firstUseCount; i++) identifiers.intern(local.name(firstUses[i]));
+            }
+            tokens.append(speculative, from, speculative.size());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package lexical;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+// Fonte sobre um Reader com janela deslizante: só mantém em memória os
+// caracteres a partir do último offset liberado pelo Lexer.
+final class ReaderSource implements Source {
+    private static final int INITIAL_CAPACITY = 8192;
+
+    private final Reader reader;
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int base = 0;      // offset absoluto de buffer[0]
+    private int limit = 0;     // quantidade de caracteres válidos em buffer
+    private int released = 0;  // posições anteriores a esta podem ser descartadas
+    private boolean eof = false;
+
+    ReaderSource(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        if (offset - base >= limit && !fill(offset)) return '\0';
+        return buffer[offset - base];
+    }
+
+    @Override
+    public boolean isAtEnd(int offset) {
+        return offset - base >= limit && !fill(offset);
+    }
+
+    @Override
+    public String text(int start, int end) {
+        return new String(buffer, start - base, end - start);
+    }
+
+    @Override
+    public void release(int offset) {
+        if (offset > released) released = offset;
+    }
+
+    // Lê do Reader até que offset esteja na janela; false se o texto acabou antes
+    private boolean fill(int offset) {
+        try {
+            while (offset - base >= limit) {
+                if (eof) return false;
+                if (limit == buffer.length) makeRoom();
+
+                int n = reader.read(buffer, limit, buffer.length - limit);
+                if (n < 0) {
+                    eof = true;
+                    return false;
+                }
+                limit += n;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Descarta o que já foi liberado; só cresce o buffer se um único token não couber nele
+    private void makeRoom() {
+        int discard = released - base;
+        if (discard > 0) {
+            System.arraycopy(buffer, discard, buffer, 0, limit - discard);
+            limit -= discard;
+            base = released;
+        } else {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package lexical;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+// Fonte de caracteres consumida pelo Lexer, endereçada por offset absoluto.
+public interface Source {
+
+    // Caractere que começa na posição, ou '\0' se a posição estiver além do fim
+    char charAt(int offset);
+
+    // Code point do caractere que começa na posição (um par surrogate vira um só)
+    default int codePointAt(int offset) {
+        char c = charAt(offset);
+        if (Character.isHighSurrogate(c)) {
+            char low = charAt(offset + 1);
+            if (Character.isLowSurrogate(low)) return Character.toCodePoint(c, low);
+        }
+        return c;
+    }
+
+    // Posição do caractere seguinte ao que começa em offset: fora do ASCII um
+    // caractere pode ocupar mais de uma posição (um par surrogate; numa fonte de
+    // bytes, a sequência UTF-8 inteira)
+    default int next(int offset) {
+        return offset + Character.charCount(codePointAt(offset));
+    }
+
+    boolean isAtEnd(int offset);
+
+    // Texto do intervalo [start, end)
+    String text(int start, int end);
+
+    // Quantidade de posições, ou -1 se só se sabe ao chegar ao fim (Reader)
+    default int length() {
+        return -1;
+    }
+
+    // O Lexer avisa que não vai mais ler posições anteriores a offset
+    default void release(int offset) {
+    }
+
+    // true se qualquer trecho já lido continua disponível em text()
+    default boolean keepsText() {
+        return false;
+    }
+
+    static Source of(CharSequence text) {
+        return new CharSequenceSource(text);
+    }
+
+    static Source of(Reader reader) {
+        return new ReaderSource(reader);
+    }
+
+    // Mapeia o arquivo em memória; os offsets passam a ser posições em bytes
+    static Source map(Path path) throws IOException {
+        return MappedSource.open(path);
+    }
+
+    // Como map, mas arquivos pequenos são lidos para a memória em vez de mapeados:
+    // bom para processar muitos arquivos, já que o número de mapeamentos é limitado
+    static Source read(Path path) throws IOException {
+        return MappedSource.read(path);
+    }
+
+    // Bytes em UTF-8 já carregados (da posição 0 ao limite), lidos como em map
+    static Source of(ByteBuffer bytes) {
+        return MappedSource.wrap(bytes);
+    }
+}
@@ -2,18 +2,69 @@ package lexical;
 
 public class Token {
     public final TokenType type;
-    public final String lexeme;
+    // Linha de offset na LineMap de quem criou o token (Lexer, TokenBuffer ou
+    // IncrementalLexer), copiada aqui porque o parser a lê a cada nó
     public final int line;
 
+    // Trecho do token na fonte (literais incluem as aspas); offset -1 se desconhecido
+    public final int offset;
+    public final int length;
+
+    // Id do identificador no IdentifierPool do Lexer (-1 se não for identificador ou não foi internado)
+    public final int id;
+
+    // Quando a fonte continua disponível o lexema só é copiado se alguém pedir
+    private final Source source;
+    private String lexeme;
+
     public Token(TokenType type, String lexeme, int line) {
+        this(type, lexeme, line, -1, 0, -1);
+    }
+
+    public Token(TokenType type, String lexeme, int line, int offset, int length, int id) {
         this.type = type;
         this.lexeme = lexeme;
         this.line = line;
+        this.offset = offset;
+        this.length = length;
+        this.id = id;
+        this.source = null;
+    }
+
+    public Token(TokenType type, Source source, int line, int offset, int length, int id) {
+        this.type = type;
+        this.source = source;
+        this.line = line;
+        this.offset = offset;
+        this.length = length;
+        this.id = id;
+    }
+
+    public String lexeme() {
+        String text = lexeme;
+        if (text == null) {
+            text = lexemeOf(type, source, offset, offset + length);
+            lexeme = text;
+        }
+        return text;
+    }
+
+    // Primeiro caractere do trecho, sem copiar o lexema
+    char firstChar() {
+        return source != null ? source.charAt(offset) : lexeme.charAt(0);
+    }
+
+    // Lexema do token que ocupa [start, end) na fonte: literais ficam sem as aspas
+    static String lexemeOf(TokenType type, Source source, int start, int end) {
+        if (type == TokenType.STRING || type == TokenType.CHAR_CONST) {
+            return source.text(start + 1, end - 1);
+        }
+        return source.text(start, end);
     }
 
     @Override
     public String toString() {
-        return type + " '" + lexeme + "'";
+        return type + " '" + lexeme() + "'";
     }
 
 }
\ No newline at end of file
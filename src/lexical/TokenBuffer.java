@@ -0,0 +1,128 @@
+package lexical;
+
+import java.util.Arrays;
+
+// Sequência de tokens guardada em arrays paralelos (tipo, offset e tamanho):
+// 9 bytes por token, em vez de um objeto Token + String para cada um.
+// Os lexemas continuam na fonte e só são copiados quando alguém os pede; linha
+// e coluna saem do offset pela LineMap da fonte.
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Source source;
+    private final IdentifierPool identifiers;
+    private final LineMap lines;
+    private byte[] types;
+    private int[] offsets;
+    private int[] lengths;
+    private int size = 0;
+
+    TokenBuffer(Source source, IdentifierPool identifiers, LineMap lines) {
+        this(source, identifiers, lines, INITIAL_CAPACITY);
+    }
+
+    TokenBuffer(Source source, IdentifierPool identifiers, LineMap lines, int capacity) {
+        this.source = source;
+        this.identifiers = identifiers;
+        this.lines = lines;
+        types = new byte[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+    }
+
+    void add(TokenType type, int offset, int length) {
+        if (size == types.length) grow(size + 1);
+        types[size] = (byte) type.ordinal();
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    // Acrescenta os tokens [from, to) de outro buffer da mesma fonte
+    void append(TokenBuffer other, int from, int to) {
+        int count = to - from;
+        if (size + count > types.length) grow(size + count);
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.offsets, from, offsets, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        size += count;
+    }
+
+    private void grow(int minimum) {
+        int capacity = Math.max(minimum, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    // Pool que gerou os ids dos identificadores deste buffer
+    public IdentifierPool getIdentifierPool() {
+        return identifiers;
+    }
+
+    public LineMap getLineMap() {
+        return lines;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int offset(int index) {
+        return offsets[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    public int line(int index) {
+        return lines.line(offsets[index]);
+    }
+
+    public int column(int index) {
+        return lines.column(offsets[index]);
+    }
+
+    public String lexeme(int index) {
+        int offset = offsets[index];
+        return Token.lexemeOf(type(index), source, offset, offset + lengths[index]);
+    }
+
+    // Id do identificador na posição (ele já está no pool: a busca não aloca)
+    public int identifierId(int index) {
+        if (type(index) != TokenType.IDENTIFIER) return -1;
+        int offset = offsets[index];
+        return identifiers.intern(source, offset, offset + lengths[index]);
+    }
+
+    public Token token(int index) {
+        return token(index, line(index));
+    }
+
+    private Token token(int index, int line) {
+        return new Token(type(index), source, line, offsets[index], lengths[index], identifierId(index));
+    }
+
+    // Percorre o buffer do início; os Token entregues são temporários e
+    // só materializam o lexema se o Parser pedir (identificadores)
+    public TokenStream stream() {
+        return new TokenStream() {
+            private int index = 0;
+            private int line = 1;
+
+            @Override
+            public Token nextToken() {
+                line = lines.line(offsets[index], line); // em ordem: a linha só avança
+                Token token = token(index, line);
+                if (index < size - 1) index++;
+                return token;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package lexical;
+
+// Efeito de uma edição sobre a sequência de tokens: os tokens [from, from + removed)
+// antigos foram trocados pelos tokens [from, from + inserted) novos. Os tokens
+// antes de from não mudaram; os depois do trecho são os mesmos de antes,
+// deslocados (índice, offset e linha).
+public final class TokenEdit {
+    public final int from;
+    public final int removed;
+    public final int inserted;
+
+    // Quantas linhas a edição acrescentou (negativo se removeu linhas)
+    public final int lines;
+
+    TokenEdit(int from, int removed, int inserted, int lines) {
+        this.from = from;
+        this.removed = removed;
+        this.inserted = inserted;
+        this.lines = lines;
+    }
+
+    @Override
+    public String toString() {
+        return "tokens [" + from + ", " + (from + removed) + ") -> [" + from + ", " + (from + inserted) + "), "
+            + (lines >= 0 ? "+" : "") + lines + " linhas";
+    }
+}
\ No newline at end of file
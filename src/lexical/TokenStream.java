@@ -0,0 +1,23 @@
+package lexical;
+
+import java.util.List;
+
+// Sequência de tokens consumida sob demanda pelo Parser.
+// Depois do EOF, continua devolvendo EOF.
+public interface TokenStream {
+
+    Token nextToken();
+
+    static TokenStream of(List<Token> tokens) {
+        return new TokenStream() {
+            private int index = 0;
+
+            @Override
+            public Token nextToken() {
+                Token token = tokens.get(index);
+                if (index < tokens.size() - 1) index++;
+                return token;
+            }
+        };
+    }
+}
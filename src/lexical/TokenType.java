@@ -35,6 +35,10 @@ public enum TokenType {
     CHAR_CONST,
     STRING,
 
+    // Trecho que não forma token (caractere inesperado, string ou literal de
+    // caractere sem fechamento, comentário aberto até o fim do arquivo)
+    ERROR,
+
     // Fim de arquivo
     EOF
     }
\ No newline at end of file
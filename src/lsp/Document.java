@@ -0,0 +1,78 @@
+package lsp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+import lexical.LineMap;
+import sintatic.IncrementalParser;
+
+// Documento aberto no editor. generation é incrementada pela thread de E/S a
+// cada mudança recebida; o resto só é usado pela thread de análise.
+final class Document {
+    final String uri;
+    volatile int generation;
+
+    IncrementalParser parser;
+    ScheduledFuture<?> pendingPublish;
+
+    Document(String uri) {
+        this.uri = uri;
+    }
+
+    void open(String text) {
+        parser = new IncrementalParser(text);
+    }
+
+    // Aplica um item de contentChanges: com range é incremental, sem range troca o texto todo
+    @SuppressWarnings("unchecked")
+    void apply(Map<String, Object> change) {
+        String text = (String) change.get("text");
+        Map<String, Object> range = (Map<String, Object>) change.get("range");
+        int start = 0;
+        int end = parser.getLexer().textLength();
+        if (range != null) {
+            start = offset((Map<String, Object>) range.get("start"));
+            end = Math.max(start, offset((Map<String, Object>) range.get("end")));
+        }
+        parser.edit(start, end - start, text);
+    }
+
+    // Inícios de linha mantidos pelo léxico (posições do LSP são linha e coluna em
+    // UTF-16, as mesmas unidades dos offsets do texto; as linhas do LSP começam em 0)
+    private LineMap lines() {
+        return parser.getLexer().getLineMap();
+    }
+
+    private int lineEnd(int line) {
+        return line + 1 < lines().lineCount() ? lines().lineStart(line + 2) - 1 : parser.getLexer().textLength();
+    }
+
+    int offset(Map<String, Object> position) {
+        int line = ((Number) position.get("line")).intValue();
+        int character = ((Number) position.get("character")).intValue();
+        if (line >= lines().lineCount()) return parser.getLexer().textLength();
+        return Math.min(lines().lineStart(line + 1) + character, lineEnd(line));
+    }
+
+    Map<String, Object> position(int offset) {
+        offset = Math.min(offset, parser.getLexer().textLength());
+        Map<String, Object> position = new LinkedHashMap<>();
+        position.put("line", lines().line(offset) - 1);
+        position.put("character", lines().column(offset) - 1);
+        return position;
+    }
+
+    Map<String, Object> range(int start, int end) {
+        Map<String, Object> range = new LinkedHashMap<>();
+        range.put("start", position(start));
+        range.put("end", position(end));
+        return range;
+    }
+
+    // Linha inteira (numerada a partir de 1, como nos diagnósticos)
+    Map<String, Object> lineRange(int line) {
+        int index = Math.max(0, Math.min(line - 1, lines().lineCount() - 1));
+        return range(lines().lineStart(index + 1), lineEnd(index));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,274 @@
+package lsp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import diagnostic.Diagnostic;
+import semantic.Symbol;
+
+// Servidor de linguagem (LSP) sobre entrada e saída padrão. A thread de E/S só
+// lê e despacha mensagens; edições, hover e definição rodam em ordem numa única
+// thread de análise. Os diagnósticos são publicados depois de DEBOUNCE_MS sem
+// novas edições, e uma publicação é descartada se chegou edição mais nova.
+// Uso: java lsp.LanguageServer
+public final class LanguageServer {
+
+    public static final long DEBOUNCE_MS = 30;
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService analysis = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "analise");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean shutdown;
+
+    public LanguageServer(InputStream in, OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = new BufferedOutputStream(out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.exit(new LanguageServer(System.in, System.out).run());
+    }
+
+    // Atende mensagens até exit (ou fim da entrada); devolve o código de saída
+    @SuppressWarnings("unchecked")
+    public int run() throws IOException {
+        try {
+            String body;
+            while ((body = readMessage()) != null) {
+                Map<String, Object> message = (Map<String, Object>) Json.parse(body);
+                String method = (String) message.get("method");
+                if (method == null) continue; // resposta do cliente
+                if (method.equals("exit")) return shutdown ? 0 : 1;
+                dispatch(method, message.get("id"), (Map<String, Object>) message.get("params"));
+            }
+            return 1;
+        } finally {
+            analysis.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(String method, Object id, Map<String, Object> params) {
+        switch (method) {
+            case "initialize":
+                respond(id, capabilities());
+                break;
+            case "shutdown":
+                shutdown = true;
+                respond(id, null);
+                break;
+            case "textDocument/didOpen": {
+                Map<String, Object> item = (Map<String, Object>) params.get("textDocument");
+                Document document = new Document((String) item.get("uri"));
+                documents.put(document.uri, document);
+                String text = (String) item.get("text");
+                analyze(() -> {
+                    document.open(text);
+                    schedulePublish(document);
+                });
+                break;
+            }
+            case "textDocument/didChange": {
+                Document document = document(params);
+                if (document == null) break;
+                document.generation++;
+                List<Object> changes = (List<Object>) params.get("contentChanges");
+                analyze(() -> {
+                    for (Object change : changes) document.apply((Map<String, Object>) change);
+                    schedulePublish(document);
+                });
+                break;
+            }
+            case "textDocument/didClose": {
+                Document document = documents.remove(uri(params));
+                if (document == null) break;
+                document.generation++;
+                analyze(() -> {
+                    if (document.pendingPublish != null) document.pendingPublish.cancel(false);
+                    publish(document.uri, new ArrayList<>());
+                });
+                break;
+            }
+            case "textDocument/hover": {
+                Document document = document(params);
+                Map<String, Object> position = (Map<String, Object>) params.get("position");
+                analyze(() -> respond(id, document == null ? null : hover(document, position)));
+                break;
+            }
+            case "textDocument/definition": {
+                Document document = document(params);
+                Map<String, Object> position = (Map<String, Object>) params.get("position");
+                analyze(() -> respond(id, document == null ? null : definition(document, position)));
+                break;
+            }
+            default:
+                // Notificações desconhecidas são ignoradas; pedidos recebem erro
+                if (id != null) respondError(id, -32601, "Método não suportado: " + method);
+        }
+    }
+
+    private Map<String, Object> capabilities() {
+        Map<String, Object> sync = new LinkedHashMap<>();
+        sync.put("openClose", true);
+        sync.put("change", 2); // incremental
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        capabilities.put("textDocumentSync", sync);
+        capabilities.put("hoverProvider", true);
+        capabilities.put("definitionProvider", true);
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", "academic-recursive-descent-parser");
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("capabilities", capabilities);
+        result.put("serverInfo", info);
+        return result;
+    }
+
+    // Executa na thread de análise; um erro num pedido não derruba o servidor
+    private void analyze(Runnable task) {
+        analysis.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Erro na análise: " + e);
+            }
+        });
+    }
+
+    // Adia a publicação dos diagnósticos; cada edição nova cancela a anterior
+    private void schedulePublish(Document document) {
+        if (document.pendingPublish != null) document.pendingPublish.cancel(false);
+        int generation = document.generation;
+        document.pendingPublish = analysis.schedule(() -> {
+            if (document.generation != generation) return; // há edições mais novas na fila
+            List<Object> diagnostics = new ArrayList<>();
+            for (Diagnostic diagnostic : document.parser.getDiagnostics()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                // o trecho exato quando o diagnóstico o tem; senão a linha inteira
+                item.put("range", diagnostic.offset >= 0
+                    ? document.range(diagnostic.offset, diagnostic.offset + diagnostic.length)
+                    : document.lineRange(diagnostic.line));
+                item.put("severity", 1);
+                item.put("source", "parser");
+                item.put("message", diagnostic.kind + ": " + diagnostic.message);
+                diagnostics.add(item);
+            }
+            publish(document.uri, diagnostics);
+        }, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish(String uri, List<Object> diagnostics) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("uri", uri);
+        params.put("diagnostics", diagnostics);
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jsonrpc", "2.0");
+        message.put("method", "textDocument/publishDiagnostics");
+        message.put("params", params);
+        send(message);
+    }
+
+    private Map<String, Object> hover(Document document, Map<String, Object> position) {
+        int offset = document.offset(position);
+        Symbol symbol = document.parser.symbolAt(offset);
+        if (symbol == null) return null;
+        Map<String, Object> contents = new LinkedHashMap<>();
+        contents.put("kind", "plaintext");
+        contents.put("value", symbol.getName() + ": " + symbol.getType());
+        Map<String, Object> hover = new LinkedHashMap<>();
+        hover.put("contents", contents);
+        return hover;
+    }
+
+    private Map<String, Object> definition(Document document, Map<String, Object> position) {
+        Symbol symbol = document.parser.symbolAt(document.offset(position));
+        if (symbol == null || symbol.offset < 0) return null;
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("uri", document.uri);
+        location.put("range", document.range(symbol.offset, symbol.offset + symbol.getName().length()));
+        return location;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String uri(Map<String, Object> params) {
+        return (String) ((Map<String, Object>) params.get("textDocument")).get("uri");
+    }
+
+    private Document document(Map<String, Object> params) {
+        return documents.get(uri(params));
+    }
+
+    private void respond(Object id, Object result) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jsonrpc", "2.0");
+        message.put("id", id);
+        message.put("result", result);
+        send(message);
+    }
+
+    private void respondError(Object id, int code, String text) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("message", text);
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jsonrpc", "2.0");
+        message.put("id", id);
+        message.put("error", error);
+        send(message);
+    }
+
+    // Chamado pelas duas threads; cada mensagem sai inteira
+    private void send(Map<String, Object> message) {
+        byte[] body = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        synchronized (out) {
+            try {
+                out.write(("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(body);
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("Erro ao escrever resposta: " + e);
+            }
+        }
+    }
+
+    // Lê o próximo corpo enquadrado por Content-Length; null no fim da entrada
+    private String readMessage() throws IOException {
+        int length = -1;
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int c = in.read();
+            if (c < 0) return null;
+            if (c == '\r') continue;
+            if (c != '\n') {
+                line.append((char) c);
+                continue;
+            }
+            if (line.length() == 0) break; // fim do cabeçalho
+            String header = line.toString();
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                length = Integer.parseInt(header.substring(15).trim());
+            }
+            line.setLength(0);
+        }
+        if (length < 0) throw new IOException("Mensagem sem Content-Length");
+        byte[] body = in.readNBytes(length);
+        if (body.length < length) return null;
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
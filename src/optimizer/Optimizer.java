@@ -0,0 +1,478 @@
+package optimizer;
+
+import java.util.Arrays;
+
+import ast.Ast;
+import ast.NodeKind;
+import lexical.TokenType;
+import semantic.Symbol;
+import semantic.TypeKind;
+
+// Otimiza a Ast de um programa sem erros, reescrevendo os nós no lugar:
+//  - calcula subexpressões aritméticas, relacionais e lógicas constantes;
+//  - propaga constantes pelas atribuições (uma variável com valor conhecido
+//    no ponto de uso vira esse valor);
+//  - remove ramos de if e laços while cujas condições viram constantes, e
+//    troca por um bloco o repeat cujo until é sempre verdadeiro.
+// As três coisas são feitas numa única passada em ordem de execução, porque uma
+// alimenta a outra: a propagação cria constantes para o cálculo, que decide as
+// condições, que determinam quais atribuições alcançam o resto do programa.
+// Os valores seguem a semântica da VM e do JvmCompiler (int de 32 bits, variáveis
+// começam em zero); divisões inteiras por zero ficam para o erro de execução.
+public final class Optimizer {
+    private final Ast ast;
+    private final Report report = new Report();
+
+    // Valor conhecido de cada símbolo (bits do double para float)
+    private final boolean[] known;
+    private final long[] values;
+
+    // Desfazer: estado anterior de cada mudança em known/values
+    private int[] trailSymbols = new int[64];
+    private boolean[] trailKnown = new boolean[64];
+    private long[] trailValues = new long[64];
+    private int trailSize = 0;
+
+    // Marcas para achar os símbolos distintos alterados num trecho
+    private final int[] seenThen;
+    private final int[] seenElse;
+    private int stamp = 0;
+
+    private Optimizer(Ast ast) {
+        this.ast = ast;
+        int symbols = ast.symbols().size();
+        this.known = new boolean[symbols];
+        this.values = new long[symbols];
+        this.seenThen = new int[symbols];
+        this.seenElse = new int[symbols];
+    }
+
+    public static Report optimize(Ast ast) {
+        Optimizer optimizer = new Optimizer(ast);
+        int root = ast.root();
+        optimizer.report.nodesBefore = optimizer.count(root);
+        optimizer.declarations(ast.first(root));
+        ast.setSecond(root, optimizer.statements(ast.second(root)));
+        optimizer.report.nodesAfter = optimizer.count(root);
+        return optimizer.report;
+    }
+
+    // ---- comandos ----
+
+    private void declarations(int decl) {
+        for (int node = decl; node != Ast.NONE; node = ast.next(node)) {
+            set(ast.symbol(node).index, 0);
+        }
+    }
+
+    // Otimiza uma lista de comandos e devolve o novo início (comandos removidos saem da lista)
+    private int statements(int stmt) {
+        int head = Ast.NONE;
+        int tail = Ast.NONE;
+        int node = stmt;
+        while (node != Ast.NONE) {
+            int next = ast.next(node);
+            int kept = statement(node);
+            if (kept != Ast.NONE) {
+                if (head == Ast.NONE) head = kept;
+                else ast.setNext(tail, kept);
+                tail = kept;
+            }
+            node = next;
+        }
+        if (tail != Ast.NONE) ast.setNext(tail, Ast.NONE);
+        return head;
+    }
+
+    private void block(int block) {
+        declarations(ast.first(block));
+        ast.setSecond(block, statements(ast.second(block)));
+    }
+
+    // Devolve o comando (talvez transformado em BLOCK) ou NONE se ele foi removido
+    private int statement(int node) {
+        switch (ast.kind(node)) {
+            case BLOCK:
+                block(node);
+                return node;
+
+            case ASSIGN: {
+                Symbol symbol = ast.symbol(node);
+                int value = ast.first(node);
+                expression(value);
+                if (isConstant(value)) {
+                    set(symbol.index, convert(value, symbol.getType()));
+                } else {
+                    kill(symbol.index);
+                }
+                return node;
+            }
+
+            case READ:
+                kill(ast.symbol(node).index);
+                return node;
+
+            case WRITE:
+                if (ast.kind(ast.first(node)) != NodeKind.STRING) expression(ast.first(node));
+                return node;
+
+            case IF:
+                return ifStatement(node);
+
+            case WHILE: {
+                // O que o corpo atribui não é conhecido na entrada de uma volta qualquer
+                killAssigned(ast.second(node));
+                int condition = ast.first(node);
+                expression(condition);
+                if (isConstant(condition) && ast.value(condition) == 0) {
+                    report.removedLoops++;
+                    report.eliminated(ast.line(node), "while com condição sempre falsa removido");
+                    return Ast.NONE;
+                }
+                int mark = trailSize;
+                block(ast.second(node));
+                undo(mark);
+                return node;
+            }
+
+            case REPEAT: {
+                // Analisado uma vez com o que o corpo atribui desconhecido: o estado
+                // ao fim do corpo vale para toda volta, inclusive a última
+                int body = ast.second(node);
+                killAssigned(body);
+                block(body);
+                int condition = ast.first(node);
+                expression(condition);
+                if (isConstant(condition) && ast.value(condition) != 0) {
+                    report.removedLoops++;
+                    report.eliminated(ast.line(node), "repeat com until sempre verdadeiro executa uma vez: laço removido");
+                    toBlock(node, body);
+                }
+                return node;
+            }
+
+            default:
+                throw new IllegalStateException("Comando inesperado: " + ast.kind(node));
+        }
+    }
+
+    private int ifStatement(int node) {
+        int condition = ast.first(node);
+        int thenBlock = ast.second(node);
+        int elseBlock = ast.third(node);
+        expression(condition);
+
+        if (isConstant(condition)) {
+            int line = ast.line(node);
+            if (ast.value(condition) != 0) {
+                if (elseBlock != Ast.NONE) {
+                    report.removedBranches++;
+                    report.eliminated(line, "if com condição sempre verdadeira: else removido");
+                } else {
+                    report.eliminated(line, "if com condição sempre verdadeira: teste removido");
+                }
+                toBlock(node, thenBlock);
+            } else if (elseBlock != Ast.NONE) {
+                report.removedBranches++;
+                report.eliminated(line, "if com condição sempre falsa: then removido");
+                toBlock(node, elseBlock);
+            } else {
+                report.removedBranches++;
+                report.eliminated(line, "if com condição sempre falsa removido");
+                return Ast.NONE;
+            }
+            block(node);
+            return node;
+        }
+
+        // Depois do if só continua conhecido o que os dois ramos deixam com o mesmo valor.
+        // (ifs aninhados no else reaproveitam seenThen; no pior caso isso só descarta
+        // um valor a mais)
+        int mark = trailSize;
+        block(thenBlock);
+        int ifStamp = ++stamp;
+        int changed = 0;
+        int[] symbols = new int[trailSize - mark];
+        boolean[] thenKnown = new boolean[symbols.length];
+        long[] thenValues = new long[symbols.length];
+        for (int i = mark; i < trailSize; i++) {
+            int symbol = trailSymbols[i];
+            if (seenThen[symbol] == ifStamp) continue;
+            seenThen[symbol] = ifStamp;
+            symbols[changed] = symbol;
+            thenKnown[changed] = known[symbol];
+            thenValues[changed] = values[symbol];
+            changed++;
+        }
+        undo(mark);
+
+        if (elseBlock != Ast.NONE) block(elseBlock);
+        int elseEnd = trailSize;
+        for (int i = mark; i < elseEnd; i++) {
+            int symbol = trailSymbols[i];
+            seenElse[symbol] = ifStamp;
+            if (seenThen[symbol] != ifStamp) kill(symbol);
+        }
+        for (int i = 0; i < changed; i++) {
+            int symbol = symbols[i];
+            boolean same = seenElse[symbol] == ifStamp && thenKnown[i] && known[symbol]
+                && values[symbol] == thenValues[i];
+            if (!same) kill(symbol);
+        }
+        return node;
+    }
+
+    // Transforma o comando num BLOCK com as declarações e comandos de block
+    private void toBlock(int node, int block) {
+        ast.setKind(node, NodeKind.BLOCK);
+        ast.setFirst(node, ast.first(block));
+        ast.setSecond(node, ast.second(block));
+        ast.setThird(node, Ast.NONE);
+    }
+
+    // Esquece o valor de toda variável atribuída ou lida dentro do trecho
+    private void killAssigned(int node) {
+        for (int n = node; n != Ast.NONE; n = ast.next(n)) {
+            switch (ast.kind(n)) {
+                case ASSIGN:
+                case READ:
+                    kill(ast.symbol(n).index);
+                    break;
+                case BLOCK:
+                    killAssigned(ast.second(n));
+                    break;
+                case IF:
+                    killAssigned(ast.second(n));
+                    if (ast.third(n) != Ast.NONE) killAssigned(ast.third(n));
+                    break;
+                case WHILE:
+                case REPEAT:
+                    killAssigned(ast.second(n));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // ---- expressões ----
+
+    private void expression(int node) {
+        switch (ast.kind(node)) {
+            case VAR: {
+                Symbol symbol = ast.symbol(node);
+                if (known[symbol.index]) {
+                    report.propagated++;
+                    constant(node, symbol.getType(), values[symbol.index]);
+                }
+                break;
+            }
+            case UNARY:
+                unary(node);
+                break;
+            case BINARY:
+                binary(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void unary(int node) {
+        int operand = ast.first(node);
+        expression(operand);
+        if (!isConstant(operand)) return;
+
+        TypeKind type = ast.type(node);
+        report.folded++;
+        if (ast.op(node) == TokenType.NOT) {
+            constant(node, TypeKind.BOOLEAN, ast.value(operand) == 0 ? 1 : 0);
+        } else if (type == TypeKind.FLOAT) {
+            constant(node, type, Double.doubleToRawLongBits(-ast.floatValue(operand)));
+        } else {
+            constant(node, type, -ast.intValue(operand));
+        }
+    }
+
+    private void binary(int node) {
+        TokenType op = ast.op(node);
+        int left = ast.first(node);
+        int right = ast.second(node);
+        expression(left);
+
+        // Curto-circuito: só o lado esquerdo constante já decide (o direito não tem efeitos
+        // além de um possível erro, que o curto-circuito também evitaria)
+        if (op == TokenType.AND || op == TokenType.OR) {
+            if (isConstant(left)) {
+                boolean value = ast.value(left) != 0;
+                report.folded++;
+                if (value == (op == TokenType.OR)) {
+                    constant(node, TypeKind.BOOLEAN, value ? 1 : 0);
+                } else {
+                    expression(right);
+                    replace(node, right);
+                }
+                return;
+            }
+            expression(right);
+            return;
+        }
+
+        expression(right);
+        if (!isConstant(left) || !isConstant(right)) return;
+
+        TypeKind type = ast.type(node);
+        boolean floating = ast.type(left) == TypeKind.FLOAT || ast.type(right) == TypeKind.FLOAT;
+        long result;
+        switch (op) {
+            case PLUS:
+            case MINUS:
+            case STAR:
+            case SLASH:
+                if (type == TypeKind.FLOAT) {
+                    double a = asDouble(left);
+                    double b = asDouble(right);
+                    double value = op == TokenType.PLUS ? a + b : op == TokenType.MINUS ? a - b
+                                 : op == TokenType.STAR ? a * b : a / b;
+                    result = Double.doubleToRawLongBits(value);
+                } else {
+                    int a = ast.intValue(left);
+                    int b = ast.intValue(right);
+                    if (op == TokenType.SLASH && b == 0) return;  // erro de execução
+                    result = op == TokenType.PLUS ? a + b : op == TokenType.MINUS ? a - b
+                           : op == TokenType.STAR ? a * b : a / b;
+                }
+                break;
+            default:
+                result = compare(op, left, right, floating) ? 1 : 0;
+                break;
+        }
+        report.folded++;
+        constant(node, type, result);
+    }
+
+    private boolean compare(TokenType op, int left, int right, boolean floating) {
+        if (floating) {
+            double a = asDouble(left);
+            double b = asDouble(right);
+            switch (op) {
+                case EQ: return a == b;
+                case NEQ: return a != b;
+                case GT: return a > b;
+                case GE: return a >= b;
+                case LT: return a < b;
+                default: return a <= b;
+            }
+        }
+        int a = ast.intValue(left);
+        int b = ast.intValue(right);
+        switch (op) {
+            case EQ: return a == b;
+            case NEQ: return a != b;
+            case GT: return a > b;
+            case GE: return a >= b;
+            case LT: return a < b;
+            default: return a <= b;
+        }
+    }
+
+    private boolean isConstant(int node) {
+        switch (ast.kind(node)) {
+            case INT_CONST:
+            case FLOAT_CONST:
+            case CHAR_CONST:
+            case BOOL_CONST:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private double asDouble(int node) {
+        return ast.kind(node) == NodeKind.FLOAT_CONST ? ast.floatValue(node) : ast.intValue(node);
+    }
+
+    // Valor da constante convertido para o tipo da variável, como numa atribuição
+    private long convert(int node, TypeKind type) {
+        boolean floating = ast.kind(node) == NodeKind.FLOAT_CONST;
+        if (type == TypeKind.FLOAT) {
+            return floating ? ast.value(node) : Double.doubleToRawLongBits(ast.intValue(node));
+        }
+        int value = floating ? (int) ast.floatValue(node) : ast.intValue(node);
+        if (type == TypeKind.CHAR && ast.type(node) != TypeKind.CHAR) value = (char) value;
+        return value;
+    }
+
+    // Transforma o nó numa constante do tipo dado
+    private void constant(int node, TypeKind type, long value) {
+        NodeKind kind;
+        switch (type) {
+            case FLOAT: kind = NodeKind.FLOAT_CONST; break;
+            case CHAR: kind = NodeKind.CHAR_CONST; break;
+            case BOOLEAN: kind = NodeKind.BOOL_CONST; break;
+            default: kind = NodeKind.INT_CONST; break;
+        }
+        ast.setKind(node, kind);
+        ast.setType(node, type);
+        ast.setValue(node, type == TypeKind.FLOAT ? value : (int) value);
+        ast.setFirst(node, Ast.NONE);
+        ast.setSecond(node, Ast.NONE);
+    }
+
+    // Copia o nó source sobre node (usado para "true && x" -> x)
+    private void replace(int node, int source) {
+        ast.setKind(node, ast.kind(source));
+        ast.setType(node, ast.type(source));
+        ast.setOp(node, ast.op(source));
+        ast.setValue(node, ast.value(source));
+        ast.setFirst(node, ast.first(source));
+        ast.setSecond(node, ast.second(source));
+    }
+
+    // ---- valores conhecidos ----
+
+    private void set(int symbol, long value) {
+        record(symbol);
+        known[symbol] = true;
+        values[symbol] = value;
+    }
+
+    private void kill(int symbol) {
+        if (!known[symbol]) return;
+        record(symbol);
+        known[symbol] = false;
+    }
+
+    private void record(int symbol) {
+        if (trailSize == trailSymbols.length) {
+            int capacity = trailSize * 2;
+            trailSymbols = Arrays.copyOf(trailSymbols, capacity);
+            trailKnown = Arrays.copyOf(trailKnown, capacity);
+            trailValues = Arrays.copyOf(trailValues, capacity);
+        }
+        trailSymbols[trailSize] = symbol;
+        trailKnown[trailSize] = known[symbol];
+        trailValues[trailSize] = values[symbol];
+        trailSize++;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            int symbol = trailSymbols[trailSize];
+            known[symbol] = trailKnown[trailSize];
+            values[symbol] = trailValues[trailSize];
+        }
+    }
+
+    // ---- relatório ----
+
+    private int count(int node) {
+        int total = 0;
+        for (int n = node; n != Ast.NONE; n = ast.next(n)) {
+            total++;
+            total += count(ast.first(n)) + count(ast.second(n)) + count(ast.third(n));
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// O que o Optimizer fez: contagens e uma linha por eliminação, na ordem do programa.
+public final class Report {
+    int folded = 0;          // expressões reduzidas a constante
+    int propagated = 0;      // usos de variável trocados pelo valor conhecido
+    int removedBranches = 0; // ramos de if descartados
+    int removedLoops = 0;    // while nunca executados e repeat executados uma vez
+    int nodesBefore = 0;
+    int nodesAfter = 0;
+    private final List<String> eliminations = new ArrayList<>();
+
+    void eliminated(int line, String what) {
+        eliminations.add("Na linha " + line + ": " + what);
+    }
+
+    public int getFolded() {
+        return folded;
+    }
+
+    public int getPropagated() {
+        return propagated;
+    }
+
+    public int getRemovedBranches() {
+        return removedBranches;
+    }
+
+    public int getRemovedLoops() {
+        return removedLoops;
+    }
+
+    // Nós alcançáveis a partir da raiz, antes e depois da otimização
+    public int getNodesBefore() {
+        return nodesBefore;
+    }
+
+    public int getNodesAfter() {
+        return nodesAfter;
+    }
+
+    public List<String> getEliminations() {
+        return eliminations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append("Expressões constantes calculadas: ").append(folded).append('\n');
+        out.append("Variáveis substituídas por constantes: ").append(propagated).append('\n');
+        out.append("Ramos de if removidos: ").append(removedBranches).append('\n');
+        out.append("Laços removidos: ").append(removedLoops).append('\n');
+        out.append("Nós: ").append(nodesBefore).append(" -> ").append(nodesAfter).append('\n');
+        for (String elimination : eliminations) {
+            out.append(elimination).append('\n');
+        }
+        return out.toString();
+    }
+}
\ No newline at end of file
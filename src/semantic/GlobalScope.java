@@ -0,0 +1,15 @@
+package semantic;
+
+// Declarações globais de um programa, congeladas depois do cabeçalho: só leitura,
+// então várias SymbolTables (uma por thread) podem consultá-las ao mesmo tempo
+public final class GlobalScope {
+    private final Symbol[] symbols; // declaração de cada id (null: não é global)
+
+    GlobalScope(Symbol[] symbols) {
+        this.symbols = symbols;
+    }
+
+    public Symbol lookup(int id) {
+        return id >= 0 && id < symbols.length ? symbols[id] : null;
+    }
+}
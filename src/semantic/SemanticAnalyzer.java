@@ -0,0 +1,337 @@
+package semantic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import ast.Ast;
+import ast.NodeKind;
+import diagnostic.Diagnostic;
+import lexical.Token;
+import lexical.TokenType;
+
+// Análise semântica separada do Parser: refaz, sobre a Ast, as verificações que
+// ele deixou num SemanticLog (modo só sintático), com os mesmos resultados do
+// Parser que analisa e verifica junto: os nomes resolvidos e os tipos na árvore,
+// e os erros semânticos na mesma posição da lista de diagnósticos.
+// As declarações globais (o cabeçalho do programa) são verificadas primeiro e
+// congeladas num GlobalScope. Depois dele, entre dois comandos do programa só o
+// escopo global está aberto, então os comandos de nível mais alto, cada if, while
+// ou repeat com os escopos que abre, não dependem uns dos outros: são verificados
+// em pedaços, em paralelo num ForkJoinPool, cada um com sua SymbolTable sobre o
+// escopo congelado. Na junção, os símbolos locais entram na Ast na ordem da
+// fonte e os diagnósticos são intercalados com os do Parser.
+// Feito para o modo de recuperação (todos os diagnósticos de uma vez).
+public final class SemanticAnalyzer {
+    // Pedaços menores que isso (em verificações) não compensam a divisão
+    private static final int MIN_CHUNK = 1 << 13;
+    // Mais pedaços que threads, para uma thread que pegou um bloco grande não atrasar as outras
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final SemanticLog log;
+    private final Ast ast;
+    private final int threads;
+
+    private SymbolTable globals;
+    private long lookups;
+    private int maxScopeLevel;
+
+    public SemanticAnalyzer(SemanticLog log, int threads) {
+        this.log = log;
+        this.ast = log.ast;
+        this.threads = threads;
+    }
+
+    public SemanticAnalyzer(SemanticLog log) {
+        this(log, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Faz as verificações e devolve todos os diagnósticos, os do Parser e os
+    // semânticos, na ordem em que o Parser que verifica junto os daria
+    public List<Diagnostic> analyze() {
+        int header = 0;
+        while (header < log.size && (log.kinds[header] == SemanticLog.DECL || log.kinds[header] == SemanticLog.DECLARE)) {
+            header++;
+        }
+        globals = new SymbolTable(log.identifiers);
+        Checker first = new Checker(globals, 0, header);
+        first.run();
+        first.commit();
+
+        GlobalScope scope = globals.freeze();
+        int[] bounds = split(header);
+        Checker[] checkers = new Checker[bounds.length - 1];
+        for (int i = 0; i < checkers.length; i++) {
+            checkers[i] = new Checker(new SymbolTable(log.identifiers, scope), bounds[i], bounds[i + 1]);
+        }
+        run(checkers);
+
+        boolean redeclared = first.redeclared;
+        lookups = globals.getLookups();
+        maxScopeLevel = globals.getMaxScopeLevel();
+        for (Checker checker : checkers) {
+            checker.commit();
+            redeclared |= checker.redeclared;
+            lookups += checker.table.getLookups();
+            maxScopeLevel = Math.max(maxScopeLevel, checker.table.getMaxScopeLevel());
+        }
+        if (redeclared) dropRedeclarations();
+
+        List<Diagnostic> syntactic = log.syntactic;
+        List<Diagnostic> merged = new ArrayList<>(syntactic.size() + first.count);
+        int next = 0;
+        next = first.mergeInto(merged, next);
+        for (Checker checker : checkers) next = checker.mergeInto(merged, next);
+        while (next < syntactic.size()) merged.add(syntactic.get(next++));
+        return merged;
+    }
+
+    // Tabela com as declarações globais (depois de analyze)
+    public SymbolTable getSymbolTable() {
+        return globals;
+    }
+
+    // Somas das tabelas de todos os pedaços, para a instrumentação
+    public long getLookups() {
+        return lookups;
+    }
+
+    public int getMaxScopeLevel() {
+        return maxScopeLevel;
+    }
+
+    // Cortes nas verificações depois do cabeçalho: só na entrada de um bloco de
+    // nível mais alto ou logo depois da saída dele. Ali só o escopo global está
+    // aberto e nenhuma expressão está pela metade (os tipos de uma expressão são
+    // verificados do operando para o operador, no mesmo pedaço)
+    private int[] split(int header) {
+        int count = threads == 1 ? 1 : Math.max(1, Math.min(threads * CHUNKS_PER_THREAD, (log.size - header) / MIN_CHUNK));
+        int target = Math.max(1, (log.size - header) / count);
+        int[] bounds = new int[count + 1];
+        bounds[0] = header;
+        int used = 1;
+        int level = 1;
+        for (int i = header; i < log.size && used < count; i++) {
+            boolean block = log.kinds[i] == SemanticLog.ENTER || (i > header && log.kinds[i - 1] == SemanticLog.EXIT);
+            if (level == 1 && block && i - bounds[used - 1] >= target) bounds[used++] = i;
+            if (log.kinds[i] == SemanticLog.ENTER) level++;
+            else if (log.kinds[i] == SemanticLog.EXIT) level--;
+        }
+        bounds[used++] = log.size;
+        return used == bounds.length ? bounds : Arrays.copyOf(bounds, used);
+    }
+
+    private void run(Checker[] checkers) {
+        if (checkers.length == 1) {
+            checkers[0].run();
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(checkers.length);
+        for (Checker checker : checkers) tasks.add(ForkJoinTask.adapt(checker::run));
+        if (ForkJoinTask.inForkJoinPool()) {
+            // já numa thread de um pool (ex.: o do BatchAnalyzer): os pedaços entram nele
+            ForkJoinTask.invokeAll(tasks);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(ForkJoinTask.adapt(() -> {
+                ForkJoinTask.invokeAll(tasks);
+            }));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Tira das listas de declarações os nós DECL de nomes redeclarados (que ficaram
+    // sem símbolo), como se o Parser não os tivesse criado
+    private void dropRedeclarations() {
+        for (int node = 0; node < ast.size(); node++) {
+            if (ast.kind(node) != NodeKind.PROGRAM && ast.kind(node) != NodeKind.BLOCK) continue;
+            int head = Ast.NONE;
+            int tail = Ast.NONE;
+            for (int decl = ast.first(node); decl != Ast.NONE; decl = ast.next(decl)) {
+                if (ast.kind(decl) == NodeKind.DECL && ast.intValue(decl) == Ast.NONE) continue;
+                if (head == Ast.NONE) head = decl;
+                else ast.setNext(tail, decl);
+                tail = decl;
+            }
+            if (tail != Ast.NONE) ast.setNext(tail, Ast.NONE);
+            ast.setFirst(node, head);
+        }
+    }
+
+    private static boolean isRelational(TokenType op) {
+        return op == TokenType.EQ || op == TokenType.NEQ || op == TokenType.GT
+            || op == TokenType.GE || op == TokenType.LT || op == TokenType.LE;
+    }
+
+    // Verificações [from, to) do log com uma tabela própria. Só escreve nos tipos
+    // dos nós do seu trecho; os símbolos vão para a Ast depois, em commit, que
+    // roda na ordem dos pedaços (é ela que numera os símbolos)
+    private final class Checker {
+        final SymbolTable table;
+        final int from;
+        final int to;
+
+        // Erros semânticos e a verificação que deu cada um
+        Diagnostic[] diagnostics = new Diagnostic[8];
+        int[] checks = new int[8];
+        int count = 0;
+        boolean redeclared;
+
+        // Nós que referenciam ou declaram um símbolo, com o símbolo (na ordem do log)
+        int[] refNodes = new int[64];
+        Symbol[] refSymbols = new Symbol[64];
+        int refCount = 0;
+
+        Checker(SymbolTable table, int from, int to) {
+            this.table = table;
+            this.from = from;
+            this.to = to;
+        }
+
+        void run() {
+            Token colon = null;
+            for (int i = from; i < to; i++) {
+                int node = log.nodes[i];
+                Token token = log.tokens[i];
+                switch (log.kinds[i]) {
+                    case SemanticLog.ENTER:
+                        table.enterScope();
+                        break;
+
+                    case SemanticLog.EXIT:
+                        table.exitScope();
+                        break;
+
+                    case SemanticLog.DECL:
+                        colon = token;
+                        break;
+
+                    case SemanticLog.DECLARE: {
+                        int id = log.ids[i];
+                        Symbol symbol = new Symbol(log.identifiers.name(id), ast.type(node));
+                        symbol.offset = token.offset;
+                        if (!table.add(id, symbol)) {
+                            error(i, colon, "Redeclaração da variável '" + token.lexeme() + "'");
+                            redeclared = true;
+                            break;
+                        }
+                        refer(node, symbol);
+                        break;
+                    }
+
+                    case SemanticLog.ASSIGN: {
+                        Symbol symbol = table.lookup(log.ids[i]);
+                        if (symbol == null) error(i, token, "Variável '" + token.lexeme() + "' não declarada.");
+                        else if (node != Ast.NONE) refer(node, symbol);
+                        break;
+                    }
+
+                    case SemanticLog.READ: {
+                        Symbol symbol = table.lookup(log.ids[i]);
+                        if (symbol == null) error(i, token, "Identificador '" + token.lexeme() + "' não declarado.");
+                        else if (node != Ast.NONE) refer(node, symbol);
+                        break;
+                    }
+
+                    case SemanticLog.VAR: {
+                        Symbol symbol = table.lookup(log.ids[i]);
+                        if (symbol == null) {
+                            error(i, token, "Variável '" + token.lexeme() + "' não declarada.");
+                            break;
+                        }
+                        ast.setType(node, symbol.getType());
+                        refer(node, symbol);
+                        break;
+                    }
+
+                    case SemanticLog.BINARY:
+                        binary(i, node, token);
+                        break;
+
+                    case SemanticLog.UNARY:
+                        unary(i, node, token);
+                        break;
+
+                    case SemanticLog.CONDITION: {
+                        TypeKind type = ast.type(node);
+                        if (type != TypeKind.BOOLEAN && type != TypeKind.ERRO) {
+                            error(i, token, "Condição deve ser do tipo boolean, mas foi " + type);
+                        }
+                        break;
+                    }
+
+                    default:
+                        throw new IllegalStateException("Verificação desconhecida: " + log.kinds[i]);
+                }
+            }
+        }
+
+        private void binary(int check, int node, Token at) {
+            TokenType op = ast.op(node);
+            TypeKind left = ast.type(ast.first(node));
+            TypeKind right = ast.type(ast.second(node));
+            TypeKind type = TypeKind.binary(op, left, right);
+            if (type == null) error(check, at, TypeKind.binaryError(op, left, right));
+            if (isRelational(op)) type = TypeKind.BOOLEAN;
+            else if (type == null) type = TypeKind.ERRO;
+            ast.setType(node, type);
+        }
+
+        private void unary(int check, int node, Token at) {
+            TypeKind type = ast.type(ast.first(node));
+            if (ast.op(node) == TokenType.NOT) {
+                if (type != TypeKind.BOOLEAN && type != TypeKind.ERRO) {
+                    error(check, at, "Operador '!' exige tipo boolean.");
+                }
+                ast.setType(node, TypeKind.BOOLEAN);
+                return;
+            }
+            if (!type.isNumeric() && type != TypeKind.ERRO) {
+                error(check, at, "Operador unário '-' exige tipo numérico.");
+            }
+            ast.setType(node, type);
+        }
+
+        private void refer(int node, Symbol symbol) {
+            if (refCount == refNodes.length) {
+                refNodes = Arrays.copyOf(refNodes, refCount * 2);
+                refSymbols = Arrays.copyOf(refSymbols, refCount * 2);
+            }
+            refNodes[refCount] = node;
+            refSymbols[refCount++] = symbol;
+        }
+
+        private void error(int check, Token at, String message) {
+            if (count == diagnostics.length) {
+                diagnostics = Arrays.copyOf(diagnostics, count * 2);
+                checks = Arrays.copyOf(checks, count * 2);
+            }
+            diagnostics[count] = new Diagnostic(Diagnostic.Kind.SEMANTICO, at.line, at.offset, at.length, message);
+            checks[count++] = check;
+        }
+
+        // Registra os símbolos na Ast (cada um na primeira vez que aparece, como no
+        // Parser, que o registra ao declarar) e liga os nós a eles
+        void commit() {
+            for (int i = 0; i < refCount; i++) {
+                ast.setValue(refNodes[i], ast.symbolIndex(refSymbols[i]));
+            }
+        }
+
+        // Acrescenta cada erro depois dos diagnósticos que o Parser registrou antes
+        // da verificação dele; devolve quantos do Parser já entraram
+        int mergeInto(List<Diagnostic> merged, int next) {
+            List<Diagnostic> syntactic = log.syntactic;
+            for (int i = 0; i < count; i++) {
+                while (next < log.reportedCount && log.reported[next] <= checks[i]) merged.add(syntactic.get(next++));
+                merged.add(diagnostics[i]);
+            }
+            return next;
+        }
+    }
+}
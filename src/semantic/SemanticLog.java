@@ -0,0 +1,137 @@
+package semantic;
+
+import java.util.Arrays;
+import java.util.List;
+
+import ast.Ast;
+import diagnostic.Diagnostic;
+import lexical.IdentifierPool;
+import lexical.Token;
+
+// Verificações semânticas que o Parser, no modo só sintático, deixa para o
+// SemanticAnalyzer, na ordem em que ele mesmo as faria. Cada uma guarda o nó da
+// Ast e o token em que o erro seria reportado; para o erro entrar no mesmo lugar
+// da lista de diagnósticos, o log também anota em que ponto o Parser registrou
+// cada um dos seus. Entram ainda as aberturas e fechamentos de escopo e as
+// verificações de comandos que a recuperação descartou: os nós deles não estão
+// na árvore, mas os erros semânticos que eles tinham antes do erro sintático
+// continuam valendo.
+public final class SemanticLog {
+    static final byte ENTER = 0;      // abre um escopo
+    static final byte EXIT = 1;       // fecha o escopo
+    static final byte DECL = 2;       // declaração "tipo : nomes;" (token: o ":", onde se reporta redeclaração)
+    static final byte DECLARE = 3;    // nó DECL de um dos nomes da declaração anterior
+    static final byte ASSIGN = 4;     // nó ASSIGN (NONE se o comando foi descartado)
+    static final byte READ = 5;       // nó READ (idem)
+    static final byte VAR = 6;        // nó VAR de um fator
+    static final byte BINARY = 7;     // nó BINARY (token: o atual quando o operador foi reduzido)
+    static final byte UNARY = 8;      // nó UNARY (idem)
+    static final byte CONDITION = 9;  // expressão de if/while/until (token: o seguinte)
+
+    final Ast ast;
+    final IdentifierPool identifiers;
+    final List<Diagnostic> syntactic;
+
+    byte[] kinds = new byte[256];
+    int[] nodes = new int[256];
+    int[] ids = new int[256];        // id do nome em DECLARE, ASSIGN, READ e VAR
+    Token[] tokens = new Token[256]; // nos nomes, o próprio identificador
+    int size = 0;
+
+    // Quantas verificações havia quando cada diagnóstico do Parser foi registrado
+    int[] reported = new int[8];
+    int reportedCount = 0;
+
+    private int scopeLevel = 1;
+
+    // syntactic: a lista de diagnósticos do Parser, que ainda vai crescer (ver reported)
+    public SemanticLog(Ast ast, IdentifierPool identifiers, List<Diagnostic> syntactic) {
+        this.ast = ast;
+        this.identifiers = identifiers;
+        this.syntactic = syntactic;
+    }
+
+    public Ast getAst() {
+        return ast;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // O Parser acabou de acrescentar um diagnóstico à sua lista
+    public void reported() {
+        if (reportedCount == reported.length) reported = Arrays.copyOf(reported, reportedCount * 2);
+        reported[reportedCount++] = size;
+    }
+
+    public void enterScope() {
+        scopeLevel++;
+        add(ENTER, Ast.NONE, -1, null);
+    }
+
+    public void exitScope() {
+        scopeLevel--;
+        add(EXIT, Ast.NONE, -1, null);
+    }
+
+    // Nível que o escopo teria na SymbolTable (o global é o 1)
+    public int getScopeLevel() {
+        return scopeLevel;
+    }
+
+    public void declaration(Token colon) {
+        add(DECL, Ast.NONE, -1, colon);
+    }
+
+    public void declare(int node, int id, Token name) {
+        add(DECLARE, node, id, name);
+    }
+
+    // Os nós ASSIGN e READ só são criados depois do resto do comando: cada um é
+    // informado em setNode, com o índice devolvido aqui
+    public int assign(int id, Token name) {
+        return add(ASSIGN, Ast.NONE, id, name);
+    }
+
+    public int read(int id, Token name) {
+        return add(READ, Ast.NONE, id, name);
+    }
+
+    public void setNode(int check, int node) {
+        nodes[check] = node;
+    }
+
+    public void var(int node, int id, Token name) {
+        add(VAR, node, id, name);
+    }
+
+    public void binary(int node, Token at) {
+        add(BINARY, node, -1, at);
+    }
+
+    public void unary(int node, Token at) {
+        add(UNARY, node, -1, at);
+    }
+
+    public void condition(int node, Token at) {
+        add(CONDITION, node, -1, at);
+    }
+
+    private int add(byte kind, int node, int id, Token token) {
+        if (size == kinds.length) grow();
+        kinds[size] = kind;
+        nodes[size] = node;
+        ids[size] = id;
+        tokens[size] = token;
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = size * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        nodes = Arrays.copyOf(nodes, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        tokens = Arrays.copyOf(tokens, capacity);
+    }
+}
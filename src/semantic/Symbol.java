@@ -2,10 +2,19 @@ package semantic;
 
 public class Symbol {
     public String name;
-    public String type; // "int", "float", "char"
+    public TypeKind type; // INT, FLOAT ou CHAR
     public int scopeLevel;
 
-    public Symbol(String name, String type) {
+    // Posição do símbolo na lista da Ast (-1 enquanto não foi registrado)
+    public int index = -1;
+
+    // Offset do identificador na declaração (-1 se desconhecido)
+    public int offset = -1;
+
+    // Declaração do mesmo nome escondida por esta (escopo mais externo)
+    Symbol shadowed;
+
+    public Symbol(String name, TypeKind type) {
         this.name = name.toLowerCase(); // linguagem não é case-sensitive
         this.type = type;
     }
@@ -18,7 +27,7 @@ public class Symbol {
         return this.name;
     }
 
-    public String getType(){
+    public TypeKind getType(){
         return this.type;
     }
 }
\ No newline at end of file
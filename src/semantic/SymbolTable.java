@@ -1,41 +1,120 @@
 package semantic;
 
-import java.util.ArrayDeque;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import lexical.IdentifierPool;
+
+// Tabela de símbolos "plana" (LeBlanc-Cook): uma única tabela indexada pelo id
+// internado do identificador guarda a declaração visível de cada nome, e cada
+// Symbol aponta para a declaração que ele esconde. Um log com os ids declarados
+// em cada escopo permite desfazer o escopo inteiro em exitScope().
+// Assim lookup custa uma leitura de array, qualquer que seja a profundidade.
 public class SymbolTable {
-    private Deque<Map<String, Symbol>> scopes = new ArrayDeque<>();
+    private final IdentifierPool identifiers;
+    private Symbol[] visible = new Symbol[64];   // declaração visível de cada id
+    private int[] declared = new int[64];        // ids declarados, na ordem (log de desfazer)
+    private int declaredCount = 0;
+    private int[] scopeStart = new int[16];      // início de cada escopo no log
     private int scopeLevel = 0;
 
+    // Escopo global congelado de outra tabela, consultado quando o nome não está
+    // nesta (null: o escopo global é o desta tabela)
+    private final GlobalScope globals;
+
+    // Contadores para a instrumentação (um incremento de campo, sempre ligados)
+    private long lookups = 0;
+    private int maxScopeLevel = 0;
+
     public SymbolTable(){
-        this.scopes = new ArrayDeque<>();
+        this(new IdentifierPool());
+    }
+
+    // identifiers deve ser o mesmo pool que gerou os ids passados a add/lookup
+    public SymbolTable(IdentifierPool identifiers) {
+        this(identifiers, null);
+    }
+
+    // Tabela que já começa no escopo global, com as declarações de globals; nada
+    // deve ser declarado nele (só nos escopos abertos depois)
+    public SymbolTable(IdentifierPool identifiers, GlobalScope globals) {
+        this.identifiers = identifiers;
+        this.globals = globals;
         enterScope();
     }
     
     public void enterScope() {
-        scopes.push(new HashMap<>());
+        if (scopeLevel == scopeStart.length) scopeStart = Arrays.copyOf(scopeStart, scopeLevel * 2);
+        scopeStart[scopeLevel] = declaredCount;
         scopeLevel++;
+        if (scopeLevel > maxScopeLevel) maxScopeLevel = scopeLevel;
     }
 
     public void exitScope() {
-        scopes.pop();
         scopeLevel--;
+        int start = scopeStart[scopeLevel];
+        while (declaredCount > start) {
+            int id = declared[--declaredCount];
+            visible[id] = visible[id].shadowed;
+        }
     }
 
-    public boolean add(String name, Symbol symbol) {
-        Map<String, Symbol> currentScope = scopes.peek();
-        if (currentScope.containsKey(name)) return false;
+    public boolean add(int id, Symbol symbol) {
+        if (id >= visible.length) visible = Arrays.copyOf(visible, Math.max(id + 1, visible.length * 2));
+
+        Symbol previous = visible[id];
+        if (previous != null && previous.scopeLevel == scopeLevel) return false;
+
         symbol.SetcopeLevel(scopeLevel);
-        currentScope.put(name, symbol);
+        symbol.shadowed = previous;
+        visible[id] = symbol;
+
+        if (declaredCount == declared.length) declared = Arrays.copyOf(declared, declaredCount * 2);
+        declared[declaredCount++] = id;
         return true;
     }
 
+    public boolean add(String name, Symbol symbol) {
+        return add(identifiers.intern(name), symbol);
+    }
+
+    public Symbol lookup(int id) {
+        lookups++;
+        Symbol symbol = id >= 0 && id < visible.length ? visible[id] : null;
+        if (symbol == null && globals != null) symbol = globals.lookup(id);
+        return symbol; // null: símbolo não encontrado
+    }
+
     public Symbol lookup(String name) {
-        for (Map<String, Symbol> scope : scopes) {
-            if (scope.containsKey(name)) return scope.get(name);
-        }
-        return null; // símbolo não encontrado
+        return lookup(identifiers.find(name));
+    }
+
+    public int getScopeLevel() {
+        return scopeLevel;
+    }
+
+    // Declarações do escopo global, na ordem em que foram feitas. Para ser chamado
+    // com só o escopo global aberto (depois da análise de um programa), quando
+    // nenhuma delas está escondida.
+    public List<Symbol> getDeclared() {
+        List<Symbol> symbols = new ArrayList<>(declaredCount);
+        for (int i = 0; i < declaredCount; i++) symbols.add(visible[declared[i]]);
+        return symbols;
+    }
+
+    // Cópia só de leitura das declarações globais. Para ser chamado com só o escopo
+    // global aberto, como getDeclared
+    public GlobalScope freeze() {
+        return new GlobalScope(Arrays.copyOf(visible, visible.length));
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    // Maior nível de escopo já aberto (o global é o nível 1)
+    public int getMaxScopeLevel() {
+        return maxScopeLevel;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package semantic;
+
+import lexical.TokenType;
+
+// Tipos da linguagem. As regras de compatibilidade dos operadores binários
+// ficam pré-calculadas numa tabela [operador][esquerdo][direito], de modo que
+// verificar um operador é uma única leitura de array.
+public enum TypeKind {
+    INT("int"),
+    FLOAT("float"),
+    CHAR("char"),
+    BOOLEAN("boolean"),
+    STRING("string"),
+    ERRO("erro");
+
+    private final String name;
+
+    TypeKind(String name) {
+        this.name = name;
+    }
+
+    private static final TypeKind[] KINDS = values();
+
+    // Tipo resultante de "esquerdo op direito"; null quando os tipos são incompatíveis
+    private static final TypeKind[][][] BINARY = new TypeKind[TokenType.values().length][][];
+
+    static {
+        TokenType[] operators = {
+            TokenType.PLUS, TokenType.MINUS, TokenType.STAR, TokenType.SLASH,
+            TokenType.OR, TokenType.AND,
+            TokenType.EQ, TokenType.NEQ, TokenType.GT, TokenType.GE, TokenType.LT, TokenType.LE
+        };
+        for (TokenType op : operators) {
+            BINARY[op.ordinal()] = table(op);
+        }
+    }
+
+    private static TypeKind[][] table(TokenType op) {
+        TypeKind[][] table = new TypeKind[KINDS.length][KINDS.length];
+        for (TypeKind left : KINDS) {
+            for (TypeKind right : KINDS) {
+                table[left.ordinal()][right.ordinal()] = rule(op, left, right);
+            }
+        }
+        return table;
+    }
+
+    // Regras da linguagem, usadas só para montar as tabelas
+    private static TypeKind rule(TokenType op, TypeKind t1, TypeKind t2) {
+        // Um operando com erro já foi reportado: propaga sem acusar outro erro
+        if (t1 == ERRO || t2 == ERRO) return ERRO;
+
+        switch (op) {
+            case OR:
+            case AND:
+                return t1 == BOOLEAN && t2 == BOOLEAN ? BOOLEAN : null;
+
+            case EQ:
+            case NEQ:
+                // Comparação de igualdade aceita mais tipos: iguais ou ambos numéricos/char
+                if (t1 == t2) return BOOLEAN;
+                return t1.isNumeric() && t2.isNumeric() ? BOOLEAN : null;
+
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+                // Para <, >, <=, >=: só numéricos e char
+                return t1.isNumeric() && t2.isNumeric() ? BOOLEAN : null;
+
+            default:
+                // Aritméticos: int/float entre si e int com char
+                boolean compatible =
+                    (t1 == FLOAT || t1 == INT) && (t2 == FLOAT || t2 == INT)
+                    || (t1 == INT && t2 == CHAR) || (t1 == CHAR && t2 == INT);
+                if (!compatible) return null;
+                return t1 == FLOAT || t2 == FLOAT ? FLOAT : INT;
+        }
+    }
+
+    // Tipo de "left op right", ou null se o operador não aceita esses tipos
+    public static TypeKind binary(TokenType op, TypeKind left, TypeKind right) {
+        return BINARY[op.ordinal()][left.ordinal()][right.ordinal()];
+    }
+
+    // Mensagem do erro de "left op right" quando binary devolve null. Fica aqui,
+    // junto da regra, para o Parser, o TableParser e o SemanticAnalyzer darem o
+    // mesmo diagnóstico
+    public static String binaryError(TokenType op, TypeKind left, TypeKind right) {
+        String types = left + " e " + right;
+        switch (op) {
+            case OR:
+                return "Tipos incompatíveis para operador ||: " + types;
+            case AND:
+                return "Tipos incompatíveis para operador &&: " + types;
+            case STAR:
+            case SLASH:
+                return "Tipos incompatíveis para operador " + op + ": " + types;
+            case PLUS:
+            case MINUS:
+                return "Tipos incompatíveis em expressão aritmética: " + types;
+            default:
+                return "Tipos incompatíveis em expressão relacional: " + types;
+        }
+    }
+
+    public static TypeKind of(TokenType type) {
+        switch (type) {
+            case INT: return INT;
+            case FLOAT: return FLOAT;
+            case CHAR: return CHAR;
+            default: return null;
+        }
+    }
+
+    public boolean isNumeric() {
+        return this == INT || this == FLOAT || this == CHAR;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,382 @@
+package sintatic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lexical.TokenType;
+
+// Gramática LL(1) lida de um texto no formato dos comentários do Parser, com os
+// conjuntos FIRST e FOLLOW e a tabela de análise [não-terminal][TokenType].
+//
+//   nome ::= alternativa | alternativa      (ε é a alternativa vazia)
+//
+// Nas alternativas, nomes em maiúsculas são TokenTypes e os demais são
+// não-terminais; @acao marca uma ação semântica, executada quando chega ao topo
+// da pilha. TERMINAL? é esperado, mas no modo de recuperação a falta dele só é
+// registrada (como o expect do Parser); nome! é um ponto de recuperação: um erro
+// dentro dele descarta o que falta e sincroniza nos tokens de %sync (ou, sem
+// %sync, no FOLLOW do não-terminal). Diretivas:
+//   %otherwise nome itens...   o que fazer quando o token não está na tabela
+//                               (sem ela: a alternativa única ou a vazia, se houver)
+//   %error nome mensagem       erro quando não há alternativa ($ vira o token atual)
+//   %sync nome TOKENS          tokens de sincronização (TOKEN! é consumido)
+//   %nest nome ABRE... / FECHA...  blocos aninhados que a sincronização de nome atravessa
+// Conflitos na tabela ficam com a alternativa escrita primeiro e são listados em conflicts().
+final class Grammar {
+    static final int TERMINAL = 0;
+    static final int LENIENT = 1;
+    static final int NONTERMINAL = 2;
+    static final int RECOVERY = 3;
+    static final int ACTION = 4;
+    static final int RECOVERED = 5;        // fim de um ponto de recuperação (só na pilha de análise)
+
+    private static final TokenType[] TOKENS = TokenType.values();
+
+    private final List<String> nonterminals = new ArrayList<>();
+    private final Map<String, Integer> nonterminalIndex = new HashMap<>();
+    private final List<String> actions = new ArrayList<>();
+    private final Map<String, Integer> actionIndex = new HashMap<>();
+
+    private final List<Integer> lhs = new ArrayList<>();
+    private final List<int[]> rhs = new ArrayList<>();
+    private int[][] productions;           // rhs em array, para a análise
+    private int analyzed;                  // produções até aqui entram na tabela; depois vêm as de %otherwise
+
+    private BitSet[] first;
+    private BitSet[] follow;
+    private boolean[] nullable;
+    private int[] table;                   // [não-terminal * TOKENS.length + ordinal] -> produção ou -1
+    private int[] otherwise;               // produção usada quando não há entrada na tabela (-1: erro)
+    private String[] errors;
+    private BitSet[] sync;
+    private BitSet[] consumed;
+    private BitSet[] openers;
+    private BitSet[] closers;
+    private final List<String> conflicts = new ArrayList<>();
+
+    Grammar(String text) {
+        List<String[]> directives = new ArrayList<>();
+        List<String[]> rules = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) continue;
+            String[] words = trimmed.split("\\s+");
+            if (words[0].startsWith("%")) {
+                directives.add(words);
+            } else {
+                if (words.length < 2 || !words[1].equals("::=")) throw new IllegalArgumentException("Regra inválida: " + line);
+                nonterminal(words[0]);
+                rules.add(words);
+            }
+        }
+
+        for (String[] words : rules) {
+            int left = nonterminalIndex.get(words[0]);
+            List<Integer> items = new ArrayList<>();
+            for (int i = 2; i <= words.length; i++) {
+                if (i == words.length || words[i].equals("|")) {
+                    addProduction(left, items);
+                    items.clear();
+                } else if (!words[i].equals("ε")) {
+                    items.add(item(words[i]));
+                }
+            }
+        }
+        analyzed = rhs.size();
+
+        int count = nonterminals.size();
+        otherwise = new int[count];
+        Arrays.fill(otherwise, -1);
+        errors = new String[count];
+        sync = new BitSet[count];
+        consumed = new BitSet[count];
+        openers = new BitSet[count];
+        closers = new BitSet[count];
+        for (String[] words : directives) directive(words);
+
+        computeFirst();
+        computeFollow();
+        buildTable();
+        productions = rhs.toArray(new int[0][]);
+    }
+
+    private void directive(String[] words) {
+        switch (words[0]) {
+            case "%otherwise": {
+                List<Integer> items = new ArrayList<>();
+                for (int i = 2; i < words.length; i++) items.add(item(words[i]));
+                otherwise[existing(words[1])] = addProduction(existing(words[1]), items);
+                break;
+            }
+            case "%error":
+                errors[existing(words[1])] = String.join(" ", Arrays.copyOfRange(words, 2, words.length));
+                break;
+            case "%sync": {
+                int nonterminal = existing(words[1]);
+                sync[nonterminal] = new BitSet();
+                consumed[nonterminal] = new BitSet();
+                for (int i = 2; i < words.length; i++) {
+                    boolean consume = words[i].endsWith("!");
+                    int token = TokenType.valueOf(consume ? words[i].substring(0, words[i].length() - 1) : words[i]).ordinal();
+                    sync[nonterminal].set(token);
+                    if (consume) consumed[nonterminal].set(token);
+                }
+                break;
+            }
+            case "%nest": {
+                int nonterminal = existing(words[1]);
+                openers[nonterminal] = new BitSet();
+                closers[nonterminal] = new BitSet();
+                BitSet target = openers[nonterminal];
+                for (int i = 2; i < words.length; i++) {
+                    if (words[i].equals("/")) target = closers[nonterminal];
+                    else target.set(TokenType.valueOf(words[i]).ordinal());
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Diretiva desconhecida: " + words[0]);
+        }
+    }
+
+    private int nonterminal(String name) {
+        Integer index = nonterminalIndex.get(name);
+        if (index != null) return index;
+        nonterminals.add(name);
+        nonterminalIndex.put(name, nonterminals.size() - 1);
+        return nonterminals.size() - 1;
+    }
+
+    int existing(String name) {
+        Integer index = nonterminalIndex.get(name);
+        if (index == null) throw new IllegalArgumentException("Não-terminal sem regra: " + name);
+        return index;
+    }
+
+    private int item(String word) {
+        if (word.startsWith("@")) {
+            String name = word.substring(1);
+            Integer index = actionIndex.get(name);
+            if (index == null) {
+                actions.add(name);
+                index = actions.size() - 1;
+                actionIndex.put(name, index);
+            }
+            return item(ACTION, index);
+        }
+        if (Character.isUpperCase(word.charAt(0))) {
+            boolean lenient = word.endsWith("?");
+            TokenType type = TokenType.valueOf(lenient ? word.substring(0, word.length() - 1) : word);
+            return item(lenient ? LENIENT : TERMINAL, type.ordinal());
+        }
+        boolean recovery = word.endsWith("!");
+        int index = existing(recovery ? word.substring(0, word.length() - 1) : word);
+        return item(recovery ? RECOVERY : NONTERMINAL, index);
+    }
+
+    private int addProduction(int left, List<Integer> items) {
+        lhs.add(left);
+        int[] encoded = new int[items.size()];
+        for (int i = 0; i < encoded.length; i++) encoded[i] = items.get(i);
+        rhs.add(encoded);
+        return rhs.size() - 1;
+    }
+
+    // Item de uma produção: tipo nos bits altos, índice (TokenType, não-terminal ou ação) nos baixos
+    static int item(int kind, int index) {
+        return kind << 24 | index;
+    }
+
+    static int kind(int item) {
+        return item >>> 24;
+    }
+
+    static int index(int item) {
+        return item & 0xFFFFFF;
+    }
+
+    // FIRST e anuláveis por ponto fixo; ações não consomem tokens
+    private void computeFirst() {
+        int count = nonterminals.size();
+        first = new BitSet[count];
+        nullable = new boolean[count];
+        for (int i = 0; i < count; i++) first[i] = new BitSet();
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < analyzed; p++) {
+                int left = lhs.get(p);
+                BitSet set = new BitSet();
+                boolean empty = firstOf(rhs.get(p), 0, set);
+                int before = first[left].cardinality();
+                first[left].or(set);
+                if (first[left].cardinality() != before || (empty && !nullable[left])) changed = true;
+                if (empty) nullable[left] = true;
+            }
+        }
+    }
+
+    // Acrescenta a set o FIRST de items[from..]; devolve se essa sequência é anulável
+    private boolean firstOf(int[] items, int from, BitSet set) {
+        for (int i = from; i < items.length; i++) {
+            int item = items[i];
+            switch (kind(item)) {
+                case TERMINAL:
+                case LENIENT:
+                    set.set(index(item));
+                    return false;
+                case NONTERMINAL:
+                case RECOVERY:
+                    set.or(first[index(item)]);
+                    if (!nullable[index(item)]) return false;
+                    break;
+                default:
+                    break; // ação
+            }
+        }
+        return true;
+    }
+
+    private void computeFollow() {
+        int count = nonterminals.size();
+        follow = new BitSet[count];
+        for (int i = 0; i < count; i++) follow[i] = new BitSet();
+        follow[0].set(TokenType.EOF.ordinal());
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < analyzed; p++) {
+                int[] items = rhs.get(p);
+                for (int i = 0; i < items.length; i++) {
+                    int kind = kind(items[i]);
+                    if (kind != NONTERMINAL && kind != RECOVERY) continue;
+                    BitSet target = follow[index(items[i])];
+                    int before = target.cardinality();
+                    if (firstOf(items, i + 1, target)) target.or(follow[lhs.get(p)]);
+                    if (target.cardinality() != before) changed = true;
+                }
+            }
+        }
+    }
+
+    private void buildTable() {
+        int count = nonterminals.size();
+        table = new int[count * TOKENS.length];
+        Arrays.fill(table, -1);
+        int[] alternatives = new int[count];
+        int[] empty = new int[count];
+        Arrays.fill(empty, -1);
+
+        for (int p = 0; p < analyzed; p++) {
+            int left = lhs.get(p);
+            alternatives[left]++;
+            BitSet predict = new BitSet();
+            if (firstOf(rhs.get(p), 0, predict)) {
+                predict.or(follow[left]);
+                if (empty[left] < 0) empty[left] = p;
+            }
+            for (int t = predict.nextSetBit(0); t >= 0; t = predict.nextSetBit(t + 1)) {
+                int cell = left * TOKENS.length + t;
+                if (table[cell] < 0) {
+                    table[cell] = p;
+                } else if (table[cell] != p) {
+                    conflicts.add(nonterminals.get(left) + " com " + TOKENS[t] + ": fica a alternativa " + alternative(table[cell])
+                        + ", não a " + alternative(p));
+                }
+            }
+        }
+
+        // Sem %otherwise: alternativa única, ou a vazia (o token fica para quem vem depois)
+        for (int n = 0; n < count; n++) {
+            if (otherwise[n] >= 0) continue;
+            if (alternatives[n] == 1) {
+                for (int p = 0; p < analyzed; p++) {
+                    if (lhs.get(p) == n) otherwise[n] = p;
+                }
+            } else {
+                otherwise[n] = empty[n];
+            }
+        }
+        for (int n = 0; n < count; n++) {
+            if (sync[n] == null) {
+                sync[n] = (BitSet) follow[n].clone();
+                consumed[n] = new BitSet();
+            }
+            sync[n].set(TokenType.EOF.ordinal());
+            if (openers[n] == null) {
+                openers[n] = new BitSet();
+                closers[n] = new BitSet();
+            }
+        }
+    }
+
+    private int alternative(int production) {
+        int number = 0;
+        for (int p = 0; p <= production; p++) {
+            if (lhs.get(p).equals(lhs.get(production))) number++;
+        }
+        return number;
+    }
+
+    // Produção a expandir para nonterminal com o token atual (-1: erro)
+    int predict(int nonterminal, TokenType type) {
+        int production = table[nonterminal * TOKENS.length + type.ordinal()];
+        return production >= 0 ? production : otherwise[nonterminal];
+    }
+
+    int[] rhs(int production) {
+        return productions[production];
+    }
+
+    int start() {
+        return 0;
+    }
+
+    String name(int nonterminal) {
+        return nonterminals.get(nonterminal);
+    }
+
+    List<String> actions() {
+        return actions;
+    }
+
+    String error(int nonterminal, TokenType current) {
+        String message = errors[nonterminal];
+        if (message == null) return "Não era esperado " + current + " em " + nonterminals.get(nonterminal);
+        return message.replace("$", current.toString());
+    }
+
+    boolean synchronizes(int nonterminal, TokenType type) {
+        return sync[nonterminal].get(type.ordinal());
+    }
+
+    boolean consumes(int nonterminal, TokenType type) {
+        return consumed[nonterminal].get(type.ordinal());
+    }
+
+    boolean opens(int nonterminal, TokenType type) {
+        return openers[nonterminal].get(type.ordinal());
+    }
+
+    boolean closes(int nonterminal, TokenType type) {
+        return closers[nonterminal].get(type.ordinal());
+    }
+
+    BitSet first(int nonterminal) {
+        return first[nonterminal];
+    }
+
+    BitSet follow(int nonterminal) {
+        return follow[nonterminal];
+    }
+
+    List<String> conflicts() {
+        return conflicts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,420 @@
+package sintatic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ast.Ast;
+import ast.NodeKind;
+import diagnostic.Diagnostic;
+import lexical.IncrementalLexer;
+import lexical.TokenEdit;
+import lexical.TokenType;
+import semantic.Symbol;
+import semantic.SymbolTable;
+
+// Análise incremental (sempre no modo de recuperação) de um texto que vai
+// sendo editado. Guarda, para cada comando do stmt-list do programa, os tokens
+// que ele examinou, os nós que gerou e os diagnósticos que produziu. Depois de
+// uma edição só são reanalisados os comandos que examinaram tokens alterados:
+// a análise recomeça no primeiro deles e para ao chegar ao início de um comando
+// antigo posterior à edição, que é reaproveitado com todos os seguintes.
+// Os comandos dependem das declarações globais (a tabela de símbolos), então
+// uma edição no cabeçalho (PROGRAM, declarações, BEGIN) reanalisa tudo.
+//
+// Um comando sem ";" depois dele encerra o stmt-list, e o resto do texto deixa
+// de fazer parte do programa (como na análise completa). Os comandos que ficam
+// para trás continuam guardados, suspensos: quando o ";" volta (ex.: enquanto
+// o comando é digitado), a análise ressincroniza neles em vez de refazer o resto.
+//
+// Como no IncrementalLexer, os comandos ficam num gap buffer: os que estão
+// depois do gap guardam os índices de token relativos ao total de tokens, e as
+// linhas dos nós e diagnósticos só são corrigidas quando alguém as pede.
+public final class IncrementalParser {
+    private final IncrementalLexer lexer;
+    private Ast ast;
+    private SymbolTable symbolTable;
+    private int program;
+    private int headerStop; // último token examinado pelo cabeçalho
+    private List<Diagnostic> headerDiagnostics;
+    private Diagnostic headerLexical; // do token ERROR em que o cabeçalho parou, se houver
+    private List<Diagnostic> tailDiagnostics; // do END do programa
+
+    private Statement[] statements = new Statement[256];
+    private int gapStart;
+    private int gapEnd;
+    private int tokenCount; // total de tokens a que os índices relativos se referem
+
+    // Comandos depois dos quais o seguinte no buffer não é o próximo do stmt-list,
+    // na ordem do texto. O primeiro é o último comando do programa; os outros
+    // fecham grupos de comandos suspensos.
+    private final List<Statement> breaks = new ArrayList<>();
+
+    // Comandos com diagnósticos (do programa ou suspensos), na ordem do texto
+    private final List<Statement> withDiagnostics = new ArrayList<>();
+
+    // Nós da arena que não pertencem mais a nenhum comando guardado
+    private int garbage;
+
+    // Um comando do programa e o que a análise dele produziu
+    private static final class Statement {
+        int start;          // primeiro token
+        int stop;           // token em current no fim da análise (o último examinado)
+        boolean relative;   // start e stop relativos a tokenCount (comando depois do gap)
+        int root;
+        int firstNode;      // nós [firstNode, endNode) da arena
+        int endNode;
+        int line;           // linha e offset do primeiro token quando nós e diagnósticos foram gerados
+        int offset;
+        List<Diagnostic> diagnostics;
+    }
+
+    public IncrementalParser(CharSequence text) {
+        this.lexer = new IncrementalLexer(text);
+        parseAll();
+    }
+
+    // Troca text[offset, offset + removed) por inserted e atualiza árvore e diagnósticos
+    public TokenEdit edit(int offset, int removed, String inserted) {
+        TokenEdit edit = lexer.edit(offset, removed, inserted);
+        if (edit.from <= headerStop) {
+            parseAll();
+            return edit;
+        }
+
+        // Até tokenCount ser atualizado, os índices dos comandos são os de antes da edição
+        int count = count();
+        int last = position(breaks.get(0));
+        int first = firstExamining(edit.from);
+        moveGap(first);
+
+        int delta = edit.inserted - edit.removed;
+        int reuse = first;
+        while (reuse < count && start(get(reuse)) < edit.from + edit.removed) reuse++;
+
+        // Só comandos suspensos (ou nenhum) examinaram o trecho alterado: basta descartá-los
+        List<Statement> parsed = new ArrayList<>();
+        int keep = reuse;
+        if (first <= last) {
+            IncrementalLexer.Cursor cursor = lexer.cursor(start(get(first)));
+            Parser parser = new Parser(cursor, lexer.getIdentifierPool());
+            parser.setRecovery(true);
+            parser.resume(ast, symbolTable, start(get(first)) == headerStop ? headerLexical : null);
+            keep = parseStatements(parser, cursor, parsed, reuse, delta, edit.from + edit.inserted);
+        }
+        replace(first, keep, parsed);
+
+        // o texto depois do END do programa também é verificado
+        parseTail();
+
+        // A arena só cresce: quando metade dela é lixo, compensa analisar de novo
+        if (garbage > ast.size() / 2) parseAll();
+        return edit;
+    }
+
+    private void parseAll() {
+        IncrementalLexer.Cursor cursor = lexer.cursor(0);
+        Parser parser = new Parser(cursor, lexer.getIdentifierPool());
+        parser.setRecovery(true);
+
+        int line = lexer.line(0);
+        int decls = parser.parseHeader();
+        ast = parser.getAst();
+        symbolTable = parser.getSymbolTable();
+        headerDiagnostics = new ArrayList<>(parser.getDiagnostics());
+        headerLexical = parser.currentLexical();
+        int firstStatement = cursor.index();
+        // Só o expect do cabeçalho consome BEGIN; sem ele o cabeçalho examinou o token atual
+        boolean begin = firstStatement > 0 && lexer.type(firstStatement - 1) == TokenType.BEGIN;
+        headerStop = begin ? firstStatement - 1 : firstStatement;
+
+        Arrays.fill(statements, null);
+        gapStart = 0;
+        gapEnd = statements.length;
+        tokenCount = lexer.size();
+        garbage = 0;
+        breaks.clear();
+        withDiagnostics.clear();
+
+        List<Statement> parsed = new ArrayList<>();
+        parseStatements(parser, cursor, parsed, 0, 0, 0);
+        replace(0, 0, parsed);
+        parseTail();
+
+        program = ast.add(NodeKind.PROGRAM, null, line, decls, Ast.NONE);
+        ast.setRoot(program);
+    }
+
+    // stmt-list ::= stmt { ";" stmt }. Antes de cada comando que começa depois de
+    // newEnd, procura um comando guardado que comece no mesmo token (a partir de
+    // reuse, com índices antigos: + delta) e do qual o stmt-list siga até o fim;
+    // se achar, para e devolve a posição dele. Se o stmt-list terminar, devolve a
+    // posição do primeiro comando guardado depois do fim (que fica suspenso).
+    private int parseStatements(Parser parser, IncrementalLexer.Cursor cursor, List<Statement> parsed,
+            int reuse, int delta, int newEnd) {
+        int count = count();
+        while (true) {
+            int index = cursor.index();
+            if (index >= newEnd) {
+                while (reuse < count && start(get(reuse)) + delta < index) reuse++;
+                if (reuse < count && start(get(reuse)) + delta == index && reachesEnd(get(reuse), delta)) {
+                    return reuse;
+                }
+            }
+
+            parsed.add(parseStatement(parser, cursor));
+
+            if (!parser.accept(TokenType.SEMICOLON)) {
+                int end = cursor.index();
+                while (reuse < count && start(get(reuse)) + delta <= end) reuse++;
+                return reuse;
+            }
+        }
+    }
+
+    // O stmt-list continua pelos comandos guardados a partir deste até terminar
+    // (e não até um comando que foi descartado)
+    private boolean reachesEnd(Statement statement, int delta) {
+        Statement end = breaks.get(firstStarting(breaks, start(statement)));
+        return lexer.type(stop(end) + delta) != TokenType.SEMICOLON;
+    }
+
+    // END do programa (e o fim do texto depois dele), a partir do token em que o stmt-list terminou
+    private void parseTail() {
+        Parser parser = new Parser(lexer.cursor(stop(breaks.get(0))), lexer.getIdentifierPool());
+        parser.setRecovery(true);
+        parser.parseEnd();
+        tailDiagnostics = parser.getDiagnostics();
+    }
+
+    private Statement parseStatement(Parser parser, IncrementalLexer.Cursor cursor) {
+        Statement statement = new Statement();
+        int before = parser.getDiagnostics().size();
+        statement.start = cursor.index();
+        statement.line = lexer.line(statement.start);
+        statement.offset = lexer.offset(statement.start);
+        statement.firstNode = ast.size();
+        statement.root = parser.parseStmtOrRecover();
+        statement.endNode = ast.size();
+        statement.stop = cursor.index();
+        statement.diagnostics = newDiagnostics(parser, before);
+        return statement;
+    }
+
+    // Troca os comandos [first, keep), que estão logo depois do gap, pelos
+    // reanalisados e atualiza tokenCount, breaks e withDiagnostics
+    private void replace(int first, int keep, List<Statement> parsed) {
+        int count = count();
+        int from = first > 0 ? start(get(first - 1)) : 0; // o anterior pode deixar de ser (ou passar a ser) um break
+        int removed = first < count ? start(get(first)) : Integer.MAX_VALUE;
+        int to = keep < count ? start(get(keep)) : Integer.MAX_VALUE;
+        breaks.subList(firstStarting(breaks, from), firstStarting(breaks, to)).clear();
+        int diagnostics = firstStarting(withDiagnostics, removed);
+        withDiagnostics.subList(diagnostics, firstStarting(withDiagnostics, to)).clear();
+
+        for (int i = first; i < keep; i++) {
+            Statement statement = get(i);
+            garbage += statement.endNode - statement.firstNode;
+        }
+        gapEnd += keep - first;
+        if (gapEnd - gapStart < parsed.size()) grow(parsed.size());
+        for (Statement statement : parsed) statements[gapStart++] = statement;
+        tokenCount = lexer.size();
+
+        List<Statement> added = new ArrayList<>();
+        for (int i = Math.max(first - 1, 0); i < first + parsed.size(); i++) {
+            if (isBreak(i)) added.add(get(i));
+        }
+        breaks.addAll(firstStarting(breaks, from), added);
+        added.clear();
+        for (Statement statement : parsed) {
+            if (!statement.diagnostics.isEmpty()) added.add(statement);
+        }
+        withDiagnostics.addAll(diagnostics, added);
+    }
+
+    private boolean isBreak(int index) {
+        if (index == count() - 1) return true;
+        int stop = stop(get(index));
+        return lexer.type(stop) != TokenType.SEMICOLON || start(get(index + 1)) != stop + 1;
+    }
+
+    private static List<Diagnostic> newDiagnostics(Parser parser, int from) {
+        List<Diagnostic> diagnostics = parser.getDiagnostics();
+        return from == diagnostics.size() ? List.of() : new ArrayList<>(diagnostics.subList(from, diagnostics.size()));
+    }
+
+    // Posição na lista do primeiro comando que começa no token index ou depois
+    private int firstStarting(List<Statement> list, int index) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (start(list.get(middle)) >= index) high = middle;
+            else low = middle + 1;
+        }
+        return low;
+    }
+
+    // Posição do comando no buffer
+    private int position(Statement statement) {
+        int start = start(statement);
+        int low = 0;
+        int high = count() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (start(get(middle)) >= start) high = middle;
+            else low = middle + 1;
+        }
+        return low;
+    }
+
+    // Primeiro comando que examinou o token index ou algum posterior
+    private int firstExamining(int index) {
+        int low = 0;
+        int high = count();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (stop(get(middle)) >= index) high = middle;
+            else low = middle + 1;
+        }
+        return low;
+    }
+
+    private int count() {
+        return statements.length - (gapEnd - gapStart);
+    }
+
+    private Statement get(int index) {
+        return statements[index < gapStart ? index : index + (gapEnd - gapStart)];
+    }
+
+    private int start(Statement statement) {
+        return statement.relative ? statement.start + tokenCount : statement.start;
+    }
+
+    private int stop(Statement statement) {
+        return statement.relative ? statement.stop + tokenCount : statement.stop;
+    }
+
+    // Leva o gap para antes do comando index, convertendo os que mudam de lado
+    private void moveGap(int index) {
+        int gap = gapEnd - gapStart;
+        while (gapStart > index) {
+            Statement statement = statements[--gapStart];
+            statements[gapStart] = null;
+            statement.start -= tokenCount;
+            statement.stop -= tokenCount;
+            statement.relative = true;
+            statements[gapStart + gap] = statement;
+        }
+        while (gapStart < index) {
+            Statement statement = statements[gapStart + gap];
+            statements[gapStart + gap] = null;
+            statement.start += tokenCount;
+            statement.stop += tokenCount;
+            statement.relative = false;
+            statements[gapStart++] = statement;
+        }
+        gapEnd = gapStart + gap;
+    }
+
+    private void grow(int needed) {
+        int tail = statements.length - gapEnd;
+        int capacity = Math.max(statements.length * 2, gapStart + tail + needed);
+        Statement[] grown = new Statement[capacity];
+        System.arraycopy(statements, 0, grown, 0, gapStart);
+        System.arraycopy(statements, gapEnd, grown, capacity - tail, tail);
+        statements = grown;
+        gapEnd = capacity - tail;
+    }
+
+    // Aplica aos nós e diagnósticos do comando as linhas e o texto inseridos ou removidos acima dele
+    private void realign(Statement statement) {
+        int shift = lexer.line(start(statement)) - statement.line;
+        int moved = lexer.offset(start(statement)) - statement.offset;
+        if (shift == 0 && moved == 0) return;
+        if (shift != 0) ast.shiftLines(statement.firstNode, statement.endNode, shift);
+        statement.diagnostics = shift(statement.diagnostics, shift, moved);
+        statement.line += shift;
+        statement.offset += moved;
+    }
+
+    private static List<Diagnostic> shift(List<Diagnostic> diagnostics, int lines, int offsets) {
+        if (diagnostics.isEmpty()) return diagnostics;
+        List<Diagnostic> shifted = new ArrayList<>(diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            int offset = diagnostic.offset < 0 ? -1 : diagnostic.offset + offsets;
+            shifted.add(new Diagnostic(diagnostic.kind, diagnostic.line + lines, offset, diagnostic.length, diagnostic.message));
+        }
+        return shifted;
+    }
+
+    // Árvore do texto atual. A arena é a mesma que as próximas edições vão
+    // atualizar: para transformá-la (ex.: Optimizer), analise o texto de novo.
+    public Ast getAst() {
+        int head = Ast.NONE;
+        int tail = Ast.NONE;
+        int last = position(breaks.get(0));
+        for (int i = 0; i <= last; i++) {
+            Statement statement = get(i);
+            realign(statement);
+            if (statement.root == Ast.NONE) continue;
+            if (head == Ast.NONE) head = statement.root;
+            else ast.setNext(tail, statement.root);
+            tail = statement.root;
+        }
+        if (tail != Ast.NONE) ast.setNext(tail, Ast.NONE);
+        ast.setSecond(program, head);
+        return ast;
+    }
+
+    // Os mesmos diagnósticos, na mesma ordem, que uma análise completa do texto
+    // atual; o custo depende do número de diagnósticos, não do tamanho do texto
+    public List<Diagnostic> getDiagnostics() {
+        List<Diagnostic> diagnostics = new ArrayList<>(headerDiagnostics);
+        int last = start(breaks.get(0));
+        for (Statement statement : withDiagnostics) {
+            if (start(statement) > last) break; // suspensos
+            realign(statement);
+            diagnostics.addAll(statement.diagnostics);
+        }
+        diagnostics.addAll(tailDiagnostics);
+        return diagnostics;
+    }
+
+    // Símbolo a que se refere o identificador na posição offset (ou que ele declara);
+    // null se ali não houver identificador do programa. Só o comando (ou o
+    // cabeçalho) que contém o identificador é analisado de novo.
+    public Symbol symbolAt(int offset) {
+        int index = lexer.tokenAt(offset);
+        if (index < 0 || lexer.type(index) != TokenType.IDENTIFIER) return null;
+
+        Parser parser;
+        if (index <= headerStop) {
+            parser = new Parser(lexer.cursor(0), lexer.getIdentifierPool());
+            parser.setRecovery(true);
+            parser.probe(lexer.offset(index));
+            parser.parseHeader();
+        } else {
+            int position = firstExamining(index);
+            if (position > position(breaks.get(0)) || start(get(position)) > index) return null;
+            parser = new Parser(lexer.cursor(start(get(position))), lexer.getIdentifierPool());
+            parser.setRecovery(true);
+            parser.resume(ast, symbolTable);
+            parser.probe(lexer.offset(index));
+            int before = ast.size();
+            parser.parseStmtOrRecover();
+            garbage += ast.size() - before;
+        }
+        return parser.probed();
+    }
+
+    public IncrementalLexer getLexer() {
+        return lexer;
+    }
+
+    public String getText() {
+        return lexer.text();
+    }
+}
\ No newline at end of file
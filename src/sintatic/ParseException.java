@@ -0,0 +1,16 @@
+package sintatic;
+
+import diagnostic.Diagnostic;
+
+// Interrompe a análise no primeiro erro (ou até o próximo ponto de sincronização,
+// no modo de recuperação). Não guarda stack trace: o que interessa é o diagnóstico.
+public class ParseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public final transient Diagnostic diagnostic;
+
+    public ParseException(Diagnostic diagnostic) {
+        super(diagnostic.toString(), null, false, false);
+        this.diagnostic = diagnostic;
+    }
+}
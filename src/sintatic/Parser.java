@@ -1,27 +1,69 @@
 package sintatic;
 
+import ast.Ast;
+import ast.NodeKind;
 import lexical.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import diagnostic.Diagnostic;
 import semantic.*;
 
 public class Parser {
-    private List<Token> tokens;
-    private int currentIndex;
+    // A gramática é LL(1): o único token de lookahead mantido é o current
+    private final TokenStream input;
     private Token current;
     private SymbolTable symbolTable;
+    private Ast ast;
+
+    // Pool dos ids de identificadores; tokenIds indica se os ids dos tokens vêm dele
+    private final IdentifierPool identifiers;
+    private final boolean tokenIds;
+
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private boolean recovery = false;
+
+    // Diagnóstico do token ERROR atual, se já registrado
+    private Diagnostic lexical;
+
+    // Modo só sintático (ver setSemantic): as verificações semânticas ficam aqui
+    private boolean semantic = true;
+    private SemanticLog log;
+
+    // IF, WHILE e REPEAT consumidos cujo END ou UNTIL ainda não veio
+    private int openBlocks;
+
+    // Offset de um identificador cujo símbolo se quer saber (ver probe)
+    private int probe = -1;
+    private Symbol probed;
 
     public Parser(List<Token> tokens) {
-        this.tokens = tokens;
-        this.currentIndex = 0;
-        this.current = tokens.get(0);
+        this(TokenStream.of(tokens));
+    }
+
+    // Consome os tokens sob demanda (ex.: direto do Lexer), sem materializar a lista
+    public Parser(TokenStream input) {
+        this(input, null);
+    }
+
+    public Parser(Lexer lexer) {
+        this(lexer, lexer.getIdentifierPool());
+    }
+
+    // identifiers é o pool que gerou os ids dos tokens (null: os nomes são internados aqui)
+    public Parser(TokenStream input, IdentifierPool identifiers) {
+        this.input = input;
+        this.tokenIds = identifiers != null;
+        this.identifiers = identifiers != null ? identifiers : new IdentifierPool();
+        this.current = input.nextToken();
     }
 
     private void advance() {
     if (current.type != TokenType.EOF) {
-        currentIndex++;
-        current = tokens.get(currentIndex);
+        if (current.type == TokenType.ERROR) lexicalError();
+        current = input.nextToken();
+        lexical = null;
     }
     // Se já for EOF, não faz nada: current continua apontando para EOF
     }
@@ -30,76 +72,237 @@ public class Parser {
         if (current.type == expected) {
             advance();
         } else {
-            error(": Na linha "+current.line + ": Esperado: " + expected + ", mas encontrado: " + current.type);
+            error(current, "Esperado: " + expected + ", mas encontrado: " + current.type);
+        }
+    }
+
+    // No modo de recuperação, eat que falha registra o erro e segue como se o token estivesse lá
+    void expect(TokenType expected) {
+        try {
+            eat(expected);
+        } catch (ParseException e) {
+            if (!recovery) throw e;
+        }
+    }
+
+    // Erro sintático: sempre interrompe o comando atual. Se o token atual é ERROR,
+    // o erro é o léxico dele (o que se esperava ali não importa)
+    private void error(Token at, String msg) {
+        if (current.type == TokenType.ERROR) throw new ParseException(lexicalError());
+        Diagnostic diagnostic = new Diagnostic(Diagnostic.Kind.SINTATICO, at.line, at.offset, at.length, msg);
+        report(diagnostic);
+        throw new ParseException(diagnostic);
+    }
+
+    // Registra o erro léxico do token ERROR atual uma única vez: quando um erro
+    // sintático cai nele ou quando ele é pulado (na recuperação), e não quando ele
+    // passa a ser o atual, para o diagnóstico ficar com o comando que o contém
+    private Diagnostic lexicalError() {
+        if (lexical == null) {
+            lexical = Lexer.diagnosticOf(current);
+            report(lexical);
         }
+        return lexical;
+    }
+
+    // No modo só sintático, o log anota em que ponto entrou cada diagnóstico
+    private void report(Diagnostic diagnostic) {
+        diagnostics.add(diagnostic);
+        if (log != null) log.reported();
+    }
+
+    // Erro semântico: no modo de recuperação só é registrado e a análise continua
+    private void semanticError(Token at, String msg) {
+        Diagnostic diagnostic = new Diagnostic(Diagnostic.Kind.SEMANTICO, at.line, at.offset, at.length, msg);
+        report(diagnostic);
+        if (!recovery) throw new ParseException(diagnostic);
     }
 
-    private void error(String msg) {
-        throw new RuntimeException("Erro sintático: " + msg);
+    // Modo de recuperação: em vez de parar no primeiro erro, registra todos
+    // os diagnósticos e ressincroniza no fim do comando ou da declaração
+    public void setRecovery(boolean recovery) {
+        this.recovery = recovery;
     }
 
-    private void semanticError(String msg){
-        throw new RuntimeException("Erro semântico: " + msg);
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Com false, o Parser só monta a árvore: nomes não são resolvidos, tipos não
+    // são verificados e não há SymbolTable. As verificações, na ordem em que
+    // seriam feitas, ficam no SemanticLog para o SemanticAnalyzer, que dá a mesma
+    // árvore e os mesmos diagnósticos (getDiagnostics tem só os do Parser)
+    public void setSemantic(boolean semantic) {
+        this.semantic = semantic;
+    }
+
+    // null se o modo não for só sintático
+    public SemanticLog getSemanticLog() {
+        return log;
     }
 
     // program ::= PROGRAM opt-decl-list BEGIN stmt-list END
-    public void parseProgram() {
-        eat(TokenType.PROGRAM);
+    public Ast parseProgram() {
+        int line = current.line;
+        int decls = parseHeader();
+        int stmts = parseStmtList();
+        parseEnd();
 
-        this.symbolTable = new SymbolTable(); 
-        parseOptDeclList();
+        ast.setRoot(ast.add(NodeKind.PROGRAM, null, line, decls, stmts));
+        return ast;
+    }
 
-        eat(TokenType.BEGIN);
-        parseStmtList();
-        eat(TokenType.END);
+    // PROGRAM opt-decl-list BEGIN: cria a árvore e a tabela com as declarações globais
+    int parseHeader() {
+        this.ast = new Ast();
+        if (semantic) this.symbolTable = new SymbolTable(identifiers);
+        else this.log = new SemanticLog(ast, identifiers, diagnostics);
+        expect(TokenType.PROGRAM);
+
+        int decls = parseOptDeclList();
+
+        expect(TokenType.BEGIN);
+        return decls;
+    }
+
+    // END do programa: o que vier depois dele também é um erro, e não texto ignorado
+    void parseEnd() {
+        if (accept(TokenType.END)) expect(TokenType.EOF);
+        else expect(TokenType.END);
+    }
+
+    // Continua a análise num ponto entre comandos do programa, acrescentando os
+    // nós à árvore e resolvendo os nomes na tabela de uma análise anterior
+    void resume(Ast ast, SymbolTable symbolTable) {
+        this.ast = ast;
+        this.symbolTable = symbolTable;
+    }
+
+    // Idem, sabendo que o erro léxico do token atual já foi registrado por outra
+    // análise (o cabeçalho pode parar num token ERROR, onde começa o primeiro comando)
+    void resume(Ast ast, SymbolTable symbolTable, Diagnostic lexical) {
+        resume(ast, symbolTable);
+        this.lexical = lexical;
+    }
+
+    // Diagnóstico já registrado do token ERROR atual (null se não houver)
+    Diagnostic currentLexical() {
+        return lexical;
+    }
+
+    Ast getAst() {
+        return ast;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    // Guarda o símbolo a que o identificador em offset se refere (ou que ele declara)
+    void probe(int offset) {
+        this.probe = offset;
+    }
+
+    Symbol probed() {
+        return probed;
+    }
+
+    private void resolved(Token id, Symbol symbol) {
+        if (id.offset == probe && symbol != null) probed = symbol;
+    }
+
+    // Consome o token se ele for do tipo dado
+    boolean accept(TokenType type) {
+        if (current.type != type) return false;
+        advance();
+        return true;
     }
 
     // opt-decl-list ::= decl-list | ε
-    private void parseOptDeclList() {
+    private int parseOptDeclList() {
         if (isType(current.type)) {
-            parseDeclList();
+            return parseDeclList();
         }
+        return Ast.NONE;
     }
 
     // decl-list ::= decl decl-list'
-    private void parseDeclList() {
-        parseDecl();
-        parseDeclListPrime();
+    private int parseDeclList() {
+        NodeList decls = new NodeList();
+        decls.add(parseDeclOrRecover());
+        parseDeclListPrime(decls);
+        return decls.head;
     }
 
     // decl-list' ::= decl decl-list' | ε
-    private void parseDeclListPrime() {
+    private void parseDeclListPrime(NodeList decls) {
         while (isType(current.type)) {
-            parseDecl();
+            decls.add(parseDeclOrRecover());
+        }
+    }
+
+    private int parseDeclOrRecover() {
+        try {
+            return parseDecl();
+        } catch (ParseException e) {
+            if (!recovery) throw e;
+            // descarta o resto da declaração
+            while (current.type != TokenType.SEMICOLON && current.type != TokenType.BEGIN
+                    && current.type != TokenType.EOF && !isType(current.type)) {
+                advance();
+            }
+            if (current.type == TokenType.SEMICOLON) advance();
+            return Ast.NONE;
         }
     }
 
     // decl ::= type ":" ident-list ";"
-    private void parseDecl() {
-        String type = parseType();
+    // Gera um nó DECL para cada variável declarada
+    private int parseDecl() {
+        TypeKind type = parseType();
         Token token = current;
         eat(TokenType.COLON);
 
-        List<String> ids = parseIdentList();
-        eat(TokenType.SEMICOLON);
-
-        for (String varName : ids) {
-            if (!symbolTable.add(varName, new Symbol(varName, type))) {
-                semanticError("Na linha "+token.line+": Redeclaração da variável '" + varName + "'");
+        List<Token> ids = parseIdentList();
+        expect(TokenType.SEMICOLON);
+
+        NodeList decls = new NodeList();
+        if (log != null) {
+            log.declaration(token);
+            for (Token id : ids) {
+                int decl = ast.add(NodeKind.DECL, type, id.line);
+                ast.setValue(decl, Ast.NONE);
+                log.declare(decl, idOf(id), id);
+                decls.add(decl);
             }
+            return decls.head;
         }
+        for (Token id : ids) {
+            int nameId = idOf(id);
+            Symbol symbol = new Symbol(identifiers.name(nameId), type);
+            symbol.offset = id.offset;
+            resolved(id, symbol);
+            if (!symbolTable.add(nameId, symbol)) {
+                semanticError(token, "Redeclaração da variável '" + id.lexeme() + "'");
+                continue;
+            }
+            int decl = ast.add(NodeKind.DECL, type, id.line);
+            ast.setValue(decl, ast.symbolIndex(symbol));
+            decls.add(decl);
+        }
+        return decls.head;
     }
 
     // ident-list ::= IDENTIFIER ident-list'
-    private List<String> parseIdentList() {
-        List<String> ids = new ArrayList<>();
+    private List<Token> parseIdentList() {
+        List<Token> ids = new ArrayList<>();
 
-        ids.add(current.lexeme);
+        ids.add(current);
         eat(TokenType.IDENTIFIER);
 
         while (current.type == TokenType.COMMA) {
             advance();
-            ids.add(current.lexeme);
+            ids.add(current);
             eat(TokenType.IDENTIFIER);
         }
 
@@ -107,19 +310,13 @@ public class Parser {
     }
 
     // type ::= INT | FLOAT | CHAR
-    private String parseType() {
+    private TypeKind parseType() {
         if (isType(current.type)) {
-            String type;
-            switch (current.type) {
-                case INT:    type = "int";    break;
-                case FLOAT:  type = "float";  break;
-                case CHAR:   type = "char";   break;
-                default:     type = null;     // não deve ocorrer
-            }
+            TypeKind type = TypeKind.of(current.type);
             advance();
             return type;
         } else {
-            error("Na linha " + current.line + ": Tipo esperado (int, float ou char)");
+            error(current, "Tipo esperado (int, float ou char)");
             return null;
         }
     }
@@ -129,148 +326,262 @@ public class Parser {
     }
 
     // stmt-list ::= stmt stmt-list'
-    private void parseStmtList() {
-        parseStmt();
-        parseStmtListPrime();
+    private int parseStmtList() {
+        NodeList stmts = new NodeList();
+        stmts.add(parseStmtOrRecover());
+        parseStmtListPrime(stmts);
+        return stmts.head;
     }
 
     // stmt-list' ::= ";" stmt stmt-list' | ε
-    private void parseStmtListPrime() {
+    private void parseStmtListPrime(NodeList stmts) {
         while (current.type == TokenType.SEMICOLON) {
             advance();
-            parseStmt();
+            stmts.add(parseStmtOrRecover());
+        }
+    }
+
+    int parseStmtOrRecover() {
+        int scopeLevel = scopeLevel();
+        int openBlocks = this.openBlocks;
+        try {
+            int root = parseStmt();
+            // terminou num token ERROR: o trecho inválido é parte do comando, que é descartado
+            if (recovery && current.type == TokenType.ERROR) throw new ParseException(lexicalError());
+            return root;
+        } catch (ParseException e) {
+            if (!recovery) throw e;
+            // fecha os escopos que o comando abandonado deixou abertos
+            while (scopeLevel() > scopeLevel) exitScope();
+            // os blocos que ele abriu ainda têm o seu END ou UNTIL pela frente
+            int depth = this.openBlocks - openBlocks;
+            this.openBlocks = openBlocks;
+            synchronize(depth);
+            return Ast.NONE;
+        }
+    }
+
+    // Escopos na SymbolTable ou, no modo só sintático, no SemanticLog
+    private void enterScope() {
+        if (log != null) log.enterScope();
+        else symbolTable.enterScope();
+    }
+
+    private void exitScope() {
+        if (log != null) log.exitScope();
+        else symbolTable.exitScope();
+    }
+
+    private int scopeLevel() {
+        return log != null ? log.getScopeLevel() : symbolTable.getScopeLevel();
+    }
+
+    // Pula tokens até um ponto de sincronização (";", END, UNTIL, ELSE ou EOF)
+    // fora de blocos aninhados, sem consumi-lo. depth: blocos já abertos pelo
+    // comando abandonado, cujo fechamento ainda está adiante
+    private void synchronize(int depth) {
+        while (current.type != TokenType.EOF) {
+            switch (current.type) {
+                case IF:
+                case WHILE:
+                case REPEAT:
+                    depth++;
+                    break;
+                case END:
+                case UNTIL:
+                    if (depth == 0) return;
+                    depth--;
+                    break;
+                case SEMICOLON:
+                case ELSE:
+                    if (depth == 0) return;
+                    break;
+                default:
+                    break;
+            }
+            advance();
         }
     }
 
     // stmt ::= assign-stmt | if-stmt | while-stmt | repeat-stmt | read-stmt | write-stmt
-    private void parseStmt() {
+    private int parseStmt() {
         switch (current.type) {
-            case IDENTIFIER: parseAssignStmt(); break;
-            case IF:         parseIfStmt();     break;
-            case WHILE:      parseWhileStmt();  break;
-            case REPEAT:     parseRepeatStmt(); break;
-            case IN:         parseReadStmt();   break;
-            case OUT:        parseWriteStmt();  break;
+            case IDENTIFIER: return parseAssignStmt();
+            case IF:         return parseIfStmt();
+            case WHILE:      return parseWhileStmt();
+            case REPEAT:     return parseRepeatStmt();
+            case IN:         return parseReadStmt();
+            case OUT:        return parseWriteStmt();
             default:
-                error("Na linha " + current.line + ": Comando inválido: " + current.type);
+                error(current, "Comando inválido: " + current.type);
+                return Ast.NONE;
         }
     }
 
     // assign-stmt ::= IDENTIFIER "=" simple-expr
-    private void parseAssignStmt() {
-        String varName = current.lexeme;
+    private int parseAssignStmt() {
+        Token id = current;
 
-        Symbol symbol = this.symbolTable.lookup(varName);
-        if (symbol == null) {
-            semanticError("Na linha " + current.line + ": Variável '" + varName + "' não declarada.");
+        Symbol symbol = null;
+        int check = -1;
+        if (log != null) {
+            check = log.assign(idOf(id), id);
+        } else {
+            symbol = this.symbolTable.lookup(idOf(id));
+            resolved(id, symbol);
+            if (symbol == null) {
+                semanticError(current, "Variável '" + id.lexeme() + "' não declarada.");
+            }
         }
 
         eat(TokenType.IDENTIFIER);
         eat(TokenType.ASSIGN);
 
-        parseSimpleExpr();
+        int value = parseSimpleExpr();
+
+        int node = ast.add(NodeKind.ASSIGN, null, id.line, value, Ast.NONE);
+        ast.setValue(node, ast.symbolIndex(symbol));
+        if (log != null) log.setNode(check, node);
+        return node;
     }
 
     // if-stmt ::= IF condition THEN opt-decl-list stmt-list if-stmt'
-    private void parseIfStmt() {
+    private int parseIfStmt() {
+        int line = current.line;
         eat(TokenType.IF);
-        parseCondition(); // já verifica se é booleano
+        openBlocks++;
+        int condition = parseCondition(); // já verifica se é booleano
         eat(TokenType.THEN);
 
-        symbolTable.enterScope();
-        parseOptDeclList();
-        parseStmtList();
-        symbolTable.exitScope();
+        int blockLine = current.line;
+        enterScope();
+        int decls = parseOptDeclList();
+        int stmts = parseStmtList();
+        exitScope();
 
-        parseIfStmtPrime();
+        int node = ast.add(NodeKind.IF, null, line, condition, ast.add(NodeKind.BLOCK, null, blockLine, decls, stmts));
+        ast.setThird(node, parseIfStmtPrime());
+        return node;
     }
 
     // if-stmt' ::= END | ELSE decl stmt-list END
-    private void parseIfStmtPrime() {
+    // Devolve o bloco do else (ou NONE)
+    private int parseIfStmtPrime() {
         if (current.type == TokenType.END) {
             advance();
+            openBlocks--;
+            return Ast.NONE;
         } else if (current.type == TokenType.ELSE) {
             advance();
 
-            symbolTable.enterScope();
-            parseDecl();
-            parseStmtList();
-            symbolTable.exitScope();
+            int blockLine = current.line;
+            enterScope();
+            int decls = parseDecl();
+            int stmts = parseStmtList();
+            exitScope();
 
             eat(TokenType.END);
+            openBlocks--;
+            return ast.add(NodeKind.BLOCK, null, blockLine, decls, stmts);
         } else {
-            error("Na linha " + current.line + ": Esperado END ou ELSE");
+            error(current, "Esperado END ou ELSE");
+            return Ast.NONE;
         }
     }
 
     // repeat-stmt ::= REPEAT opt-decl-list stmt-list stmt-suffix
-    private void parseRepeatStmt() {
+    private int parseRepeatStmt() {
+        int line = current.line;
         eat(TokenType.REPEAT);
+        openBlocks++;
+
+        int blockLine = current.line;
+        enterScope();
 
-        symbolTable.enterScope();
+        int decls = parseOptDeclList();
+        int stmts = parseStmtList();
+        int condition = parseStmtSuffix();
 
-        parseOptDeclList();
-        parseStmtList();
-        parseStmtSuffix();
+        exitScope();
 
-        symbolTable.exitScope();
+        return ast.add(NodeKind.REPEAT, null, line, condition, ast.add(NodeKind.BLOCK, null, blockLine, decls, stmts));
     }
 
     // stmt-suffix ::= UNTIL condition
-    private void parseStmtSuffix() {
+    private int parseStmtSuffix() {
         eat(TokenType.UNTIL);
-        parseCondition();
+        openBlocks--;
+        return parseCondition();
     }
 
     // while-stmt ::= stmt-prefix opt-decl-list stmt-list END
-    private void parseWhileStmt() {
-        parseStmtPrefix();
-
-        symbolTable.enterScope();
-        parseOptDeclList();
-        parseStmtList();
+    private int parseWhileStmt() {
+        int line = current.line;
+        int condition = parseStmtPrefix();
+
+        int blockLine = current.line;
+        enterScope();
+        int decls = parseOptDeclList();
+        int stmts = parseStmtList();
         eat(TokenType.END);
-        symbolTable.exitScope();
+        openBlocks--;
+        exitScope();
+
+        return ast.add(NodeKind.WHILE, null, line, condition, ast.add(NodeKind.BLOCK, null, blockLine, decls, stmts));
     }
 
     // stmt-prefix ::= WHILE condition DO
-    private void parseStmtPrefix() {
+    private int parseStmtPrefix() {
         eat(TokenType.WHILE);
-        parseCondition();
+        openBlocks++;
+        int condition = parseCondition();
         eat(TokenType.DO);
+        return condition;
     }
 
     // read-stmt ::= IN "(" IDENTIFIER ")"
-    private void parseReadStmt() {
+    private int parseReadStmt() {
+        int line = current.line;
         eat(TokenType.IN);
         eat(TokenType.LPAREN);
 
-        String varName = current.lexeme;
+        Token id = current;
         eat(TokenType.IDENTIFIER);
 
-        Symbol symbol = symbolTable.lookup(varName);
-        if (symbol == null) {
-            semanticError("Na linha " + current.line + ": Identificador '" + varName + "' não declarado.");
+        Symbol symbol = null;
+        int check = -1;
+        if (log != null) {
+            check = log.read(idOf(id), id);
+        } else {
+            symbol = symbolTable.lookup(idOf(id));
+            resolved(id, symbol);
+            if (symbol == null) {
+                semanticError(id, "Identificador '" + id.lexeme() + "' não declarado.");
+            }
         }
 
         eat(TokenType.RPAREN);
+
+        int node = ast.add(NodeKind.READ, null, line);
+        ast.setValue(node, ast.symbolIndex(symbol));
+        if (log != null) log.setNode(check, node);
+        return node;
     }
 
     // write-stmt ::= OUT "(" writable ")"
-    private void parseWriteStmt() {
+    private int parseWriteStmt() {
+        int line = current.line;
         eat(TokenType.OUT);
         eat(TokenType.LPAREN);
 
-        String type = parseWritable();
-        if (!isWritableType(type)) {
-            semanticError("Na linha " + current.line + ": Tipo '" + type + "' não pode ser usado em write.");
-        }
-
+        int value = parseWritable();
         eat(TokenType.RPAREN);
+
+        return ast.add(NodeKind.WRITE, null, line, value, Ast.NONE);
     }
 
     // writable ::= simple-expr | literal
-    private String parseWritable() {
+    private int parseWritable() {
         if (isLiteral(current.type)) {
             return parseLiteral();
         } else {
@@ -279,276 +590,328 @@ public class Parser {
     }
 
     // condition ::= expression
-    private void parseCondition() {
-        String type = parseExpression();
-        if (!type.equals("boolean")) {
-            semanticError("Na linha " + current.line + ": Condição deve ser do tipo boolean, mas foi " + type);
+    private int parseCondition() {
+        int condition = parseExpression();
+        if (log != null) {
+            log.condition(condition, current);
+            return condition;
+        }
+        TypeKind type = ast.type(condition);
+        if (type != TypeKind.BOOLEAN && type != TypeKind.ERRO) {
+            semanticError(current, "Condição deve ser do tipo boolean, mas foi " + type);
         }
+        return condition;
     }
 
     // expression ::= simple-expr expression'
-    private String parseExpression() {
-        String leftType = parseSimpleExpr();
-        return parseExpressionPrime(leftType);
-    }
-
     // expression' ::= relop simple-expr | ε
-    private String parseExpressionPrime(String inheritedType) {
-        if (isRelOp(current.type)) {
-            TokenType relop = current.type;
-            advance();
-            String rightType = parseSimpleExpr();
-
-            if (!isRelationalCompatible(inheritedType, rightType, relop)) {
-                semanticError("Na linha " + current.line + ": Tipos incompatíveis em expressão relacional: " 
-                    + inheritedType + " e " + rightType);
+    // simple-expr ::= term simple-expr'
+    // simple-expr' ::= addop term simple-expr' | ε
+    // term ::= factor-a term'
+    // term' ::= mulop factor-a term' | ε
+    // factor-a ::= factor | "!" factor | "-" factor
+    // factor ::= IDENTIFIER | constant | "(" expression ")"
+    //
+    // Essas regras são analisadas sem recursão, por precedência de operadores
+    // (shunting-yard): operandos e operadores pendentes ficam em pilhas explícitas
+    // e cada "(" empilha uma marca, então o aninhamento não gasta a pilha da JVM.
+    // Os nós são criados e os tipos verificados na mesma ordem e com o mesmo token
+    // atual da descida recursiva, o que mantém a árvore e os diagnósticos.
+    private int parseExpression() {
+        return parseOperators(true);
+    }
+
+    private int parseSimpleExpr() {
+        return parseOperators(false);
+    }
+
+    // Precedência dos operadores binários, por ordinal do TokenType (NONE: não é operador)
+    private static final byte NONE = -1;
+    private static final byte RELATIONAL = 0;
+    private static final byte ADDITIVE = 1;
+    private static final byte MULTIPLICATIVE = 2;
+    private static final byte[] PRECEDENCE = new byte[TokenType.values().length];
+
+    static {
+        Arrays.fill(PRECEDENCE, NONE);
+        for (TokenType type : TokenType.values()) {
+            if (type == TokenType.EQ || type == TokenType.NEQ || type == TokenType.GT
+                    || type == TokenType.GE || type == TokenType.LT || type == TokenType.LE) {
+                PRECEDENCE[type.ordinal()] = RELATIONAL;
+            } else if (type == TokenType.PLUS || type == TokenType.MINUS || type == TokenType.OR) {
+                PRECEDENCE[type.ordinal()] = ADDITIVE;
+            } else if (type == TokenType.STAR || type == TokenType.SLASH || type == TokenType.AND) {
+                PRECEDENCE[type.ordinal()] = MULTIPLICATIVE;
             }
-
-            return "boolean";
         }
-        return inheritedType;
     }
 
-    // simple-expr ::= term simple-expr'
-    private String parseSimpleExpr() {
-        String leftType = parseTerm();
-        return parseSimpleExprPrime(leftType);
-    }
-
-    // simple-expr' ::= addop term simple-expr' | ε
-    private String parseSimpleExprPrime(String inheritedType) {
-        String resultType = inheritedType;
-
-        while (isAddOp(current.type)) {
-            TokenType op = current.type;
-            advance();
-            String rightType = parseTerm();
-
-            if (op == TokenType.OR) {  // operador lógico ||
-                if (!isLogicalCompatible(inheritedType, rightType)) {
-                    semanticError("Na linha " + current.line + ": Tipos incompatíveis para operador ||: "
-                        + resultType + " e " + rightType);
-                }
-                resultType = "boolean";
-            } else {  // operadores aritméticos + e -
-                if (!isArithmeticCompatible(resultType, rightType)) {
-                    semanticError("Na linha " + current.line + ": Tipos incompatíveis em expressão aritmética: "
-                        + resultType + " e " + rightType);
+    // Na pilha de operadores, um binário guarda sua precedência; as outras entradas
+    // são negativas, então a redução por precedência para nelas sem teste extra
+    private static final byte UNARY = -2;
+    private static final byte CLOSED = -3; // marca de simple-expr, ou de expression que já teve o relop
+    private static final byte OPEN = -4;   // marca de expression que ainda aceita um relop
+
+    private int[] operands = new int[16];
+    private int operandCount;
+    private byte[] operatorRoles = new byte[16];
+    private TokenType[] operatorTypes = new TokenType[16];
+    private int[] operatorLines = new int[16]; // numa marca: posição da marca de fora (-1 na primeira)
+    private int operatorCount;
+
+    private int parseOperators(boolean relational) {
+        // Um erro sintático interrompe a análise no meio: as pilhas recomeçam vazias
+        operandCount = 0;
+        operatorCount = 0;
+        int mark = pushOperator(relational ? OPEN : CLOSED, null, -1);
+
+        while (true) {
+            // factor-a: no máximo um operador unário antes do fator
+            if (current.type == TokenType.NOT || current.type == TokenType.MINUS) {
+                pushOperator(UNARY, current.type, current.line);
+                advance();
+            }
+            if (current.type == TokenType.LPAREN) {
+                eat(TokenType.LPAREN);
+                mark = pushOperator(OPEN, null, mark);
+                continue;
+            }
+            // O operando da direita fica nesta variável; só vai para a pilha quando
+            // um operador é empilhado depois dele
+            int operand = parseFactor();
+
+            // Depois de um fator: aplica o unário e empilha o operador seguinte; sem
+            // operador, a expressão termina e, se estava entre parênteses, vira um fator
+            while (true) {
+                if (operatorRoles[operatorCount - 1] == UNARY) operand = reduceUnary(operand);
+
+                byte precedence = PRECEDENCE[current.type.ordinal()];
+                if (precedence == RELATIONAL && operatorRoles[mark] != OPEN) precedence = NONE;
+                if (precedence != NONE) {
+                    while (operatorRoles[operatorCount - 1] >= precedence) operand = reduceBinary(operand);
+                    if (precedence == RELATIONAL) operatorRoles[mark] = CLOSED;
+                    pushOperand(operand);
+                    pushOperator(precedence, current.type, current.line);
+                    advance();
+                    break;
                 }
-                resultType = getArithmeticResultType(resultType, rightType);
+
+                while (operatorCount - 1 > mark) operand = reduceBinary(operand);
+                int outer = operatorLines[mark];
+                operatorCount--;
+                if (outer < 0) return operand;
+                mark = outer;
+                eat(TokenType.RPAREN);
             }
+        }
+    }
 
+    private int pushOperator(byte role, TokenType type, int line) {
+        if (operatorCount == operatorRoles.length) {
+            int capacity = operatorCount * 2;
+            operatorRoles = Arrays.copyOf(operatorRoles, capacity);
+            operatorTypes = Arrays.copyOf(operatorTypes, capacity);
+            operatorLines = Arrays.copyOf(operatorLines, capacity);
+        }
+        operatorRoles[operatorCount] = role;
+        operatorTypes[operatorCount] = type;
+        operatorLines[operatorCount] = line;
+        return operatorCount++;
+    }
+
+    private void pushOperand(int node) {
+        if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+        operands[operandCount++] = node;
+    }
+
+    // Operador binário do topo entre o operando empilhado e right
+    private int reduceBinary(int right) {
+        operatorCount--;
+        TokenType op = operatorTypes[operatorCount];
+        int left = operands[--operandCount];
+        if (log != null) {
+            int node = binary(op, null, operatorLines[operatorCount], left, right);
+            log.binary(node, current);
+            return node;
         }
 
-        return resultType;
+        TypeKind type = TypeKind.binary(op, ast.type(left), ast.type(right));
+        if (PRECEDENCE[op.ordinal()] == RELATIONAL) {
+            if (type == null) binaryTypeError(op, left, right);
+            type = TypeKind.BOOLEAN;
+        } else if (type == null) {
+            binaryTypeError(op, left, right);
+            type = TypeKind.ERRO;
+        }
+        return binary(op, type, operatorLines[operatorCount], left, right);
     }
 
-    // term ::= factor-a term'
-    private String parseTerm() {
-        String leftType = parseFactorA();
-        return parseTermPrime(leftType);
+    private void binaryTypeError(TokenType op, int left, int right) {
+        semanticError(current, TypeKind.binaryError(op, ast.type(left), ast.type(right)));
     }
 
-    // term' ::= mulop factor-a term' | ε
-    private String parseTermPrime(String inheritedType) {
-        while (isMulOp(current.type)) {
-            TokenType op = current.type;
-            advance();
-            String rightType = parseFactorA();
-
-            if (op == TokenType.AND) {
-                // Operador lógico &&
-                if (!isLogicalCompatible(inheritedType, rightType)) {
-                    semanticError("Na linha " + current.line + ": Tipos incompatíveis para operador &&: "
-                        + inheritedType + " e " + rightType);
-                }
-                inheritedType = "boolean";
-            } else {
-                // Operadores aritméticos * ou /
-                if (!isArithmeticCompatible(inheritedType, rightType)) {
-                    semanticError("Na linha " + current.line + ": Tipos incompatíveis para operador " + op + ": " 
-                        + inheritedType + " e " + rightType);
-                }
-                inheritedType = getArithmeticResultType(inheritedType, rightType);
-            }
+    // "!" ou "-" do topo aplicado a operand
+    private int reduceUnary(int operand) {
+        operatorCount--;
+        TokenType op = operatorTypes[operatorCount];
+        int line = operatorLines[operatorCount];
+        if (log != null) {
+            int node = unary(op, null, line, operand);
+            log.unary(node, current);
+            return node;
         }
-        return inheritedType;
-    }
-
-    // factor-a ::= factor | "!" factor | "-" factor
-    private String parseFactorA() {
-        String type;
 
-        if (current.type == TokenType.NOT) {
-            advance();
-            type = parseFactor();
-            if (!type.equals("boolean")) {
-                semanticError("Na linha " + current.line + ": Operador '!' exige tipo boolean.");
-            }
-            return "boolean";
-        } else if (current.type == TokenType.MINUS) {
-            advance();
-            type = parseFactor();
-            if (!isNumeric(type)) {
-                semanticError("Na linha " + current.line + ": Operador unário '-' exige tipo numérico.");
+        TypeKind type = ast.type(operand);
+        if (op == TokenType.NOT) {
+            if (type != TypeKind.BOOLEAN && type != TypeKind.ERRO) {
+                semanticError(current, "Operador '!' exige tipo boolean.");
             }
-            return type;
-        } else {
-            return parseFactor();
+            return unary(TokenType.NOT, TypeKind.BOOLEAN, line, operand);
+        }
+        if (!type.isNumeric() && type != TypeKind.ERRO) {
+            semanticError(current, "Operador unário '-' exige tipo numérico.");
         }
+        return unary(TokenType.MINUS, type, line, operand);
     }
 
-    // factor ::= IDENTIFIER | constant | "(" expression ")"
-    private String parseFactor() {
-        String type;
-
+    // Fator que não começa com "(" (esse caso fica em parseOperators)
+    private int parseFactor() {
         switch (current.type) {
             case IDENTIFIER:
-                String varName = current.lexeme;
                 Token token = current;
                 eat(TokenType.IDENTIFIER);
+                if (log != null) {
+                    int node = invalidFactor(token.line);
+                    log.var(node, idOf(token), token);
+                    return node;
+                }
 
-                Symbol symbol = symbolTable.lookup(varName);
+                Symbol symbol = symbolTable.lookup(idOf(token));
+                resolved(token, symbol);
                 if (symbol == null) {
-                    semanticError("Na linha " + token.line + ": Variável '" + varName + "' não declarada.");
-                    return "erro";
+                    semanticError(token, "Variável '" + token.lexeme() + "' não declarada.");
+                    return invalidFactor(token.line);
                 }
-                return symbol.getType();
+                int node = ast.add(NodeKind.VAR, symbol.getType(), token.line);
+                ast.setValue(node, ast.symbolIndex(symbol));
+                return node;
 
             case INTEGER_CONST:
             case FLOAT_CONST:
             case CHAR_CONST:
                 return parseConstant();
 
-            case LPAREN:
-                eat(TokenType.LPAREN);
-                type = parseExpression();
-                eat(TokenType.RPAREN);
-                return type;
-
             default:
-                semanticError("Na linha " + current.line + ": Fator inválido: " + current.type);
-                return "erro";
+                // um token ERROR no lugar do fator já tem o seu diagnóstico léxico
+                if (current.type == TokenType.ERROR) lexicalError();
+                else semanticError(current, "Fator inválido: " + current.type);
+                return invalidFactor(current.line);
         }
     }
 
+    // Ocupa o lugar de um fator com erro (já reportado): uma variável sem símbolo, de tipo ERRO
+    private int invalidFactor(int line) {
+        int node = ast.add(NodeKind.VAR, TypeKind.ERRO, line);
+        ast.setValue(node, Ast.NONE);
+        return node;
+    }
+
     // constant ::= INTEGER_CONST | FLOAT_CONST | CHAR_CONST
-    private String parseConstant() {
+    private int parseConstant() {
+        Token token = current;
+        int node;
         switch (current.type) {
             case INTEGER_CONST:
                 advance();
-                return "int";
+                node = ast.add(NodeKind.INT_CONST, TypeKind.INT, token.line);
+                int value = parseInteger(token.lexeme());
+                if (value < 0) semanticError(token, "Constante inteira fora do intervalo de int");
+                ast.setValue(node, Math.max(value, 0));
+                return node;
 
             case FLOAT_CONST:
                 advance();
-                return "float";
+                node = ast.add(NodeKind.FLOAT_CONST, TypeKind.FLOAT, token.line);
+                ast.setValue(node, Double.doubleToRawLongBits(Double.parseDouble(token.lexeme())));
+                return node;
 
             case CHAR_CONST:
                 advance();
-                return "char";
+                node = ast.add(NodeKind.CHAR_CONST, TypeKind.CHAR, token.line);
+                ast.setValue(node, token.lexeme().charAt(0));
+                return node;
 
             default:
-                error("Na linha " + current.line + ": Constante esperada.");
-                return "erro";
+                error(current, "Constante esperada.");
+                return Ast.NONE;
         }
     }
 
     // literal ::= STRING_LITERAL | CHAR_CONST
-    private String parseLiteral() {
+    private int parseLiteral() {
         if (current.type == TokenType.STRING) {
+            Token token = current;
             advance();
-            return "string";
+            int node = ast.add(NodeKind.STRING, TypeKind.STRING, token.line);
+            ast.setValue(node, ast.addString(token.lexeme()));
+            return node;
         } else if (current.type == TokenType.CHAR_CONST) {
-            advance();
-            return "char";
+            return parseConstant();
         } else {
-            error("Na linha " + current.line + ": Literal inválido");
-            return "erro";
+            error(current, "Literal inválido");
+            return Ast.NONE;
         }
     }
 
-
-    private boolean isRelOp(TokenType type) {
-        return type == TokenType.EQ || type == TokenType.NEQ ||
-               type == TokenType.GT || type == TokenType.GE ||
-               type == TokenType.LT || type == TokenType.LE;
+    private int binary(TokenType op, TypeKind type, int line, int left, int right) {
+        int node = ast.add(NodeKind.BINARY, type, line, left, right);
+        ast.setOp(node, op);
+        return node;
     }
 
-    private boolean isAddOp(TokenType type) {
-        return type == TokenType.PLUS || type == TokenType.MINUS || type == TokenType.OR;
+    private int unary(TokenType op, TypeKind type, int line, int operand) {
+        int node = ast.add(NodeKind.UNARY, type, line, operand, Ast.NONE);
+        ast.setOp(node, op);
+        return node;
     }
 
-    private boolean isMulOp(TokenType type) {
-        return type == TokenType.STAR || type == TokenType.SLASH || type == TokenType.AND;
-    }
-
-    private boolean isLiteral(TokenType type) {
-        return type == TokenType.STRING || type == TokenType.CHAR_CONST;
-    }
-
-    private boolean isNumeric(String type){
-        if(type.equals("int") || type.equals("float") || type.equals("char")){
-            return true;
+    // Dígitos decimais em inteiro de 32 bits, ou -1 se passarem de Integer.MAX_VALUE
+    // (a constante não tem sinal: o '-' é um operador à parte). Usado também pelo TableParser
+    static int parseInteger(String digits) {
+        int value = 0;
+        try {
+            for (int i = 0; i < digits.length(); i++) {
+                value = Math.addExact(Math.multiplyExact(value, 10), digits.charAt(i) - '0');
+            }
+        } catch (ArithmeticException e) {
+            return -1;
         }
-        return false;
-    }
-
-    private boolean isArithmeticCompatible(String tipo1, String tipo2) {
-        // Mesma categoria
-        if (tipo1.equals("float") && tipo2.equals("float")) return true;
-        if (tipo1.equals("int") && tipo2.equals("int")) return true;
-
-        // Compatibilidades mistas permitidas
-        if ((tipo1.equals("float") && tipo2.equals("int")) ||
-            (tipo1.equals("int") && tipo2.equals("float"))) return true;
-
-        if ((tipo1.equals("int") && tipo2.equals("char")) ||
-            (tipo1.equals("char") && tipo2.equals("int"))) return true;
-
-        // Qualquer outro caso: incompatível
-        return false;
+        return value;
     }
 
-    private boolean isLogicalCompatible(String tipo1, String tipo2) {
-        return tipo1.equals("boolean") && tipo2.equals("boolean");
-    }
+    // Lista encadeada (pelo campo next da Ast) sendo montada: declarações ou comandos
+    private final class NodeList {
+        int head = Ast.NONE;
+        int tail = Ast.NONE;
 
-    private String getArithmeticResultType(String tipo1, String tipo2) {
-        if (tipo1.equals("float") || tipo2.equals("float")) {
-            return "float";
-        }
-        if (tipo1.equals("int") || tipo2.equals("int")) {
-            return "int";
+        // node pode ser o início de uma cadeia já encadeada (ex.: várias DECL)
+        void add(int node) {
+            if (node == Ast.NONE) return;
+            if (head == Ast.NONE) head = node;
+            else ast.setNext(tail, node);
+            tail = node;
+            while (ast.next(tail) != Ast.NONE) tail = ast.next(tail);
         }
-        if (tipo1.equals("char") && tipo2.equals("char")) {
-            return "int"; // ou "char", conforme política da linguagem
-        }
-        return "erro";
     }
 
-    private boolean isRelationalCompatible(String t1, String t2, TokenType op) {
-        // Comparação de igualdade aceita mais tipos
-        if (op == TokenType.EQ || op == TokenType.NEQ) {
-            // Permite comparação entre booleanos, strings, numéricos e char
-            if (t1.equals(t2)) return true;
-            if ((t1.equals("int") || t1.equals("float") || t1.equals("char")) &&
-                (t2.equals("int") || t2.equals("float") || t2.equals("char"))) {
-                return true;
-            }
-        } else {
-            // Para <, >, <=, >=: só numéricos e char
-            if ((t1.equals("int") || t1.equals("float") || t1.equals("char")) &&
-                (t2.equals("int") || t2.equals("float") || t2.equals("char"))) {
-                return true;
-            }
-        }
-        return false;
+    // Id do identificador no pool; o nome é internado aqui se o token não trouxer um id válido
+    private int idOf(Token token) {
+        return tokenIds && token.id >= 0 ? token.id : identifiers.intern(token.lexeme());
     }
 
-    private boolean isWritableType(String type) {
-        return type.equals("int") || type.equals("float") ||
-            type.equals("char") || type.equals("string") || type.equals("boolean");
+    private boolean isLiteral(TokenType type) {
+        return type == TokenType.STRING || type == TokenType.CHAR_CONST;
     }
 
 
-}
+}
\ No newline at end of file
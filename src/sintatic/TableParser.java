@@ -0,0 +1,639 @@
+package sintatic;
+
+import ast.Ast;
+import ast.NodeKind;
+import lexical.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import diagnostic.Diagnostic;
+import semantic.*;
+
+// Analisador LL(1) dirigido por tabela: a gramática abaixo (a mesma dos comentários
+// do Parser, com as ações semânticas marcadas) vira uma tabela [não-terminal][token]
+// e a análise é um laço sobre uma pilha explícita, sem recursão, então a
+// profundidade de aninhamento só é limitada pela memória. As ações montam a
+// mesma árvore e os mesmos diagnósticos do Parser; os valores que elas trocam
+// (nós, linhas, tokens e símbolos) ficam em pilhas próprias. No modo de
+// recuperação, um erro dentro de stmt ou decl descarta o resto dele e sincroniza
+// nos tokens dados pela gramática (o FOLLOW de stmt, como o Parser faz à mão).
+public class TableParser {
+
+    private static final String GRAMMAR = String.join("\n",
+        "program ::= @start PROGRAM? @header opt-decl-list BEGIN? stmt-list @end @program",
+        "opt-decl-list ::= decl-list | @none",
+        "decl-list ::= @list decl! @append decl-list' @close",
+        "decl-list' ::= decl! @append decl-list' | ε",
+        "decl ::= type @colon COLON ident-list SEMICOLON? @decl",
+        "ident-list ::= IDENTIFIER @ident ident-list'",
+        "ident-list' ::= COMMA IDENTIFIER @ident ident-list' | ε",
+        "type ::= INT @type | FLOAT @type | CHAR @type",
+        "stmt-list ::= @list stmt! @append stmt-list' @close",
+        "stmt-list' ::= SEMICOLON stmt! @append stmt-list' | ε",
+        "stmt ::= assign-stmt | if-stmt | while-stmt | repeat-stmt | read-stmt | write-stmt",
+        "assign-stmt ::= @assign-target IDENTIFIER ASSIGN simple-expr @assign",
+        "if-stmt ::= @line IF condition THEN @block opt-decl-list stmt-list @exit-scope @if if-stmt' @else",
+        "if-stmt' ::= END @none | ELSE @block decl stmt-list @exit-scope END @else-block",
+        "repeat-stmt ::= @line REPEAT @block opt-decl-list stmt-list stmt-suffix @exit-scope @repeat",
+        "stmt-suffix ::= UNTIL condition",
+        "while-stmt ::= @line stmt-prefix @block opt-decl-list stmt-list END @exit-scope @while",
+        "stmt-prefix ::= WHILE condition DO",
+        "read-stmt ::= @line IN LPAREN IDENTIFIER @read-target RPAREN @read",
+        "write-stmt ::= @line OUT LPAREN writable RPAREN @write",
+        "writable ::= literal | simple-expr",
+        "condition ::= expression @condition",
+        "expression ::= simple-expr expression'",
+        "expression' ::= @operator relop simple-expr @relational | ε",
+        "simple-expr ::= term simple-expr'",
+        "simple-expr' ::= @operator addop term @binary simple-expr' | ε",
+        "term ::= factor-a term'",
+        "term' ::= @operator mulop factor-a @binary term' | ε",
+        "factor-a ::= factor | @operator NOT factor @unary | @operator MINUS factor @unary",
+        "factor ::= IDENTIFIER @variable | constant | LPAREN expression RPAREN",
+        "constant ::= INTEGER_CONST @constant | FLOAT_CONST @constant | CHAR_CONST @constant",
+        "literal ::= STRING @string | CHAR_CONST @constant",
+        "relop ::= EQ | NEQ | GT | GE | LT | LE",
+        "addop ::= PLUS | MINUS | OR",
+        "mulop ::= STAR | SLASH | AND",
+        // writable com CHAR_CONST é conflito: fica literal, como no Parser
+        "%otherwise writable simple-expr",
+        "%otherwise factor-a factor",
+        "%otherwise factor @invalid-factor",
+        "%error type Tipo esperado (int, float ou char)",
+        "%error stmt Comando inválido: $",
+        "%error if-stmt' Esperado END ou ELSE",
+        "%error constant Constante esperada.",
+        "%error literal Literal inválido",
+        "%sync decl SEMICOLON! BEGIN INT FLOAT CHAR",
+        "%nest stmt IF WHILE REPEAT / END UNTIL");
+
+    private enum Action {
+        START, HEADER, END, PROGRAM, NONE, LIST, APPEND, CLOSE, COLON, IDENT, TYPE, DECL,
+        LINE, BLOCK, EXIT_SCOPE, ASSIGN_TARGET, ASSIGN, IF, ELSE, ELSE_BLOCK, REPEAT, WHILE,
+        READ_TARGET, READ, WRITE, CONDITION, OPERATOR, RELATIONAL, BINARY, UNARY,
+        VARIABLE, CONSTANT, STRING, INVALID_FACTOR
+    }
+
+    // A tabela é montada uma vez e compartilhada (só é lida durante a análise)
+    private static final Grammar grammar = new Grammar(GRAMMAR);
+    private static final int STMT = grammar.existing("stmt");
+    private static final TokenType[] TOKENS = TokenType.values();
+    private static final TypeKind[] TYPES = TypeKind.values();
+    private static final Action[] ACTIONS = new Action[grammar.actions().size()];
+
+    static {
+        for (int i = 0; i < ACTIONS.length; i++) {
+            ACTIONS[i] = Action.valueOf(grammar.actions().get(i).toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private final TokenStream input;
+    private Token current;
+    private Token previous;
+    private SymbolTable symbolTable;
+    private Ast ast;
+
+    private final IdentifierPool identifiers;
+    private final boolean tokenIds;
+
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private boolean recovery = false;
+    private Diagnostic lexical; // do token ERROR atual, se já registrado
+
+    // Pilha de análise: itens da gramática ainda por processar
+    private int[] stack = new int[64];
+    private int top;
+
+    // Valores das ações
+    private int[] values = new int[64];
+    private int valueCount;
+    private Token[] tokens = new Token[16];
+    private int tokenCount;
+    private Symbol[] symbols = new Symbol[16];
+    private int symbolCount;
+
+    // Pontos de recuperação abertos: alturas das pilhas, nível de escopo e blocos
+    // abertos na entrada
+    private int[] frames = new int[7 * 16];
+    private int frameCount;
+
+    // IF, WHILE e REPEAT consumidos cujo END ou UNTIL ainda não veio
+    private int openBlocks;
+
+    public TableParser(List<Token> tokens) {
+        this(TokenStream.of(tokens));
+    }
+
+    public TableParser(TokenStream input) {
+        this(input, null);
+    }
+
+    public TableParser(Lexer lexer) {
+        this(lexer, lexer.getIdentifierPool());
+    }
+
+    // identifiers é o pool que gerou os ids dos tokens (null: os nomes são internados aqui)
+    public TableParser(TokenStream input, IdentifierPool identifiers) {
+        this.input = input;
+        this.tokenIds = identifiers != null;
+        this.identifiers = identifiers != null ? identifiers : new IdentifierPool();
+        this.current = input.nextToken();
+    }
+
+    public void setRecovery(boolean recovery) {
+        this.recovery = recovery;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Conflitos da tabela LL(1), resolvidos pela ordem das alternativas
+    public static List<String> conflicts() {
+        return grammar.conflicts();
+    }
+
+    public Ast parseProgram() {
+        top = 0;
+        push(Grammar.item(Grammar.NONTERMINAL, grammar.start()));
+        while (top > 0) {
+            int item = stack[--top];
+            try {
+                step(item);
+            } catch (ParseException e) {
+                if (!recovery || frameCount == 0) throw e;
+                recover();
+            }
+        }
+        return ast;
+    }
+
+    private void step(int item) {
+        int index = Grammar.index(item);
+        switch (Grammar.kind(item)) {
+            case Grammar.TERMINAL:
+                if (current.type.ordinal() != index) expected(index);
+                if (grammar.opens(STMT, current.type)) openBlocks++;
+                else if (grammar.closes(STMT, current.type)) openBlocks--;
+                previous = current;
+                advance();
+                break;
+
+            case Grammar.LENIENT:
+                expect(TOKENS[index]);
+                break;
+
+            case Grammar.RECOVERY:
+                openFrame(index);
+                expand(index);
+                break;
+
+            case Grammar.NONTERMINAL:
+                expand(index);
+                break;
+
+            case Grammar.RECOVERED:
+                // um stmt que termina num token ERROR é descartado, como no Parser
+                if (recovery && current.type == TokenType.ERROR && frames[(frameCount - 1) * 7 + 5] == STMT) {
+                    throw new ParseException(lexicalError());
+                }
+                frameCount--;
+                break;
+
+            default:
+                perform(ACTIONS[index]);
+        }
+    }
+
+    // Troca o não-terminal pela produção da tabela, empilhada do fim para o começo
+    private void expand(int nonterminal) {
+        int production = grammar.predict(nonterminal, current.type);
+        if (production < 0) error(current, grammar.error(nonterminal, current.type));
+        int[] items = grammar.rhs(production);
+        for (int i = items.length - 1; i >= 0; i--) push(items[i]);
+    }
+
+    private void expected(int type) {
+        error(current, "Esperado: " + TOKENS[type] + ", mas encontrado: " + current.type);
+    }
+
+    // Como o expect do Parser: no modo de recuperação, um token que falta é
+    // registrado como erro e a análise segue como se ele estivesse lá
+    private void expect(TokenType type) {
+        if (current.type == type) {
+            previous = current;
+            advance();
+            return;
+        }
+        try {
+            expected(type.ordinal());
+        } catch (ParseException e) {
+            if (!recovery) throw e;
+        }
+    }
+
+    // O marcador RECOVERED fica abaixo da produção: quando sai da pilha, o ponto terminou sem erro
+    private void openFrame(int nonterminal) {
+        if (frameCount * 7 == frames.length) frames = Arrays.copyOf(frames, frames.length * 2);
+        int base = frameCount * 7;
+        frames[base] = top;
+        frames[base + 1] = valueCount;
+        frames[base + 2] = tokenCount;
+        frames[base + 3] = symbolCount;
+        frames[base + 4] = symbolTable.getScopeLevel();
+        frames[base + 5] = nonterminal;
+        frames[base + 6] = openBlocks;
+        frameCount++;
+        push(Grammar.item(Grammar.RECOVERED, 0));
+    }
+
+    // Abandona o ponto de recuperação mais interno: descarta o que ele deixou nas
+    // pilhas, fecha os escopos abertos, sincroniza e deixa NONE no lugar do valor
+    private void recover() {
+        frameCount--;
+        int base = frameCount * 7;
+        top = frames[base];
+        valueCount = frames[base + 1];
+        Arrays.fill(tokens, frames[base + 2], tokenCount, null);
+        tokenCount = frames[base + 2];
+        Arrays.fill(symbols, frames[base + 3], symbolCount, null);
+        symbolCount = frames[base + 3];
+        while (symbolTable.getScopeLevel() > frames[base + 4]) symbolTable.exitScope();
+
+        int nonterminal = frames[base + 5];
+        // os blocos abertos pelo que foi abandonado ainda têm o seu fechamento pela frente
+        int depth = openBlocks - frames[base + 6];
+        openBlocks = frames[base + 6];
+        while (current.type != TokenType.EOF) {
+            if (depth == 0 && grammar.synchronizes(nonterminal, current.type)) {
+                if (grammar.consumes(nonterminal, current.type)) advance();
+                break;
+            }
+            if (grammar.opens(nonterminal, current.type)) depth++;
+            else if (grammar.closes(nonterminal, current.type)) depth--;
+            advance();
+        }
+        pushValue(Ast.NONE);
+    }
+
+    private void perform(Action action) {
+        switch (action) {
+            case START:
+                pushValue(current.line);
+                ast = new Ast();
+                break;
+            case HEADER:
+                symbolTable = new SymbolTable(identifiers);
+                break;
+            case END:
+                // END do programa: o que vier depois dele também é um erro, como no Parser
+                if (current.type == TokenType.END) {
+                    advance();
+                    expect(TokenType.EOF);
+                } else {
+                    expect(TokenType.END);
+                }
+                break;
+            case PROGRAM: {
+                int stmts = popValue();
+                int decls = popValue();
+                ast.setRoot(ast.add(NodeKind.PROGRAM, null, popValue(), decls, stmts));
+                break;
+            }
+            case NONE:
+                pushValue(Ast.NONE);
+                break;
+
+            // Listas encadeadas: início e fim ficam nas pilha até o CLOSE
+            case LIST:
+                pushValue(Ast.NONE);
+                pushValue(Ast.NONE);
+                break;
+            case APPEND:
+                append(popValue());
+                break;
+            case CLOSE:
+                valueCount--;
+                break;
+
+            case COLON:
+                pushValue(tokenCount);
+                pushToken(current);
+                break;
+            case IDENT:
+                pushToken(previous);
+                break;
+            case TYPE:
+                pushValue(TypeKind.of(previous.type).ordinal());
+                break;
+            case DECL:
+                declare();
+                break;
+
+            case LINE:
+                pushValue(current.line);
+                break;
+            case BLOCK:
+                pushValue(current.line);
+                symbolTable.enterScope();
+                break;
+            case EXIT_SCOPE:
+                symbolTable.exitScope();
+                break;
+
+            case ASSIGN_TARGET: {
+                Symbol symbol = symbolTable.lookup(idOf(current));
+                if (symbol == null) semanticError(current, "Variável '" + current.lexeme() + "' não declarada.");
+                pushToken(current);
+                pushSymbol(symbol);
+                break;
+            }
+            case ASSIGN: {
+                int value = popValue();
+                int node = ast.add(NodeKind.ASSIGN, null, popToken().line, value, Ast.NONE);
+                ast.setValue(node, ast.symbolIndex(popSymbol()));
+                pushValue(node);
+                break;
+            }
+
+            case IF: {
+                int block = block();
+                int condition = popValue();
+                pushValue(ast.add(NodeKind.IF, null, popValue(), condition, block));
+                break;
+            }
+            case ELSE: {
+                int elseBlock = popValue();
+                ast.setThird(values[valueCount - 1], elseBlock);
+                break;
+            }
+            case ELSE_BLOCK:
+                pushValue(block());
+                break;
+            case REPEAT: {
+                int condition = popValue();
+                int block = block();
+                pushValue(ast.add(NodeKind.REPEAT, null, popValue(), condition, block));
+                break;
+            }
+            case WHILE: {
+                int block = block();
+                int condition = popValue();
+                pushValue(ast.add(NodeKind.WHILE, null, popValue(), condition, block));
+                break;
+            }
+
+            case READ_TARGET: {
+                Symbol symbol = symbolTable.lookup(idOf(previous));
+                if (symbol == null) semanticError(previous, "Identificador '" + previous.lexeme() + "' não declarado.");
+                pushSymbol(symbol);
+                break;
+            }
+            case READ: {
+                int node = ast.add(NodeKind.READ, null, popValue());
+                ast.setValue(node, ast.symbolIndex(popSymbol()));
+                pushValue(node);
+                break;
+            }
+            case WRITE: {
+                int value = popValue();
+                pushValue(ast.add(NodeKind.WRITE, null, popValue(), value, Ast.NONE));
+                break;
+            }
+
+            case CONDITION: {
+                TypeKind type = ast.type(values[valueCount - 1]);
+                if (type != TypeKind.BOOLEAN && type != TypeKind.ERRO) {
+                    semanticError(current, "Condição deve ser do tipo boolean, mas foi " + type);
+                }
+                break;
+            }
+            case OPERATOR:
+                pushValue(current.type.ordinal());
+                pushValue(current.line);
+                break;
+            case RELATIONAL:
+            case BINARY:
+                binary(action == Action.RELATIONAL);
+                break;
+            case UNARY:
+                unary();
+                break;
+
+            case VARIABLE: {
+                Symbol symbol = symbolTable.lookup(idOf(previous));
+                if (symbol == null) {
+                    semanticError(previous, "Variável '" + previous.lexeme() + "' não declarada.");
+                    pushValue(invalidFactor(previous.line));
+                    break;
+                }
+                int node = ast.add(NodeKind.VAR, symbol.getType(), previous.line);
+                ast.setValue(node, ast.symbolIndex(symbol));
+                pushValue(node);
+                break;
+            }
+            case CONSTANT:
+                pushValue(constant(previous));
+                break;
+            case STRING: {
+                int node = ast.add(NodeKind.STRING, TypeKind.STRING, previous.line);
+                ast.setValue(node, ast.addString(previous.lexeme()));
+                pushValue(node);
+                break;
+            }
+            case INVALID_FACTOR:
+                // um token ERROR no lugar do fator já tem o seu diagnóstico léxico
+                if (current.type == TokenType.ERROR) lexicalError();
+                else semanticError(current, "Fator inválido: " + current.type);
+                pushValue(invalidFactor(current.line));
+                break;
+        }
+    }
+
+    // [linha do bloco, declarações, comandos] do topo viram um BLOCK
+    private int block() {
+        int stmts = popValue();
+        int decls = popValue();
+        return ast.add(NodeKind.BLOCK, null, popValue(), decls, stmts);
+    }
+
+    // Acrescenta node (ou uma cadeia já encadeada) à lista [início, fim] do topo
+    private void append(int node) {
+        if (node == Ast.NONE) return;
+        int tail = values[valueCount - 1];
+        if (values[valueCount - 2] == Ast.NONE) values[valueCount - 2] = node;
+        else ast.setNext(tail, node);
+        tail = node;
+        while (ast.next(tail) != Ast.NONE) tail = ast.next(tail);
+        values[valueCount - 1] = tail;
+    }
+
+    // Pilhas: [tipo, marca] nos valores, [":" e os identificadores] nos tokens a partir da marca
+    private void declare() {
+        int mark = popValue();
+        TypeKind type = TYPES[popValue()];
+        Token colon = tokens[mark];
+
+        int head = Ast.NONE;
+        int tail = Ast.NONE;
+        for (int i = mark + 1; i < tokenCount; i++) {
+            Token id = tokens[i];
+            int nameId = idOf(id);
+            Symbol symbol = new Symbol(identifiers.name(nameId), type);
+            symbol.offset = id.offset;
+            if (!symbolTable.add(nameId, symbol)) {
+                semanticError(colon, "Redeclaração da variável '" + id.lexeme() + "'");
+                continue;
+            }
+            int decl = ast.add(NodeKind.DECL, type, id.line);
+            ast.setValue(decl, ast.symbolIndex(symbol));
+            if (head == Ast.NONE) head = decl;
+            else ast.setNext(tail, decl);
+            tail = decl;
+        }
+        Arrays.fill(tokens, mark, tokenCount, null);
+        tokenCount = mark;
+        pushValue(head);
+    }
+
+    // Pilha: [esquerdo, operador, linha, direito]
+    private void binary(boolean relational) {
+        int right = popValue();
+        int line = popValue();
+        TokenType op = TOKENS[popValue()];
+        int left = popValue();
+
+        TypeKind type = TypeKind.binary(op, ast.type(left), ast.type(right));
+        if (relational) {
+            if (type == null) binaryTypeError(op, left, right);
+            type = TypeKind.BOOLEAN;
+        } else if (type == null) {
+            binaryTypeError(op, left, right);
+            type = TypeKind.ERRO;
+        }
+        int node = ast.add(NodeKind.BINARY, type, line, left, right);
+        ast.setOp(node, op);
+        pushValue(node);
+    }
+
+    private void binaryTypeError(TokenType op, int left, int right) {
+        semanticError(current, TypeKind.binaryError(op, ast.type(left), ast.type(right)));
+    }
+
+    // Pilha: [operador, linha, operando]
+    private void unary() {
+        int operand = popValue();
+        int line = popValue();
+        TokenType op = TOKENS[popValue()];
+
+        TypeKind type = ast.type(operand);
+        if (op == TokenType.NOT) {
+            if (type != TypeKind.BOOLEAN && type != TypeKind.ERRO) {
+                semanticError(current, "Operador '!' exige tipo boolean.");
+            }
+            type = TypeKind.BOOLEAN;
+        } else if (!type.isNumeric() && type != TypeKind.ERRO) {
+            semanticError(current, "Operador unário '-' exige tipo numérico.");
+        }
+        int node = ast.add(NodeKind.UNARY, type, line, operand, Ast.NONE);
+        ast.setOp(node, op);
+        pushValue(node);
+    }
+
+    private int constant(Token token) {
+        int node;
+        switch (token.type) {
+            case INTEGER_CONST:
+                node = ast.add(NodeKind.INT_CONST, TypeKind.INT, token.line);
+                int value = Parser.parseInteger(token.lexeme());
+                if (value < 0) semanticError(token, "Constante inteira fora do intervalo de int");
+                ast.setValue(node, Math.max(value, 0));
+                return node;
+            case FLOAT_CONST:
+                node = ast.add(NodeKind.FLOAT_CONST, TypeKind.FLOAT, token.line);
+                ast.setValue(node, Double.doubleToRawLongBits(Double.parseDouble(token.lexeme())));
+                return node;
+            default:
+                node = ast.add(NodeKind.CHAR_CONST, TypeKind.CHAR, token.line);
+                ast.setValue(node, token.lexeme().charAt(0));
+                return node;
+        }
+    }
+
+    private int invalidFactor(int line) {
+        int node = ast.add(NodeKind.VAR, TypeKind.ERRO, line);
+        ast.setValue(node, Ast.NONE);
+        return node;
+    }
+
+    private void advance() {
+        if (current.type != TokenType.EOF) {
+            if (current.type == TokenType.ERROR) lexicalError();
+            current = input.nextToken();
+            lexical = null;
+        }
+    }
+
+    // Como no Parser: um erro sintático sobre um token ERROR é o erro léxico dele
+    private void error(Token at, String msg) {
+        if (current.type == TokenType.ERROR) throw new ParseException(lexicalError());
+        Diagnostic diagnostic = new Diagnostic(Diagnostic.Kind.SINTATICO, at.line, at.offset, at.length, msg);
+        diagnostics.add(diagnostic);
+        throw new ParseException(diagnostic);
+    }
+
+    private Diagnostic lexicalError() {
+        if (lexical == null) {
+            lexical = Lexer.diagnosticOf(current);
+            diagnostics.add(lexical);
+        }
+        return lexical;
+    }
+
+    private void semanticError(Token at, String msg) {
+        Diagnostic diagnostic = new Diagnostic(Diagnostic.Kind.SEMANTICO, at.line, at.offset, at.length, msg);
+        diagnostics.add(diagnostic);
+        if (!recovery) throw new ParseException(diagnostic);
+    }
+
+    private int idOf(Token token) {
+        return tokenIds && token.id >= 0 ? token.id : identifiers.intern(token.lexeme());
+    }
+
+    private void push(int item) {
+        if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+        stack[top++] = item;
+    }
+
+    private void pushValue(int value) {
+        if (valueCount == values.length) values = Arrays.copyOf(values, valueCount * 2);
+        values[valueCount++] = value;
+    }
+
+    private int popValue() {
+        return values[--valueCount];
+    }
+
+    private void pushToken(Token token) {
+        if (tokenCount == tokens.length) tokens = Arrays.copyOf(tokens, tokenCount * 2);
+        tokens[tokenCount++] = token;
+    }
+
+    private Token popToken() {
+        Token token = tokens[--tokenCount];
+        tokens[tokenCount] = null;
+        return token;
+    }
+
+    private void pushSymbol(Symbol symbol) {
+        if (symbolCount == symbols.length) symbols = Arrays.copyOf(symbols, symbolCount * 2);
+        symbols[symbolCount++] = symbol;
+    }
+
+    private Symbol popSymbol() {
+        Symbol symbol = symbols[--symbolCount];
+        symbols[symbolCount] = null;
+        return symbol;
+    }
+}
\ No newline at end of file
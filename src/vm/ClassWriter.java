@@ -0,0 +1,125 @@
+package vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Escreve um arquivo .class mínimo: uma classe final com um único método
+// estático. Usa a versão 49 (Java 5) do formato, a última que não exige
+// StackMapTable, e deixa a verificação por inferência de tipos a cargo da JVM.
+final class ClassWriter {
+    private static final int VERSION = 49;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;  // a entrada 0 não é usada
+
+    // ---- constant pool ----
+
+    int utf8(String text) {
+        return entry("U" + text, 1, () -> pool.writeUTF(text));
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return entry("C" + internalName, 7, () -> pool.writeShort(name));
+    }
+
+    int string(String text) {
+        int utf8 = utf8(text);
+        return entry("S" + text, 8, () -> pool.writeShort(utf8));
+    }
+
+    int integer(int value) {
+        return entry("I" + value, 3, () -> pool.writeInt(value));
+    }
+
+    // Ocupa duas posições do pool
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int index = entry("D" + bits, 6, () -> pool.writeLong(bits));
+        if (index == poolSize - 1) poolSize++;
+        return index;
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = entry("N" + name + ' ' + descriptor, 12, () -> {
+            pool.writeShort(nameIndex);
+            pool.writeShort(descriptorIndex);
+        });
+        return entry("M" + owner + '.' + name + descriptor, 10, () -> {
+            pool.writeShort(ownerIndex);
+            pool.writeShort(nameAndType);
+        });
+    }
+
+    private interface Body {
+        void write() throws IOException;
+    }
+
+    private int entry(String key, int tag, Body body) {
+        Integer index = entries.get(key);
+        if (index != null) return index;
+        try {
+            pool.writeByte(tag);
+            body.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        entries.put(key, poolSize);
+        return poolSize++;
+    }
+
+    // ---- classe ----
+
+    byte[] toByteArray(String className, String methodName, String descriptor,
+                       byte[] code, int codeLength, int maxStack, int maxLocals) {
+        int thisClass = classRef(className);
+        int superClass = classRef("java/lang/Object");
+        int name = utf8(methodName);
+        int type = utf8(descriptor);
+        int codeAttribute = utf8("Code");
+        if (poolSize > 0xFFFF) throw new IllegalStateException("Constant pool grande demais");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(poolBytes.size() + codeLength + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            poolBytes.writeTo(out);
+
+            out.writeShort(0x0010 | 0x0020);  // ACC_FINAL | ACC_SUPER
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);  // interfaces
+            out.writeShort(0);  // campos
+
+            out.writeShort(1);  // métodos
+            out.writeShort(0x0001 | 0x0008);  // ACC_PUBLIC | ACC_STATIC
+            out.writeShort(name);
+            out.writeShort(type);
+            out.writeShort(1);  // atributos do método: só Code
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + codeLength);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(codeLength);
+            out.write(code, 0, codeLength);
+            out.writeShort(0);  // tabela de exceções
+            out.writeShort(0);  // atributos do Code
+
+            out.writeShort(0);  // atributos da classe
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
\ No newline at end of file
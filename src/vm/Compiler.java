@@ -0,0 +1,340 @@
+package vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ast.Ast;
+import ast.NodeKind;
+import lexical.TokenType;
+import semantic.Symbol;
+import semantic.TypeKind;
+
+// Traduz a Ast de um programa sem erros para o código da VM.
+// Cada variável ganha uma posição fixa: as de um bloco são alocadas depois das
+// dos escopos que o envolvem e liberadas ao fim dele, de modo que blocos irmãos
+// reaproveitam as mesmas posições (como uma pilha de escopos).
+public final class Compiler {
+    private final Ast ast;
+    private final int[] slotOf;
+
+    private int[] code = new int[256];
+    private int[] lines = new int[256];
+    private int size = 0;
+    private int line = 0;
+
+    private final List<Double> floats = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private int nextSlot = 0;
+    private int maxSlots = 0;
+    private int stack = 0;
+    private int maxStack = 0;
+
+    private Compiler(Ast ast) {
+        this.ast = ast;
+        this.slotOf = new int[ast.symbols().size()];
+        Arrays.fill(slotOf, -1);
+    }
+
+    // A Ast deve vir de um parseProgram sem diagnósticos
+    public static Program compile(Ast ast) {
+        Compiler compiler = new Compiler(ast);
+        int root = ast.root();
+        compiler.declarations(ast.first(root));
+        compiler.statements(ast.second(root));
+        compiler.emit(Opcode.HALT);
+        return compiler.program();
+    }
+
+    private Program program() {
+        double[] constants = new double[floats.size()];
+        for (int i = 0; i < constants.length; i++) constants[i] = floats.get(i);
+        return new Program(Arrays.copyOf(code, size), Arrays.copyOf(lines, size), constants,
+            strings.toArray(new String[0]), maxSlots, maxStack);
+    }
+
+    // ---- comandos ----
+
+    private void declarations(int decl) {
+        for (int node = decl; node != Ast.NONE; node = ast.next(node)) {
+            line = ast.line(node);
+            int slot = nextSlot++;
+            maxSlots = Math.max(maxSlots, nextSlot);
+            slotOf[symbol(node).index] = slot;
+
+            // A posição pode ter sido usada por um bloco irmão: começa em zero
+            emit(Opcode.ICONST, 0);
+            emit(Opcode.STORE, slot);
+        }
+    }
+
+    private void statements(int stmt) {
+        for (int node = stmt; node != Ast.NONE; node = ast.next(node)) {
+            statement(node);
+        }
+    }
+
+    private void block(int block) {
+        int scope = nextSlot;
+        declarations(ast.first(block));
+        statements(ast.second(block));
+        nextSlot = scope;
+    }
+
+    private void statement(int node) {
+        line = ast.line(node);
+        switch (ast.kind(node)) {
+            case BLOCK:
+                block(node);
+                break;
+            case ASSIGN: {
+                Symbol symbol = symbol(node);
+                expression(ast.first(node), symbol.getType());
+                emit(Opcode.STORE, slot(symbol));
+                break;
+            }
+            case IF: {
+                List<Integer> toElse = new ArrayList<>();
+                jumpIfFalse(ast.first(node), toElse);
+                block(ast.second(node));
+                if (ast.third(node) == Ast.NONE) {
+                    patch(toElse, size);
+                } else {
+                    int toEnd = emitJump(Opcode.JMP);
+                    patch(toElse, size);
+                    block(ast.third(node));
+                    patch(toEnd, size);
+                }
+                break;
+            }
+            case WHILE: {
+                int top = size;
+                List<Integer> toEnd = new ArrayList<>();
+                jumpIfFalse(ast.first(node), toEnd);
+                block(ast.second(node));
+                emit(Opcode.JMP, top);
+                patch(toEnd, size);
+                break;
+            }
+            case REPEAT: {
+                // A condição do until enxerga as variáveis do bloco
+                int top = size;
+                int body = ast.second(node);
+                int scope = nextSlot;
+                declarations(ast.first(body));
+                statements(ast.second(body));
+                line = ast.line(node);
+                List<Integer> toTop = new ArrayList<>();
+                jumpIfFalse(ast.first(node), toTop);
+                patch(toTop, top);
+                nextSlot = scope;
+                break;
+            }
+            case READ: {
+                Symbol symbol = symbol(node);
+                int op = symbol.getType() == TypeKind.FLOAT ? Opcode.READF
+                       : symbol.getType() == TypeKind.CHAR ? Opcode.READC : Opcode.READI;
+                emit(op, slot(symbol));
+                break;
+            }
+            case WRITE: {
+                int value = ast.first(node);
+                if (ast.kind(value) == NodeKind.STRING) {
+                    strings.add(ast.string(value));
+                    emit(Opcode.WRITES, strings.size() - 1);
+                    break;
+                }
+                TypeKind type = ast.type(value);
+                expression(value, type);
+                emit(type == TypeKind.FLOAT ? Opcode.WRITEF
+                   : type == TypeKind.CHAR ? Opcode.WRITEC
+                   : type == TypeKind.BOOLEAN ? Opcode.WRITEB : Opcode.WRITEI);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Comando inesperado: " + ast.kind(node));
+        }
+    }
+
+    // ---- condições ----
+
+    // Gera o teste de uma condição saltando quando ela é falsa; os saltos
+    // emitidos são acrescentados a jumps para serem ajustados depois
+    private void jumpIfFalse(int node, List<Integer> jumps) {
+        if (ast.kind(node) == NodeKind.BINARY) {
+            TokenType op = ast.op(node);
+            if (op == TokenType.AND) {
+                jumpIfFalse(ast.first(node), jumps);
+                jumpIfFalse(ast.second(node), jumps);
+                return;
+            }
+            int compare = compareOp(node);
+            if (compare >= 0) {
+                line = ast.line(node);
+                jumps.add(emitJump(compare - Opcode.IEQ + Opcode.JF_IEQ));
+                return;
+            }
+        }
+        expression(node, TypeKind.BOOLEAN);
+        jumps.add(emitJump(Opcode.JZ));
+    }
+
+    // Empilha os operandos de uma comparação e devolve o opcode IEQ..FLE (ou -1)
+    private int compareOp(int node) {
+        int base;
+        switch (ast.op(node)) {
+            case EQ: base = Opcode.IEQ; break;
+            case NEQ: base = Opcode.INE; break;
+            case GT: base = Opcode.IGT; break;
+            case GE: base = Opcode.IGE; break;
+            case LT: base = Opcode.ILT; break;
+            case LE: base = Opcode.ILE; break;
+            default: return -1;
+        }
+        int left = ast.first(node);
+        int right = ast.second(node);
+        boolean floating = ast.type(left) == TypeKind.FLOAT || ast.type(right) == TypeKind.FLOAT;
+        TypeKind operands = floating ? TypeKind.FLOAT : TypeKind.INT;
+        expression(left, operands);
+        expression(right, operands);
+        return floating ? base - Opcode.IEQ + Opcode.FEQ : base;
+    }
+
+    // ---- expressões ----
+
+    // Empilha o valor da expressão convertido para o tipo pedido
+    private void expression(int node, TypeKind target) {
+        TypeKind type = ast.type(node);
+        if (type == TypeKind.ERRO) {
+            throw new IllegalArgumentException("Programa com erros não pode ser compilado (linha " + ast.line(node) + ")");
+        }
+        line = ast.line(node);
+
+        switch (ast.kind(node)) {
+            case INT_CONST:
+            case CHAR_CONST:
+            case BOOL_CONST:
+                emit(Opcode.ICONST, ast.intValue(node));
+                break;
+            case FLOAT_CONST:
+                floats.add(ast.floatValue(node));
+                emit(Opcode.FCONST, floats.size() - 1);
+                break;
+            case VAR:
+                emit(Opcode.LOAD, slot(symbol(node)));
+                break;
+            case UNARY:
+                if (ast.op(node) == TokenType.NOT) {
+                    expression(ast.first(node), TypeKind.BOOLEAN);
+                    emit(Opcode.NOT);
+                } else {
+                    expression(ast.first(node), type);
+                    emit(type == TypeKind.FLOAT ? Opcode.FNEG : Opcode.INEG);
+                }
+                break;
+            case BINARY:
+                binary(node, type);
+                break;
+            default:
+                throw new IllegalStateException("Expressão inesperada: " + ast.kind(node));
+        }
+        convert(type, target);
+    }
+
+    private void binary(int node, TypeKind type) {
+        TokenType op = ast.op(node);
+        if (op == TokenType.AND || op == TokenType.OR) {
+            // Curto-circuito: o valor do lado esquerdo decide se o direito é avaliado
+            expression(ast.first(node), TypeKind.BOOLEAN);
+            emit(Opcode.DUP);
+            int skip = emitJump(op == TokenType.AND ? Opcode.JZ : Opcode.JNZ);
+            emit(Opcode.POP);
+            expression(ast.second(node), TypeKind.BOOLEAN);
+            patch(skip, size);
+            return;
+        }
+
+        int compare = compareOp(node);
+        if (compare >= 0) {
+            line = ast.line(node);
+            emit(compare);
+            return;
+        }
+
+        boolean floating = type == TypeKind.FLOAT;
+        TypeKind operands = floating ? TypeKind.FLOAT : TypeKind.INT;
+        expression(ast.first(node), operands);
+        expression(ast.second(node), operands);
+        line = ast.line(node);
+        switch (op) {
+            case PLUS: emit(floating ? Opcode.FADD : Opcode.IADD); break;
+            case MINUS: emit(floating ? Opcode.FSUB : Opcode.ISUB); break;
+            case STAR: emit(floating ? Opcode.FMUL : Opcode.IMUL); break;
+            case SLASH: emit(floating ? Opcode.FDIV : Opcode.IDIV); break;
+            default: throw new IllegalStateException("Operador inesperado: " + op);
+        }
+    }
+
+    // int, char e boolean compartilham a representação; só float e char precisam de conversão
+    private void convert(TypeKind from, TypeKind to) {
+        if (from == to) return;
+        if (to == TypeKind.FLOAT) {
+            emit(Opcode.I2F);
+        } else if (from == TypeKind.FLOAT) {
+            emit(Opcode.F2I);
+            if (to == TypeKind.CHAR) emit(Opcode.I2C);
+        } else if (to == TypeKind.CHAR) {
+            emit(Opcode.I2C);
+        }
+    }
+
+    private Symbol symbol(int node) {
+        Symbol symbol = ast.symbol(node);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Programa com erros não pode ser compilado (linha " + ast.line(node) + ")");
+        }
+        return symbol;
+    }
+
+    private int slot(Symbol symbol) {
+        return slotOf[symbol.index];
+    }
+
+    // ---- emissão ----
+
+    private void emit(int op) {
+        append(op);
+        stack += Opcode.stackEffect(op);
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void emit(int op, int operand) {
+        emit(op);
+        append(operand);
+    }
+
+    // Emite um salto com destino a ajustar; devolve a posição do operando
+    private int emitJump(int op) {
+        emit(op, -1);
+        return size - 1;
+    }
+
+    private void patch(int at, int target) {
+        code[at] = target;
+    }
+
+    private void patch(List<Integer> jumps, int target) {
+        for (int at : jumps) code[at] = target;
+    }
+
+    private void append(int value) {
+        if (size == code.length) {
+            code = Arrays.copyOf(code, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        code[size] = value;
+        lines[size] = line;
+        size++;
+    }
+}
\ No newline at end of file
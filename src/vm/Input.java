@@ -0,0 +1,103 @@
+package vm;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// Entrada do in(...): valores separados por espaços ou quebras de linha, lidos
+// de um buffer de bytes. Antes de esperar por mais entrada a saída é esvaziada,
+// para que as mensagens do programa apareçam antes da leitura.
+final class Input {
+    private final InputStream in;
+    private final Output output;
+    private final byte[] buffer = new byte[8192];
+    private int position = 0;
+    private int limit = 0;
+    private final StringBuilder word = new StringBuilder();
+
+    Input(InputStream in, Output output) {
+        this.in = in;
+        this.output = output;
+    }
+
+    int readInt() throws IOException {
+        int b = skipBlanks();
+        boolean negative = b == '-';
+        if (negative || b == '+') b = next();
+
+        if (b < '0' || b > '9') throw invalid("int", b);
+        // Acumula com sinal negativo para aceitar Integer.MIN_VALUE; o ProgramIO
+        // transforma o estouro, como os outros erros de entrada, em VmException
+        int value = 0;
+        try {
+            while (b >= '0' && b <= '9') {
+                value = Math.subtractExact(Math.multiplyExact(value, 10), b - '0');
+                b = next();
+            }
+            if (b >= 0 && !isBlank(b)) throw invalid("int", b);
+            return negative ? value : Math.negateExact(value);
+        } catch (ArithmeticException e) {
+            throw new IOException("Entrada fora do intervalo de int");
+        }
+    }
+
+    double readFloat() throws IOException {
+        word.setLength(0);
+        int b = skipBlanks();
+        while (b >= 0 && !isBlank(b)) {
+            word.append((char) b);
+            b = next();
+        }
+        try {
+            return Double.parseDouble(word.toString());
+        } catch (NumberFormatException e) {
+            throw new IOException("Entrada inválida para float: '" + word + "'");
+        }
+    }
+
+    char readChar() throws IOException {
+        int b = skipBlanks();
+        if (b < 0x80) return (char) b;
+
+        // Caractere não ASCII: junta a sequência UTF-8 inteira
+        int length = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+        byte[] bytes = new byte[length];
+        bytes[0] = (byte) b;
+        for (int i = 1; i < length; i++) {
+            int c = next();
+            if (c < 0) break;
+            bytes[i] = (byte) c;
+        }
+        return new String(bytes, StandardCharsets.UTF_8).charAt(0);
+    }
+
+    private int skipBlanks() throws IOException {
+        int b = next();
+        while (b >= 0 && isBlank(b)) b = next();
+        if (b < 0) throw new EOFException("Fim da entrada");
+        return b;
+    }
+
+    private static boolean isBlank(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private IOException invalid(String type, int b) {
+        return new IOException("Entrada inválida para " + type + ": '" + (b < 0 ? "" : String.valueOf((char) b)) + "'");
+    }
+
+    // Próximo byte, ou -1 no fim
+    private int next() throws IOException {
+        if (position == limit) {
+            output.flush();
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,515 @@
+package vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ast.Ast;
+import ast.NodeKind;
+import lexical.TokenType;
+import semantic.Symbol;
+import semantic.TypeKind;
+
+// Traduz a Ast de um programa sem erros para bytecode da JVM: uma classe com o
+// método estático run(ProgramIO), em que as variáveis são locais do método
+// (int, char e boolean em locais int; float em locais double), os laços são
+// saltos nativos e in/out chamam o ProgramIO. A classe é carregada como hidden
+// class (ver JvmProgram) e o JIT da HotSpot a otimiza como qualquer outro código.
+public final class JvmCompiler {
+    private static final String CLASS_NAME = "vm/Programa";
+    private static final String IO = "vm/ProgramIO";
+    static final String METHOD = "run";
+    static final String DESCRIPTOR = "(Lvm/ProgramIO;)V";
+
+    // Opcodes da JVM usados
+    private static final int ICONST_0 = 0x03;
+    private static final int DCONST_0 = 0x0e;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int ILOAD = 0x15;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ISTORE = 0x36;
+    private static final int DSTORE = 0x39;
+    private static final int POP = 0x57;
+    private static final int DUP = 0x59;
+    private static final int IADD = 0x60;
+    private static final int DADD = 0x63;
+    private static final int ISUB = 0x64;
+    private static final int DSUB = 0x67;
+    private static final int IMUL = 0x68;
+    private static final int DMUL = 0x6b;
+    private static final int DDIV = 0x6f;
+    private static final int INEG = 0x74;
+    private static final int DNEG = 0x77;
+    private static final int IXOR = 0x82;
+    private static final int I2D = 0x87;
+    private static final int D2I = 0x8e;
+    private static final int I2C = 0x92;
+    private static final int DCMPL = 0x97;
+    private static final int DCMPG = 0x98;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9a;
+    private static final int IFLT = 0x9b;
+    private static final int IFGE = 0x9c;
+    private static final int IFGT = 0x9d;
+    private static final int IFLE = 0x9e;
+    private static final int IF_ICMPEQ = 0x9f;
+    private static final int IF_ICMPNE = 0xa0;
+    private static final int IF_ICMPLT = 0xa1;
+    private static final int IF_ICMPGE = 0xa2;
+    private static final int IF_ICMPGT = 0xa3;
+    private static final int IF_ICMPLE = 0xa4;
+    private static final int GOTO = 0xa7;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+
+    private final Ast ast;
+    private final ClassWriter classWriter = new ClassWriter();
+    private final int[] localOf;
+    private final List<String> strings = new ArrayList<>();
+
+    private byte[] code = new byte[1024];
+    private int size = 0;
+    private int line = 0;
+
+    // Local 0 é o ProgramIO
+    private int nextLocal = 1;
+    private int maxLocals = 1;
+    private int stack = 0;
+    private int maxStack = 0;
+
+    private JvmCompiler(Ast ast) {
+        this.ast = ast;
+        this.localOf = new int[ast.symbols().size()];
+        Arrays.fill(localOf, -1);
+    }
+
+    // A Ast deve vir de um parseProgram sem diagnósticos. Lança
+    // IllegalStateException se o programa não couber num método da JVM.
+    public static JvmProgram compile(Ast ast) {
+        JvmCompiler compiler = new JvmCompiler(ast);
+        int root = ast.root();
+        compiler.declarations(ast.first(root));
+        compiler.statements(ast.second(root));
+        compiler.emit(RETURN, 0);
+
+        if (compiler.size > 0xFFFF) {
+            throw new IllegalStateException("Programa grande demais para um método da JVM");
+        }
+        byte[] classFile = compiler.classWriter.toByteArray(CLASS_NAME, METHOD, DESCRIPTOR,
+            compiler.code, compiler.size, compiler.maxStack, compiler.maxLocals);
+        return new JvmProgram(classFile, compiler.strings);
+    }
+
+    // ---- comandos ----
+
+    private void declarations(int decl) {
+        for (int node = decl; node != Ast.NONE; node = ast.next(node)) {
+            line = ast.line(node);
+            Symbol symbol = symbol(node);
+            int local = nextLocal;
+            nextLocal += width(symbol.getType());
+            maxLocals = Math.max(maxLocals, nextLocal);
+            localOf[symbol.index] = local;
+
+            // Locais precisam de valor antes do primeiro uso (e começam em zero, como na VM)
+            if (symbol.getType() == TypeKind.FLOAT) {
+                emit(DCONST_0, 2);
+            } else {
+                emit(ICONST_0, 1);
+            }
+            store(symbol.getType(), local);
+        }
+    }
+
+    private void statements(int stmt) {
+        for (int node = stmt; node != Ast.NONE; node = ast.next(node)) {
+            statement(node);
+        }
+    }
+
+    private void block(int block) {
+        int scope = nextLocal;
+        declarations(ast.first(block));
+        statements(ast.second(block));
+        nextLocal = scope;
+    }
+
+    private void statement(int node) {
+        line = ast.line(node);
+        switch (ast.kind(node)) {
+            case BLOCK:
+                block(node);
+                break;
+            case ASSIGN: {
+                Symbol symbol = symbol(node);
+                expression(ast.first(node), symbol.getType());
+                store(symbol.getType(), local(symbol));
+                break;
+            }
+            case IF: {
+                List<Integer> toElse = new ArrayList<>();
+                jumpIfFalse(ast.first(node), toElse);
+                block(ast.second(node));
+                if (ast.third(node) == Ast.NONE) {
+                    patch(toElse, size);
+                } else {
+                    int toEnd = jump(GOTO);
+                    patch(toElse, size);
+                    block(ast.third(node));
+                    patch(toEnd, size);
+                }
+                break;
+            }
+            case WHILE: {
+                int top = size;
+                List<Integer> toEnd = new ArrayList<>();
+                jumpIfFalse(ast.first(node), toEnd);
+                block(ast.second(node));
+                patch(jump(GOTO), top);
+                patch(toEnd, size);
+                break;
+            }
+            case REPEAT: {
+                // A condição do until enxerga as variáveis do bloco
+                int top = size;
+                int body = ast.second(node);
+                int scope = nextLocal;
+                declarations(ast.first(body));
+                statements(ast.second(body));
+                line = ast.line(node);
+                List<Integer> toTop = new ArrayList<>();
+                jumpIfFalse(ast.first(node), toTop);
+                patch(toTop, top);
+                nextLocal = scope;
+                break;
+            }
+            case READ: {
+                Symbol symbol = symbol(node);
+                TypeKind type = symbol.getType();
+                emit(ALOAD_0, 1);
+                constant(line);
+                if (type == TypeKind.FLOAT) {
+                    invoke(INVOKEVIRTUAL, "readFloat", "(I)D", 0);
+                } else {
+                    invoke(INVOKEVIRTUAL, type == TypeKind.CHAR ? "readChar" : "readInt", "(I)I", -1);
+                }
+                store(type, local(symbol));
+                break;
+            }
+            case WRITE: {
+                int value = ast.first(node);
+                emit(ALOAD_0, 1);
+                if (ast.kind(value) == NodeKind.STRING) {
+                    strings.add(ast.string(value));
+                    constant(strings.size() - 1);
+                    constant(line);
+                    invoke(INVOKEVIRTUAL, "writeString", "(II)V", -3);
+                    break;
+                }
+                TypeKind type = ast.type(value);
+                expression(value, type);
+                constant(line);
+                if (type == TypeKind.FLOAT) {
+                    invoke(INVOKEVIRTUAL, "writeFloat", "(DI)V", -4);
+                } else {
+                    String method = type == TypeKind.CHAR ? "writeChar"
+                                  : type == TypeKind.BOOLEAN ? "writeBoolean" : "writeInt";
+                    invoke(INVOKEVIRTUAL, method, "(II)V", -3);
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Comando inesperado: " + ast.kind(node));
+        }
+    }
+
+    // ---- condições ----
+
+    // Gera o teste de uma condição saltando quando ela é falsa; os saltos
+    // emitidos são acrescentados a jumps para serem ajustados depois
+    private void jumpIfFalse(int node, List<Integer> jumps) {
+        if (ast.kind(node) == NodeKind.BINARY) {
+            TokenType op = ast.op(node);
+            if (op == TokenType.AND) {
+                jumpIfFalse(ast.first(node), jumps);
+                jumpIfFalse(ast.second(node), jumps);
+                return;
+            }
+            if (isRelational(op)) {
+                jumps.add(compareAndJumpIfFalse(node));
+                return;
+            }
+        }
+        expression(node, TypeKind.BOOLEAN);
+        jumps.add(jump(IFEQ));
+    }
+
+    private static boolean isRelational(TokenType op) {
+        switch (op) {
+            case EQ: case NEQ: case GT: case GE: case LT: case LE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Empilha os operandos e emite o salto tomado quando a comparação é falsa.
+    // Para double, dcmpg/dcmpl são escolhidos para que NaN também salte.
+    private int compareAndJumpIfFalse(int node) {
+        TokenType op = ast.op(node);
+        int left = ast.first(node);
+        int right = ast.second(node);
+        boolean floating = ast.type(left) == TypeKind.FLOAT || ast.type(right) == TypeKind.FLOAT;
+        TypeKind operands = floating ? TypeKind.FLOAT : TypeKind.INT;
+        expression(left, operands);
+        expression(right, operands);
+        line = ast.line(node);
+
+        if (!floating) {
+            switch (op) {
+                case EQ: return jump(IF_ICMPNE);
+                case NEQ: return jump(IF_ICMPEQ);
+                case GT: return jump(IF_ICMPLE);
+                case GE: return jump(IF_ICMPLT);
+                case LT: return jump(IF_ICMPGE);
+                default: return jump(IF_ICMPGT);
+            }
+        }
+        switch (op) {
+            case EQ: emit(DCMPL, -3); return jump(IFNE);
+            case NEQ: emit(DCMPL, -3); return jump(IFEQ);
+            case GT: emit(DCMPL, -3); return jump(IFLE);
+            case GE: emit(DCMPL, -3); return jump(IFLT);
+            case LT: emit(DCMPG, -3); return jump(IFGE);
+            default: emit(DCMPG, -3); return jump(IFGT);
+        }
+    }
+
+    // ---- expressões ----
+
+    // Empilha o valor da expressão convertido para o tipo pedido
+    private void expression(int node, TypeKind target) {
+        TypeKind type = ast.type(node);
+        if (type == TypeKind.ERRO) {
+            throw new IllegalArgumentException("Programa com erros não pode ser compilado (linha " + ast.line(node) + ")");
+        }
+        line = ast.line(node);
+
+        switch (ast.kind(node)) {
+            case INT_CONST:
+            case CHAR_CONST:
+            case BOOL_CONST:
+                constant(ast.intValue(node));
+                break;
+            case FLOAT_CONST:
+                constant(ast.floatValue(node));
+                break;
+            case VAR: {
+                Symbol symbol = symbol(node);
+                load(symbol.getType(), local(symbol));
+                break;
+            }
+            case UNARY:
+                if (ast.op(node) == TokenType.NOT) {
+                    expression(ast.first(node), TypeKind.BOOLEAN);
+                    constant(1);
+                    emit(IXOR, -1);
+                } else {
+                    expression(ast.first(node), type);
+                    if (type == TypeKind.FLOAT) emit(DNEG, 0);
+                    else emit(INEG, 0);
+                }
+                break;
+            case BINARY:
+                binary(node, type);
+                break;
+            default:
+                throw new IllegalStateException("Expressão inesperada: " + ast.kind(node));
+        }
+        convert(type, target);
+    }
+
+    private void binary(int node, TypeKind type) {
+        TokenType op = ast.op(node);
+        if (op == TokenType.AND || op == TokenType.OR) {
+            // Curto-circuito: o valor do lado esquerdo decide se o direito é avaliado
+            expression(ast.first(node), TypeKind.BOOLEAN);
+            emit(DUP, 1);
+            int skip = jump(op == TokenType.AND ? IFEQ : IFNE);
+            emit(POP, -1);
+            expression(ast.second(node), TypeKind.BOOLEAN);
+            patch(skip, size);
+            return;
+        }
+
+        if (isRelational(op)) {
+            // Valor 0/1: salto para o ramo falso
+            int toFalse = compareAndJumpIfFalse(node);
+            constant(1);
+            int toEnd = jump(GOTO);
+            stack--;  // o ramo falso começa sem o 1
+            patch(toFalse, size);
+            constant(0);
+            patch(toEnd, size);
+            return;
+        }
+
+        boolean floating = type == TypeKind.FLOAT;
+        TypeKind operands = floating ? TypeKind.FLOAT : TypeKind.INT;
+        expression(ast.first(node), operands);
+        expression(ast.second(node), operands);
+        line = ast.line(node);
+        switch (op) {
+            case PLUS: emit(floating ? DADD : IADD, floating ? -2 : -1); break;
+            case MINUS: emit(floating ? DSUB : ISUB, floating ? -2 : -1); break;
+            case STAR: emit(floating ? DMUL : IMUL, floating ? -2 : -1); break;
+            case SLASH:
+                if (floating) {
+                    emit(DDIV, -2);
+                } else {
+                    constant(line);
+                    invoke(INVOKESTATIC, "divide", "(III)I", -2);
+                }
+                break;
+            default: throw new IllegalStateException("Operador inesperado: " + op);
+        }
+    }
+
+    // int, char e boolean são int na JVM; só float e char precisam de conversão
+    private void convert(TypeKind from, TypeKind to) {
+        if (from == to) return;
+        if (to == TypeKind.FLOAT) {
+            emit(I2D, 1);
+        } else if (from == TypeKind.FLOAT) {
+            emit(D2I, -1);
+            if (to == TypeKind.CHAR) emit(I2C, 0);
+        } else if (to == TypeKind.CHAR) {
+            emit(I2C, 0);
+        }
+    }
+
+    private Symbol symbol(int node) {
+        Symbol symbol = ast.symbol(node);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Programa com erros não pode ser compilado (linha " + ast.line(node) + ")");
+        }
+        return symbol;
+    }
+
+    private int local(Symbol symbol) {
+        return localOf[symbol.index];
+    }
+
+    private static int width(TypeKind type) {
+        return type == TypeKind.FLOAT ? 2 : 1;
+    }
+
+    // ---- emissão ----
+
+    private void emit(int opcode, int stackEffect) {
+        u1(opcode);
+        stack += stackEffect;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void constant(int value) {
+        if (value >= -1 && value <= 5) {
+            emit(ICONST_0 + value, 1);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            emit(BIPUSH, 1);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            emit(SIPUSH, 1);
+            u2(value);
+        } else {
+            int index = classWriter.integer(value);
+            if (index < 256) {
+                emit(LDC, 1);
+                u1(index);
+            } else {
+                emit(LDC_W, 1);
+                u2(index);
+            }
+        }
+    }
+
+    private void constant(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L) {
+            emit(DCONST_0, 2);
+        } else {
+            emit(LDC2_W, 2);
+            u2(classWriter.doubleConstant(value));
+        }
+    }
+
+    private void load(TypeKind type, int local) {
+        boolean floating = type == TypeKind.FLOAT;
+        local(floating ? DLOAD : ILOAD, local, floating ? 2 : 1);
+    }
+
+    private void store(TypeKind type, int local) {
+        boolean floating = type == TypeKind.FLOAT;
+        local(floating ? DSTORE : ISTORE, local, floating ? -2 : -1);
+    }
+
+    private void local(int opcode, int local, int stackEffect) {
+        if (local > 0xFF) {
+            if (local > 0xFFFF) throw new IllegalStateException("Variáveis demais para um método da JVM");
+            u1(WIDE);
+            emit(opcode, stackEffect);
+            u2(local);
+        } else {
+            emit(opcode, stackEffect);
+            u1(local);
+        }
+    }
+
+    // Chamada a ProgramIO; stackEffect já inclui o receptor e os argumentos
+    private void invoke(int opcode, String name, String descriptor, int stackEffect) {
+        emit(opcode, stackEffect);
+        u2(classWriter.methodRef(IO, name, descriptor));
+    }
+
+    // Emite um salto com destino a ajustar; devolve a posição do opcode
+    private int jump(int opcode) {
+        int at = size;
+        int effect;
+        if (opcode == GOTO) effect = 0;
+        else if (opcode >= IF_ICMPEQ && opcode <= IF_ICMPLE) effect = -2;
+        else effect = -1;
+        emit(opcode, effect);
+        u2(0);
+        return at;
+    }
+
+    // O deslocamento dos saltos é relativo ao opcode e tem 16 bits
+    private void patch(int at, int target) {
+        int offset = target - at;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new IllegalStateException("Programa grande demais para um método da JVM");
+        }
+        code[at + 1] = (byte) (offset >> 8);
+        code[at + 2] = (byte) offset;
+    }
+
+    private void patch(List<Integer> jumps, int target) {
+        for (int at : jumps) patch(at, target);
+    }
+
+    private void u1(int value) {
+        if (size == code.length) code = Arrays.copyOf(code, size * 2);
+        code[size++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        u1(value >> 8);
+        u1(value);
+    }
+}
\ No newline at end of file
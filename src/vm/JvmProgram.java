@@ -0,0 +1,58 @@
+package vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Programa compilado pelo JvmCompiler, já carregado como hidden class no pacote vm
+// (por isso o código gerado enxerga o ProgramIO). A classe não tem nome visível e
+// é descarregada junto com este objeto.
+public final class JvmProgram {
+    private final MethodHandle run;
+    private final byte[][] strings;
+    private final int classSize;
+
+    JvmProgram(byte[] classFile, List<String> strings) {
+        this.strings = new byte[strings.size()][];
+        for (int i = 0; i < this.strings.length; i++) {
+            this.strings[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        this.classSize = classFile.length;
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            this.run = lookup.findStatic(lookup.lookupClass(), JvmCompiler.METHOD,
+                MethodType.methodType(void.class, ProgramIO.class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Classe gerada inválida", e);
+        }
+    }
+
+    // Tamanho do .class gerado, em bytes
+    public int classSize() {
+        return classSize;
+    }
+
+    public void run(InputStream in, OutputStream out) {
+        ProgramIO io = new ProgramIO(in, out, strings);
+        try {
+            run.invokeExact(io);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        } finally {
+            try {
+                io.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package vm;
+
+// Instruções da máquina de pilha. Cada instrução é um int no código, seguido
+// dos seus operandos. A pilha e as variáveis guardam long: inteiros, chars e
+// booleanos (0/1) como valor, floats como os bits do double.
+final class Opcode {
+    private Opcode() {
+    }
+
+    static final int ICONST = 0;   // v: empilha o inteiro v
+    static final int FCONST = 1;   // i: empilha a constante float i
+    static final int LOAD = 2;     // s: empilha a variável s
+    static final int STORE = 3;    // s: desempilha para a variável s
+    static final int DUP = 4;
+    static final int POP = 5;
+
+    static final int IADD = 6;
+    static final int ISUB = 7;
+    static final int IMUL = 8;
+    static final int IDIV = 9;
+    static final int INEG = 10;
+    static final int FADD = 11;
+    static final int FSUB = 12;
+    static final int FMUL = 13;
+    static final int FDIV = 14;
+    static final int FNEG = 15;
+    static final int I2F = 16;
+    static final int F2I = 17;
+    static final int I2C = 18;
+    static final int NOT = 19;
+
+    // Comparações que empilham 0 ou 1
+    static final int IEQ = 20;
+    static final int INE = 21;
+    static final int IGT = 22;
+    static final int IGE = 23;
+    static final int ILT = 24;
+    static final int ILE = 25;
+    static final int FEQ = 26;
+    static final int FNE = 27;
+    static final int FGT = 28;
+    static final int FGE = 29;
+    static final int FLT = 30;
+    static final int FLE = 31;
+
+    static final int JMP = 32;     // t: salta para t
+    static final int JZ = 33;      // t: desempilha e salta se for 0
+    static final int JNZ = 34;     // t: desempilha e salta se não for 0
+
+    // Comparação fundida com o salto das condições: desempilha os dois
+    // operandos e salta para t se a comparação for falsa
+    static final int JF_IEQ = 35;
+    static final int JF_INE = 36;
+    static final int JF_IGT = 37;
+    static final int JF_IGE = 38;
+    static final int JF_ILT = 39;
+    static final int JF_ILE = 40;
+    static final int JF_FEQ = 41;
+    static final int JF_FNE = 42;
+    static final int JF_FGT = 43;
+    static final int JF_FGE = 44;
+    static final int JF_FLT = 45;
+    static final int JF_FLE = 46;
+
+    static final int READI = 47;   // s: lê um int para a variável s
+    static final int READF = 48;   // s
+    static final int READC = 49;   // s
+    static final int WRITEI = 50;
+    static final int WRITEF = 51;
+    static final int WRITEC = 52;
+    static final int WRITEB = 53;
+    static final int WRITES = 54;  // i: escreve a string i
+    static final int HALT = 55;
+
+    static final String[] NAMES = {
+        "ICONST", "FCONST", "LOAD", "STORE", "DUP", "POP",
+        "IADD", "ISUB", "IMUL", "IDIV", "INEG", "FADD", "FSUB", "FMUL", "FDIV", "FNEG",
+        "I2F", "F2I", "I2C", "NOT",
+        "IEQ", "INE", "IGT", "IGE", "ILT", "ILE", "FEQ", "FNE", "FGT", "FGE", "FLT", "FLE",
+        "JMP", "JZ", "JNZ",
+        "JF_IEQ", "JF_INE", "JF_IGT", "JF_IGE", "JF_ILT", "JF_ILE",
+        "JF_FEQ", "JF_FNE", "JF_FGT", "JF_FGE", "JF_FLT", "JF_FLE",
+        "READI", "READF", "READC", "WRITEI", "WRITEF", "WRITEC", "WRITEB", "WRITES", "HALT"
+    };
+
+    // Quantos operandos seguem a instrução
+    static int operands(int op) {
+        switch (op) {
+            case ICONST: case FCONST: case LOAD: case STORE:
+            case JMP: case JZ: case JNZ:
+            case READI: case READF: case READC: case WRITES:
+                return 1;
+            default:
+                return op >= JF_IEQ && op <= JF_FLE ? 1 : 0;
+        }
+    }
+
+    // Variação da altura da pilha
+    static int stackEffect(int op) {
+        switch (op) {
+            case ICONST: case FCONST: case LOAD: case DUP:
+                return 1;
+            case INEG: case FNEG: case I2F: case F2I: case I2C: case NOT:
+            case JMP: case READI: case READF: case READC: case WRITES: case HALT:
+                return 0;
+            default:
+                if (op >= JF_IEQ && op <= JF_FLE) return -2;
+                return -1;
+        }
+    }
+}
\ No newline at end of file
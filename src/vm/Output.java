@@ -0,0 +1,92 @@
+package vm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Saída do out(...): um buffer de bytes esvaziado só quando enche, antes de
+// cada leitura que precisa esperar a entrada e no fim da execução.
+final class Output {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int size = 0;
+
+    Output(OutputStream out) {
+        this.out = out;
+    }
+
+    void writeInt(int value) throws IOException {
+        if (buffer.length - size < 12) flush();
+        if (value < 0) {
+            buffer[size++] = '-';
+        } else {
+            value = -value;  // em negativo para caber Integer.MIN_VALUE
+        }
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        // os dígitos saíram do menos significativo para o mais
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+        newline();
+    }
+
+    void writeFloat(double value) throws IOException {
+        writeAscii(Double.toString(value));
+        newline();
+    }
+
+    void writeChar(char value) throws IOException {
+        if (value < 0x80) {
+            if (size == buffer.length) flush();
+            buffer[size++] = (byte) value;
+        } else {
+            write(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+        newline();
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        writeAscii(value ? "true" : "false");
+        newline();
+    }
+
+    // Strings do programa já codificadas em UTF-8
+    void writeBytes(byte[] text) throws IOException {
+        write(text);
+        newline();
+    }
+
+    private void writeAscii(String text) throws IOException {
+        if (buffer.length - size < text.length()) flush();
+        for (int i = 0; i < text.length(); i++) buffer[size++] = (byte) text.charAt(i);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (buffer.length - size < bytes.length) {
+            flush();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void newline() throws IOException {
+        if (size == buffer.length) flush();
+        buffer[size++] = '\n';
+    }
+
+    void flush() throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+        out.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package vm;
+
+// Resultado do Compiler: o código e as tabelas que a VM precisa para executá-lo.
+public final class Program {
+    final int[] code;
+    final int[] lines;        // linha do fonte de cada posição do código
+    final double[] floats;
+    final String[] strings;
+    final int slots;          // variáveis (escopos irmãos reaproveitam posições)
+    final int maxStack;
+
+    Program(int[] code, int[] lines, double[] floats, String[] strings, int slots, int maxStack) {
+        this.code = code;
+        this.lines = lines;
+        this.floats = floats;
+        this.strings = strings;
+        this.slots = slots;
+        this.maxStack = maxStack;
+    }
+
+    public int size() {
+        return code.length;
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    // Listagem do código, útil para depurar
+    public String disassemble() {
+        StringBuilder out = new StringBuilder();
+        for (int pc = 0; pc < code.length; ) {
+            int op = code[pc];
+            out.append(String.format("%5d  %-7s", pc, Opcode.NAMES[op]));
+            if (Opcode.operands(op) > 0) {
+                int operand = code[pc + 1];
+                out.append(' ').append(operand);
+                if (op == Opcode.FCONST) out.append("  (").append(floats[operand]).append(')');
+                if (op == Opcode.WRITES) out.append("  \"").append(strings[operand]).append('"');
+            }
+            out.append('\n');
+            pc += 1 + Opcode.operands(op);
+        }
+        return out.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import diagnostic.Diagnostic;
+
+// Operações que o código gerado pelo JvmCompiler chama: in/out sobre os mesmos
+// buffers da VM e a divisão inteira com checagem. Cada uma recebe a linha do
+// comando para que os erros saiam como na VM.
+final class ProgramIO {
+    private final Output output;
+    private final Input input;
+    private final byte[][] strings;
+
+    ProgramIO(InputStream in, OutputStream out, byte[][] strings) {
+        this.strings = strings;
+        this.output = new Output(out);
+        this.input = new Input(in, output);
+    }
+
+    public int readInt(int line) {
+        try {
+            return input.readInt();
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public double readFloat(int line) {
+        try {
+            return input.readFloat();
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public int readChar(int line) {
+        try {
+            return input.readChar();
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public void writeInt(int value, int line) {
+        try {
+            output.writeInt(value);
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public void writeFloat(double value, int line) {
+        try {
+            output.writeFloat(value);
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public void writeChar(int value, int line) {
+        try {
+            output.writeChar((char) value);
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public void writeBoolean(int value, int line) {
+        try {
+            output.writeBoolean(value != 0);
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public void writeString(int index, int line) {
+        try {
+            output.writeBytes(strings[index]);
+        } catch (IOException e) {
+            throw error(line, e.getMessage());
+        }
+    }
+
+    public static int divide(int dividend, int divisor, int line) {
+        if (divisor == 0) throw error(line, "Divisão por zero");
+        return dividend / divisor;
+    }
+
+    void flush() throws IOException {
+        output.flush();
+    }
+
+    private static VmException error(int line, String message) {
+        return new VmException(new Diagnostic(Diagnostic.Kind.EXECUCAO, line, message));
+    }
+}
\ No newline at end of file
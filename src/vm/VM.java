@@ -0,0 +1,140 @@
+package vm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import diagnostic.Diagnostic;
+
+// Executa um Program: um laço de despacho sobre o array de código, com a pilha
+// e as variáveis em arrays de long locais ao método.
+public final class VM {
+    private final Program program;
+    private final byte[][] strings;
+    private final Output output;
+    private final Input input;
+
+    public VM(Program program, InputStream in, OutputStream out) {
+        this.program = program;
+        this.strings = new byte[program.strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = program.strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        this.output = new Output(out);
+        this.input = new Input(in, output);
+    }
+
+    public void run() {
+        final int[] code = program.code;
+        final double[] floats = program.floats;
+        final long[] stack = new long[program.maxStack + 1];
+        final long[] slots = new long[program.slots];
+        int pc = 0;
+        int sp = 0;   // próxima posição livre da pilha
+        long a;
+        long b;
+
+        try {
+            while (true) {
+                switch (code[pc++]) {
+                    case Opcode.ICONST: stack[sp++] = code[pc++]; break;
+                    case Opcode.FCONST: stack[sp++] = Double.doubleToRawLongBits(floats[code[pc++]]); break;
+                    case Opcode.LOAD: stack[sp++] = slots[code[pc++]]; break;
+                    case Opcode.STORE: slots[code[pc++]] = stack[--sp]; break;
+                    case Opcode.DUP: stack[sp] = stack[sp - 1]; sp++; break;
+                    case Opcode.POP: sp--; break;
+
+                    case Opcode.IADD: b = stack[--sp]; stack[sp - 1] = (int) stack[sp - 1] + (int) b; break;
+                    case Opcode.ISUB: b = stack[--sp]; stack[sp - 1] = (int) stack[sp - 1] - (int) b; break;
+                    case Opcode.IMUL: b = stack[--sp]; stack[sp - 1] = (int) stack[sp - 1] * (int) b; break;
+                    case Opcode.IDIV:
+                        b = stack[--sp];
+                        if (b == 0) throw error(pc - 1, "Divisão por zero");
+                        stack[sp - 1] = (int) stack[sp - 1] / (int) b;
+                        break;
+                    case Opcode.INEG: stack[sp - 1] = -(int) stack[sp - 1]; break;
+
+                    case Opcode.FADD: b = stack[--sp]; stack[sp - 1] = bits(f(stack[sp - 1]) + f(b)); break;
+                    case Opcode.FSUB: b = stack[--sp]; stack[sp - 1] = bits(f(stack[sp - 1]) - f(b)); break;
+                    case Opcode.FMUL: b = stack[--sp]; stack[sp - 1] = bits(f(stack[sp - 1]) * f(b)); break;
+                    case Opcode.FDIV: b = stack[--sp]; stack[sp - 1] = bits(f(stack[sp - 1]) / f(b)); break;
+                    case Opcode.FNEG: stack[sp - 1] = bits(-f(stack[sp - 1])); break;
+
+                    case Opcode.I2F: stack[sp - 1] = bits((int) stack[sp - 1]); break;
+                    case Opcode.F2I: stack[sp - 1] = (int) f(stack[sp - 1]); break;
+                    case Opcode.I2C: stack[sp - 1] = (char) stack[sp - 1]; break;
+                    case Opcode.NOT: stack[sp - 1] = stack[sp - 1] == 0 ? 1 : 0; break;
+
+                    case Opcode.IEQ: b = stack[--sp]; stack[sp - 1] = stack[sp - 1] == b ? 1 : 0; break;
+                    case Opcode.INE: b = stack[--sp]; stack[sp - 1] = stack[sp - 1] != b ? 1 : 0; break;
+                    case Opcode.IGT: b = stack[--sp]; stack[sp - 1] = stack[sp - 1] > b ? 1 : 0; break;
+                    case Opcode.IGE: b = stack[--sp]; stack[sp - 1] = stack[sp - 1] >= b ? 1 : 0; break;
+                    case Opcode.ILT: b = stack[--sp]; stack[sp - 1] = stack[sp - 1] < b ? 1 : 0; break;
+                    case Opcode.ILE: b = stack[--sp]; stack[sp - 1] = stack[sp - 1] <= b ? 1 : 0; break;
+                    case Opcode.FEQ: b = stack[--sp]; stack[sp - 1] = f(stack[sp - 1]) == f(b) ? 1 : 0; break;
+                    case Opcode.FNE: b = stack[--sp]; stack[sp - 1] = f(stack[sp - 1]) != f(b) ? 1 : 0; break;
+                    case Opcode.FGT: b = stack[--sp]; stack[sp - 1] = f(stack[sp - 1]) > f(b) ? 1 : 0; break;
+                    case Opcode.FGE: b = stack[--sp]; stack[sp - 1] = f(stack[sp - 1]) >= f(b) ? 1 : 0; break;
+                    case Opcode.FLT: b = stack[--sp]; stack[sp - 1] = f(stack[sp - 1]) < f(b) ? 1 : 0; break;
+                    case Opcode.FLE: b = stack[--sp]; stack[sp - 1] = f(stack[sp - 1]) <= f(b) ? 1 : 0; break;
+
+                    case Opcode.JMP: pc = code[pc]; break;
+                    case Opcode.JZ: pc = stack[--sp] == 0 ? code[pc] : pc + 1; break;
+                    case Opcode.JNZ: pc = stack[--sp] != 0 ? code[pc] : pc + 1; break;
+
+                    case Opcode.JF_IEQ: b = stack[--sp]; a = stack[--sp]; pc = a == b ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_INE: b = stack[--sp]; a = stack[--sp]; pc = a != b ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_IGT: b = stack[--sp]; a = stack[--sp]; pc = a > b ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_IGE: b = stack[--sp]; a = stack[--sp]; pc = a >= b ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_ILT: b = stack[--sp]; a = stack[--sp]; pc = a < b ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_ILE: b = stack[--sp]; a = stack[--sp]; pc = a <= b ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_FEQ: b = stack[--sp]; a = stack[--sp]; pc = f(a) == f(b) ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_FNE: b = stack[--sp]; a = stack[--sp]; pc = f(a) != f(b) ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_FGT: b = stack[--sp]; a = stack[--sp]; pc = f(a) > f(b) ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_FGE: b = stack[--sp]; a = stack[--sp]; pc = f(a) >= f(b) ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_FLT: b = stack[--sp]; a = stack[--sp]; pc = f(a) < f(b) ? pc + 1 : code[pc]; break;
+                    case Opcode.JF_FLE: b = stack[--sp]; a = stack[--sp]; pc = f(a) <= f(b) ? pc + 1 : code[pc]; break;
+
+                    case Opcode.READI: slots[code[pc++]] = input.readInt(); break;
+                    case Opcode.READF: slots[code[pc++]] = bits(input.readFloat()); break;
+                    case Opcode.READC: slots[code[pc++]] = input.readChar(); break;
+                    case Opcode.WRITEI: output.writeInt((int) stack[--sp]); break;
+                    case Opcode.WRITEF: output.writeFloat(f(stack[--sp])); break;
+                    case Opcode.WRITEC: output.writeChar((char) stack[--sp]); break;
+                    case Opcode.WRITEB: output.writeBoolean(stack[--sp] != 0); break;
+                    case Opcode.WRITES: output.writeBytes(strings[code[pc++]]); break;
+
+                    case Opcode.HALT:
+                        output.flush();
+                        return;
+
+                    default:
+                        throw new IllegalStateException("Instrução inválida: " + code[pc - 1]);
+                }
+            }
+        } catch (IOException e) {
+            // pc já passou da instrução de leitura/escrita; a linha é a mesma
+            throw error(pc - 1, e.getMessage());
+        } finally {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static double f(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static long bits(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    private VmException error(int at, String message) {
+        return new VmException(new Diagnostic(Diagnostic.Kind.EXECUCAO, program.lines[at], message));
+    }
+}
\ No newline at end of file
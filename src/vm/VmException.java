@@ -0,0 +1,16 @@
+package vm;
+
+import diagnostic.Diagnostic;
+
+// Erro durante a execução (divisão por zero, entrada inválida, fim da entrada),
+// com a linha do comando que o causou.
+public class VmException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public final transient Diagnostic diagnostic;
+
+    public VmException(Diagnostic diagnostic) {
+        super(diagnostic.toString(), null, false, false);
+        this.diagnostic = diagnostic;
+    }
+}
\ No newline at end of file